@@ -1,36 +1,81 @@
 package warehousemanagement;
 
-import warehousemanagement.gui.Frame;
-import warehousemanagement.gui.Panel;
 import warehousemanagement.navigation.DeliveryNode;
+import warehousemanagement.navigation.FleetAutoscaler;
+import warehousemanagement.navigation.PreStager;
+import warehousemanagement.navigation.SlottingOptimizer;
+import warehousemanagement.simulation.Simulation;
 
-import java.util.ArrayList;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Hauptkontrolleinheit die alle wichtigen Componenten initialisiert und verwaltet, stellt wichtige Grundfunktionalitäten zur Verfuegung
+ * Hauptkontrolleinheit die alle wichtigen Componenten initialisiert und verwaltet, stellt wichtige Grundfunktionalitäten zur Verfuegung.
+ * Der Controller kommt ohne AWT und Swing aus, die Oberflaeche ({@link warehousemanagement.gui.Frame}) wird nur von
+ * {@link Main} dazugeschaltet.
  */
 public class Controller {
 
     /**
      * Simuliert die Uhrzeit um sicherzustellen, dass bei jedem Programmstart {@link Shipment} ankommen, startet bei jedem Programmstart bei null
      */
-    private int time;
+    private volatile int time;
 
     /**
-     * Hauptframe mit der JMenuBar
+     * Maximale Anzahl an LKWs die auf eine freie {@link DeliveryNode} warten, weitere LKWs bleiben im Lieferplan der
+     * {@link DataConnection} bis wieder Platz ist
      */
-    private final Frame frame;
+    static final int SHIPMENT_QUEUE_CAPACITY = 1024;
 
-    private final ArrayList<DeliveryNode> deliveryNodesQueue;
+    /**
+     * {@link DeliveryNode}s die frei geworden sind und noch nicht an den {@link DockScheduler} uebergeben wurden
+     */
+    private final ConcurrentLinkedQueue<DeliveryNode> deliveryNodesQueue;
+
+    /**
+     * LKWs die angekommen sind und noch nicht an den {@link DockScheduler} uebergeben wurden
+     */
+    private final ConcurrentLinkedQueue<Shipment> shipmentsQueue;
+
+    /**
+     * Entscheidet welcher LKW an welche {@link DeliveryNode} kommt
+     */
+    private final DockScheduler dockScheduler;
+
+    /**
+     * Anzahl der angekommenen LKWs die noch an keiner {@link DeliveryNode} stehen, begrenzt durch
+     * {@link Controller#SHIPMENT_QUEUE_CAPACITY}
+     */
+    private final AtomicInteger backlog;
+
+    private final AtomicInteger maxBacklog;
+
+    /**
+     * Anzahl der Takte in denen angekommene LKWs wegen voller Warteschlange im Lieferplan bleiben mussten
+     */
+    private final AtomicLong deferredTicks;
+
+    private final AtomicLong dispatchedShipments;
 
-    private final ArrayList<Shipment> shipmentsQueue;
+    /**
+     * Summe der Sekunden die die LKWs zwischen Ankunft und Zuweisung einer {@link DeliveryNode} gewartet haben
+     */
+    private final AtomicLong dockWait;
+
+    private final AtomicLong maxDockWait;
 
     private Controller() {
-        frame = new Frame(new Panel());
-        deliveryNodesQueue = new ArrayList<>(Map.getMap().deliveryNodes);
-        shipmentsQueue = new ArrayList<>();
+        deliveryNodesQueue = new ConcurrentLinkedQueue<>(Map.getMap().deliveryNodes);
+        shipmentsQueue = new ConcurrentLinkedQueue<>();
+        dockScheduler = new DockScheduler(Map.getMap().deliveryNodes);
+        backlog = new AtomicInteger();
+        maxBacklog = new AtomicInteger();
+        deferredTicks = new AtomicLong();
+        dispatchedShipments = new AtomicLong();
+        dockWait = new AtomicLong();
+        maxDockWait = new AtomicLong();
         initClock();
     }
 
@@ -38,45 +83,132 @@ public class Controller {
         return ControllerHolder.INSTANCE;
     }
 
+    /**
+     * Laesst die Uhr jede Sekunde Simulationszeit weiterlaufen, plant {@link SlottingOptimizer} und
+     * {@link FleetAutoscaler} ein und startet die {@link Simulation}
+     */
     private void initClock() {
         time = 0;
-        Timer clock = new Timer("Clock", true);
-        clock.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                time++;
-                frame.setTitle("Warehouse Management Software (" + time + ")");
-                handleShipments();
-            }
-        }, 0, 1000);
+        Simulation simulation = Simulation.getSimulation();
+        simulation.scheduleAtFixedRate(0, 1000, () -> {
+            time++;
+            handleShipments();
+        });
+        SlottingOptimizer.getSlottingOptimizer().start();
+        FleetAutoscaler.getFleetAutoscaler().start(this::getBacklog);
+        simulation.start();
     }
 
-    int getTime() {
+    /**
+     * Gibt die Uhrzeit der Simulation zurueck
+     *
+     * @return Sekunden seit dem Programmstart
+     */
+    public int getTime() {
         return time;
     }
 
+    /**
+     * Stellt alle bis jetzt angekommenen {@link Shipment}s in die Warteschlange, auch mehrere LKWs in der gleichen
+     * Sekunde, und verteilt sie gemeinsam auf alle freien {@link DeliveryNode}s. Ist die Warteschlange voll bleiben die
+     * restlichen LKWs im Lieferplan und werden im naechsten Takt erneut abgeholt. Alle
+     * {@link PreStager#PERIOD_SECONDS} Sekunden bekommt der {@link PreStager} die Vorschau des {@link DockScheduler}.
+     */
     private void handleShipments() {
         int t = getTime();
         DataConnection d = DataConnection.getDataConnection();
-        Shipment s;
-        if ((s = d.getShipment(t)) != null) {
-            if (deliveryNodesQueue.size() > 0) {
-                deliveryNodesQueue.get(0).loadShipment(s);
-                deliveryNodesQueue.remove(0);
-            } else {
-                shipmentsQueue.add(s);
-            }
+        int capacity = SHIPMENT_QUEUE_CAPACITY - backlog.get();
+        for (Shipment s : d.pollShipments(0, t, Math.max(0, capacity))) {
+            shipmentsQueue.add(s);
+            maxBacklog.accumulateAndGet(backlog.incrementAndGet(), Math::max);
+        }
+        Shipment deferred = d.getNextShipment(0);
+        if (deferred != null && deferred.getEta() <= t) {
+            deferredTicks.incrementAndGet();
+        }
+        dispatch();
+        if (t % PreStager.PERIOD_SECONDS == 0) {
+            List<Shipment> upcoming = d.peekShipments(t + 1, t + DockScheduler.LOOKAHEAD_SECONDS,
+                    DockScheduler.LOOKAHEAD_SHIPMENTS);
+            PreStager.getPreStager().update(dockScheduler.forecast(t, upcoming));
         }
     }
 
-    public Shipment requestNextShipment(DeliveryNode n) {
-        if (shipmentsQueue.size() == 0) {
-            deliveryNodesQueue.add(n);
-            return null;
+    /**
+     * Meldet eine {@link DeliveryNode} als frei. Sieht der {@link DockScheduler} einen wartenden LKW fuer sie vor wird er
+     * ihr sofort mit {@link DeliveryNode#loadShipment} zugewiesen, ansonsten wartet sie auf den naechsten LKW.
+     *
+     * @param n die freie DeliveryNode
+     */
+    public void requestNextShipment(DeliveryNode n) {
+        deliveryNodesQueue.add(n);
+        dispatch();
+    }
+
+    /**
+     * Uebergibt die freien {@link DeliveryNode}s und wartenden LKWs an den {@link DockScheduler} und setzt dessen
+     * Zuweisungen um. Da beide Seiten nach dem Einreihen {@code dispatch()} aufrufen, bleibt kein Paar aus LKW und freier
+     * Node liegen.
+     */
+    private void dispatch() {
+        int t = getTime();
+        DeliveryNode n;
+        while ((n = deliveryNodesQueue.poll()) != null) {
+            dockScheduler.dockFree(n, t);
         }
-        Shipment r = shipmentsQueue.get(0);
-        shipmentsQueue.remove(0);
-        return r;
+        Shipment s;
+        while ((s = shipmentsQueue.poll()) != null) {
+            dockScheduler.addShipment(s);
+        }
+        List<Shipment> upcoming = DataConnection.getDataConnection().peekShipments(t + 1,
+                t + DockScheduler.LOOKAHEAD_SECONDS, DockScheduler.LOOKAHEAD_SHIPMENTS);
+        for (DockScheduler.Assignment a : dockScheduler.schedule(t, upcoming)) {
+            backlog.decrementAndGet();
+            long wait = Math.max(0, t - a.shipment.getEta());
+            dispatchedShipments.incrementAndGet();
+            dockWait.addAndGet(wait);
+            maxDockWait.accumulateAndGet(wait, Math::max);
+            a.dock.loadShipment(a.shipment);
+        }
+    }
+
+    public DockScheduler getDockScheduler() {
+        return dockScheduler;
+    }
+
+    /**
+     * Gibt die Anzahl der LKWs zurueck die gerade auf eine freie {@link DeliveryNode} warten
+     *
+     * @return Laenge der Warteschlange
+     */
+    public int getBacklog() {
+        return backlog.get();
+    }
+
+    public int getMaxBacklog() {
+        return maxBacklog.get();
+    }
+
+    public long getDeferredTicks() {
+        return deferredTicks.get();
+    }
+
+    public long getDispatchedShipments() {
+        return dispatchedShipments.get();
+    }
+
+    /**
+     * Gibt zurueck wie lange ein LKW im Mittel auf eine {@link DeliveryNode} gewartet hat
+     *
+     * @return mittlere Wartezeit in Sekunden
+     */
+    public double getAverageDockWait() {
+        long n = dispatchedShipments.get();
+        return n == 0 ? 0 : (double) dockWait.get() / n;
+    }
+
+    public long getMaxDockWait() {
+        return maxDockWait.get();
     }
 
     private static class ControllerHolder {
@@ -1,6 +1,10 @@
 package warehousemanagement;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 /**
  * Diese Klasse simuliert die Verbindung zu einer Datenbank mit einfachen Listen und entsprechenden Gettern und Settern
@@ -17,6 +21,16 @@ public class DataConnection {
      */
     private final ArrayList<Shipment> shipments;
 
+    /**
+     * Alle {@link Shipment}s sortiert nach {@link Shipment#getEta()}
+     */
+    private final TreeMap<Integer, List<Shipment>> schedule;
+
+    /**
+     * Alle {@link Shipment}s die noch nicht angekommen sind, sortiert nach {@link Shipment#getEta()}
+     */
+    private final TreeMap<Integer, ArrayDeque<Shipment>> pending;
+
     private DataConnection() {
         materialTypes = new ArrayList<>();
         materialTypes.add("Leer");
@@ -26,10 +40,12 @@ public class DataConnection {
         materialTypes.add("Gold");
 
         shipments = new ArrayList<>();
-        shipments.add(new Shipment(0, 10, 180, 10, 1, false, 0, "International Deliveries"));
-        shipments.add(new Shipment(1, 20, 180, 10, 3, false, 0, "We make you move"));
-        shipments.add(new Shipment(2, 25, 180, 10, 1, false, 0, "International Deliveries"));
-        shipments.add(new Shipment(3, 100, 180, 10, 4, true, 1, "We move everything"));
+        schedule = new TreeMap<>();
+        pending = new TreeMap<>();
+        addShipment(new Shipment(0, 10, 180, 10, 1, false, 0, "International Deliveries"));
+        addShipment(new Shipment(1, 20, 180, 10, 3, false, 0, "We make you move"));
+        addShipment(new Shipment(2, 25, 180, 10, 1, false, 0, "International Deliveries"));
+        addShipment(new Shipment(3, 100, 180, 10, 4, true, 1, "We move everything"));
     }
 
     public static DataConnection getDataConnection() {
@@ -40,25 +56,108 @@ public class DataConnection {
         return shipments;
     }
 
+    /**
+     * Fuegt ein neues {@link Shipment} in den Lieferplan ein
+     *
+     * @param s das neue Shipment
+     */
+    public synchronized void addShipment(Shipment s) {
+        shipments.add(s);
+        schedule.computeIfAbsent(s.getEta(), eta -> new ArrayList<>()).add(s);
+        if (!s.isArrived()) {
+            pending.computeIfAbsent(s.getEta(), eta -> new ArrayDeque<>()).add(s);
+        }
+    }
+
     /**
      * Gibt das naechste Shipment zurueck, dass nach der akutellen Uhrzeit ankommt
      *
      * @return naechstes, faelliges Shipment
      */
     public Shipment getNextShipment() {
-        for (Shipment s : shipments) {
-            if (s.getEta() >= Controller.getController().getTime() && !s.isArrived()) return s;
+        return getNextShipment(Controller.getController().getTime());
+    }
+
+    /**
+     * Gibt das naechste Shipment zurueck, das noch nicht angekommen ist und nicht vor {@code time} ankommt
+     *
+     * @param time Uhrzeit in Sekunden
+     * @return naechstes Shipment oder {@code null}
+     */
+    public synchronized Shipment getNextShipment(int time) {
+        Integer eta = pending.ceilingKey(time);
+        return eta == null ? null : pending.get(eta).peekFirst();
+    }
+
+    /**
+     * Gibt das erste Shipment zurueck das zur gegebenen Uhrzeit ankommt, unabhaengig davon ob es bereits angekommen ist
+     *
+     * @param time Uhrzeit in Sekunden
+     * @return das Shipment oder {@code null}
+     * @see DataConnection#pollShipments
+     */
+    public synchronized Shipment getShipment(int time) {
+        List<Shipment> due = schedule.get(time);
+        return due == null ? null : due.get(0);
+    }
+
+    /**
+     * Entnimmt alle Shipments die im Zeitraum ankommen und noch nicht angekommen sind, sortiert nach Ankunftszeit,
+     * und markiert sie als angekommen
+     *
+     * @param from erste Sekunde des Zeitraums
+     * @param to   letzte Sekunde des Zeitraums
+     * @return die angekommenen Shipments, eventuell leer
+     */
+    public List<Shipment> pollShipments(int from, int to) {
+        return pollShipments(from, to, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Wie {@link DataConnection#pollShipments(int, int)}, entnimmt aber hoechstens {@code limit} Shipments. Die
+     * restlichen bleiben im Lieferplan und koennen spaeter abgeholt werden.
+     *
+     * @param from  erste Sekunde des Zeitraums
+     * @param to    letzte Sekunde des Zeitraums
+     * @param limit maximale Anzahl an Shipments
+     * @return die angekommenen Shipments, eventuell leer
+     */
+    public synchronized List<Shipment> pollShipments(int from, int to, int limit) {
+        List<Shipment> arrived = new ArrayList<>();
+        NavigableMap<Integer, ArrayDeque<Shipment>> due = pending.subMap(from, true, to, true);
+        while (arrived.size() < limit && !due.isEmpty()) {
+            ArrayDeque<Shipment> shipmentsAtEta = due.firstEntry().getValue();
+            while (arrived.size() < limit && !shipmentsAtEta.isEmpty()) {
+                Shipment s = shipmentsAtEta.pollFirst();
+                s.setArrived();
+                arrived.add(s);
+            }
+            if (shipmentsAtEta.isEmpty()) {
+                due.pollFirstEntry();
+            }
         }
-        return null;
+        return arrived;
     }
 
-    public Shipment getShipment(int time) {
-        for (int i = 0; i < shipments.size(); i++) {
-            if (shipments.get(i).getEta() == time) {
-                return shipments.get(i);
+    /**
+     * Gibt die Shipments zurueck die im Zeitraum ankommen werden und noch nicht angekommen sind, ohne sie zu entnehmen
+     *
+     * @param from  erste Sekunde des Zeitraums
+     * @param to    letzte Sekunde des Zeitraums
+     * @param limit maximale Anzahl an Shipments
+     * @return die anstehenden Shipments sortiert nach Ankunftszeit
+     */
+    public synchronized List<Shipment> peekShipments(int from, int to, int limit) {
+        List<Shipment> upcoming = new ArrayList<>();
+        for (ArrayDeque<Shipment> shipmentsAtEta : pending.subMap(from, true, to, true).values()) {
+            for (Shipment s : shipmentsAtEta) {
+                if (upcoming.size() == limit) {
+                    return upcoming;
+                }
+                upcoming.add(s);
             }
         }
-        return null;
+        return upcoming;
     }
 
     public boolean isValidMaterialType(int materialType) {
@@ -0,0 +1,263 @@
+package warehousemanagement;
+
+import warehousemanagement.navigation.DeliveryNode;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Weist angekommene LKWs den {@link DeliveryNode}s zu. Statt dem ersten freien Tor zu folgen wird bei jedem Aufruf von
+ * {@link DockScheduler#schedule} ein Plan ueber die wartenden und die in Kuerze ankommenden LKWs erstellt: Die LKWs
+ * werden nach ihrer Frist ({@link Shipment#getEta()} plus {@link Shipment#getLoadingTime()}) sortiert und jeweils dem
+ * Tor zugeteilt an dem sie am fruehesten fertig werden. Die geschaetzte Abfertigungsdauer beruecksichtigt die Groesse
+ * des LKWs, die Entfernung des Tors zum passenden Lager und die Anzahl der Roboter am Tor.<br>
+ * Umgesetzt werden nur die Zuweisungen von bereits angekommenen LKWs an freie Tore, der Rest des Plans wird beim
+ * naechsten Aufruf mit dem dann aktuellen Stand neu berechnet. Ein freies Tor bleibt also leer wenn es fuer einen
+ * dringenderen LKW freigehalten wird der gleich ankommt.
+ */
+public class DockScheduler {
+
+    /**
+     * Wie viele Sekunden im Voraus ankommende LKWs eingeplant werden
+     */
+    static final int LOOKAHEAD_SECONDS = 600;
+
+    /**
+     * Maximale Anzahl an noch nicht angekommenen LKWs die eingeplant werden
+     */
+    static final int LOOKAHEAD_SHIPMENTS = 64;
+
+    private static final Comparator<Shipment> BY_DEADLINE = Comparator.comparingInt(DockScheduler::deadline)
+            .thenComparingInt(Shipment::getEta);
+
+    /**
+     * Alle Tore in fester Reihenfolge, bei gleicher Schaetzung wird das erste genommen
+     */
+    private final List<DeliveryNode> docks;
+
+    /**
+     * Schaetzt die Abfertigungsdauer eines LKWs an einem Tor in Sekunden
+     */
+    private final ToIntBiFunction<DeliveryNode, Shipment> handlingSeconds;
+
+    private final LinkedHashSet<DeliveryNode> freeDocks;
+
+    /**
+     * Angekommene LKWs die noch keinem Tor zugewiesen sind
+     */
+    private final ArrayList<Shipment> waiting;
+
+    /**
+     * LKWs die gerade an einem Tor abgefertigt werden
+     */
+    private final HashMap<DeliveryNode, Assignment> active;
+
+    private long completed;
+
+    private long dwellTime;
+
+    private long maxDwellTime;
+
+    private long deadlineMisses;
+
+    /**
+     * Erstellt einen Planer der die Abfertigungsdauer mit {@link DeliveryNode#estimateHandlingMillis} schaetzt
+     *
+     * @param docks alle Tore
+     */
+    public DockScheduler(List<DeliveryNode> docks) {
+        this(docks, (dock, s) -> (int) ((dock.estimateHandlingMillis(s) + 999) / 1000));
+    }
+
+    /**
+     * @param docks           alle Tore
+     * @param handlingSeconds Schaetzung der Abfertigungsdauer in Sekunden
+     */
+    public DockScheduler(List<DeliveryNode> docks, ToIntBiFunction<DeliveryNode, Shipment> handlingSeconds) {
+        this.docks = new ArrayList<>(docks);
+        this.handlingSeconds = handlingSeconds;
+        freeDocks = new LinkedHashSet<>();
+        waiting = new ArrayList<>();
+        active = new HashMap<>();
+    }
+
+    /**
+     * Nimmt einen angekommenen LKW auf
+     *
+     * @param s der LKW
+     */
+    public synchronized void addShipment(Shipment s) {
+        waiting.add(s);
+    }
+
+    /**
+     * Meldet ein Tor als frei, ein dort abgefertigter LKW gilt damit als fertig
+     *
+     * @param dock das freie Tor
+     * @param time aktuelle Uhrzeit in Sekunden
+     */
+    public synchronized void dockFree(DeliveryNode dock, int time) {
+        Assignment finished = active.remove(dock);
+        if (finished != null) {
+            long dwell = time - finished.shipment.getEta();
+            completed++;
+            dwellTime += dwell;
+            maxDwellTime = Math.max(maxDwellTime, dwell);
+            if (time > deadline(finished.shipment)) {
+                deadlineMisses++;
+            }
+        }
+        freeDocks.add(dock);
+    }
+
+    /**
+     * Plant alle wartenden und anstehenden LKWs und gibt die Zuweisungen zurueck die jetzt umgesetzt werden sollen.
+     * Die zugewiesenen LKWs und Tore gelten ab jetzt als belegt.
+     *
+     * @param time     aktuelle Uhrzeit in Sekunden
+     * @param upcoming LKWs die noch nicht angekommen sind, sortiert nach Ankunftszeit
+     * @return die Zuweisungen, eventuell leer
+     */
+    public synchronized List<Assignment> schedule(int time, List<Shipment> upcoming) {
+        List<Assignment> assignments = new ArrayList<>();
+        if (freeDocks.isEmpty() || waiting.isEmpty()) {
+            return assignments;
+        }
+
+        Shipment[] first = new Shipment[docks.size()];
+        plan(time, upcoming, first, null);
+        for (int d = 0; d < docks.size(); d++) {
+            DeliveryNode dock = docks.get(d);
+            Shipment s = first[d];
+            if (s != null && freeDocks.contains(dock) && waiting.remove(s)) {
+                Assignment a = new Assignment(dock, s, time, time + handlingSeconds.applyAsInt(dock, s));
+                freeDocks.remove(dock);
+                active.put(dock, a);
+                assignments.add(a);
+            }
+        }
+        return assignments;
+    }
+
+    /**
+     * Plant wie {@link DockScheduler#schedule} alle wartenden und anstehenden LKWs, setzt aber nichts um. So kann
+     * schon vor der Ankunft eines LKWs an seinem voraussichtlichen Tor vorgearbeitet werden.
+     *
+     * @param time     aktuelle Uhrzeit in Sekunden
+     * @param upcoming LKWs die noch nicht angekommen sind, sortiert nach Ankunftszeit
+     * @return voraussichtliches Tor fuer jeden wartenden und anstehenden LKW
+     */
+    public synchronized java.util.Map<Shipment, DeliveryNode> forecast(int time, List<Shipment> upcoming) {
+        HashMap<Shipment, DeliveryNode> planned = new HashMap<>();
+        if (docks.isEmpty()) {
+            return planned;
+        }
+        plan(time, upcoming, new Shipment[docks.size()], planned);
+        return planned;
+    }
+
+    /**
+     * Teilt die LKWs nach ihrer Frist jeweils dem Tor zu an dem sie am fruehesten fertig werden
+     *
+     * @param first   wird mit dem ersten LKW jedes Tors gefuellt
+     * @param planned wird mit dem Tor jedes LKWs gefuellt, {@code null} wenn nicht benoetigt
+     */
+    private void plan(int time, List<Shipment> upcoming, Shipment[] first, HashMap<Shipment, DeliveryNode> planned) {
+        ArrayList<Shipment> candidates = new ArrayList<>(waiting);
+        candidates.addAll(upcoming);
+        candidates.sort(BY_DEADLINE);
+
+        //Zeitpunkt ab dem jedes Tor wieder frei ist, fuer belegte Tore geschaetzt
+        int[] ready = new int[docks.size()];
+        for (int d = 0; d < docks.size(); d++) {
+            Assignment current = active.get(docks.get(d));
+            ready[d] = current == null || freeDocks.contains(docks.get(d)) ? time : Math.max(time, current.expectedEnd);
+        }
+
+        for (Shipment s : candidates) {
+            int best = -1;
+            int bestEnd = Integer.MAX_VALUE;
+            for (int d = 0; d < docks.size(); d++) {
+                int end = Math.max(ready[d], s.getEta()) + handlingSeconds.applyAsInt(docks.get(d), s);
+                if (end < bestEnd) {
+                    best = d;
+                    bestEnd = end;
+                }
+            }
+            if (first[best] == null) {
+                first[best] = s;
+            }
+            if (planned != null) {
+                planned.put(s, docks.get(best));
+            }
+            ready[best] = bestEnd;
+        }
+    }
+
+    /**
+     * Gibt die Anzahl der LKWs zurueck die angekommen sind aber noch an keinem Tor stehen
+     *
+     * @return Anzahl wartender LKWs
+     */
+    public synchronized int getWaiting() {
+        return waiting.size();
+    }
+
+    public synchronized long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Gibt die mittlere Zeit von der Ankunft eines LKWs bis zum Ende seiner Abfertigung zurueck
+     *
+     * @return mittlere Standzeit in Sekunden
+     */
+    public synchronized double getAverageDwellTime() {
+        return completed == 0 ? 0 : (double) dwellTime / completed;
+    }
+
+    public synchronized long getMaxDwellTime() {
+        return maxDwellTime;
+    }
+
+    /**
+     * Gibt die Anzahl der LKWs zurueck die nach ihrer Frist fertig geworden sind
+     *
+     * @return Anzahl verpasster Fristen
+     */
+    public synchronized long getDeadlineMisses() {
+        return deadlineMisses;
+    }
+
+    private static int deadline(Shipment s) {
+        return s.getEta() + s.getLoadingTime();
+    }
+
+    /**
+     * Zuweisung eines LKWs an ein Tor
+     */
+    public static class Assignment {
+
+        public final DeliveryNode dock;
+
+        public final Shipment shipment;
+
+        public final int start;
+
+        /**
+         * Geschaetztes Ende der Abfertigung in Sekunden
+         */
+        public final int expectedEnd;
+
+        Assignment(DeliveryNode dock, Shipment shipment, int start, int expectedEnd) {
+            this.dock = dock;
+            this.shipment = shipment;
+            this.start = start;
+            this.expectedEnd = expectedEnd;
+        }
+    }
+}
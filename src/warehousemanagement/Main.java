@@ -1,7 +1,34 @@
 package warehousemanagement;
 
+import warehousemanagement.gui.Frame;
+import warehousemanagement.gui.Panel;
+
+import java.awt.*;
+
+/**
+ * Startet den {@link Controller} und schaltet die Oberflaeche dazu wenn eine Anzeige vorhanden ist. Mit
+ * {@code -Djava.awt.headless=true} oder der System-Property {@code warehouse.gui=off} laeuft die Simulation ohne
+ * Oberflaeche, dann wird kein AWT geladen. Ohne Oberflaeche kann als Argument die Laufzeit in Sekunden
+ * Simulationszeit angegeben werden, danach wird eine Zusammenfassung ausgegeben und das Programm beendet.
+ */
 public class Main {
-    public static void main(String[] args) {
-        Controller.getController();
+
+    private static final String GUI_PROPERTY = "warehouse.gui";
+
+    public static void main(String[] args) throws InterruptedException {
+        Controller controller = Controller.getController();
+        if (!"off".equals(System.getProperty(GUI_PROPERTY, "on"))
+                && !Boolean.getBoolean("java.awt.headless") && !GraphicsEnvironment.isHeadless()) {
+            new Frame(new Panel());
+            return;
+        }
+
+        int seconds = args.length == 0 ? Integer.MAX_VALUE : Integer.parseInt(args[0]);
+        while (controller.getTime() < seconds) {
+            Thread.sleep(100);
+        }
+        System.out.printf("Zeit: %d s, abgefertigte LKWs: %d, mittlere Wartezeit am Tor: %.1f s, maximale Warteschlange: %d%n",
+                controller.getTime(), controller.getDispatchedShipments(), controller.getAverageDockWait(),
+                controller.getMaxBacklog());
     }
 }
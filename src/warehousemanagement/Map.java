@@ -1,23 +1,46 @@
 package warehousemanagement;
 
+import warehousemanagement.navigation.ContractionHierarchy;
+import warehousemanagement.navigation.ContractionHierarchyRouter;
 import warehousemanagement.navigation.DeliveryNode;
+import warehousemanagement.navigation.NavigationGraph;
 import warehousemanagement.navigation.Node;
+import warehousemanagement.navigation.ReservationTable;
+import warehousemanagement.navigation.Router;
+import warehousemanagement.navigation.RoutingTable;
+import warehousemanagement.navigation.ShortestPathRouter;
+import warehousemanagement.navigation.StorageIndex;
 import warehousemanagement.navigation.StorageNode;
 
-import javax.swing.*;
-import java.awt.*;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-public class Map extends JComponent {
+/**
+ * Das Wegenetz des Lagers aus allen {@link Node}s und die daraus berechneten Routen. Die Map haengt nicht von Swing ab,
+ * angezeigt wird sie von der {@link warehousemanagement.gui.MapView}.
+ */
+public class Map {
 
     /**
-     * Dieser Lock wird gesperrt bevor komplexe Aufgaeben an den Nodes ausgeführt werden.<br>
-     * Beispielsweise wenn eine neue Route berechnet wird, dabei werden einzelne Werte der Nodes
-     * zur berechnung verwendet und dieser Lock hilft Fehler durch doppelte Zugriffe zu verhindern.
+     * Bis zu dieser Anzahl an Nodes werden alle Routen in einer {@link RoutingTable} vorberechnet, die Tabelle braucht
+     * quadratisch viel Speicher. Bei groesseren Karten wird eine {@link ContractionHierarchy} verwendet.
      */
-    public final Object nodeLock = new Object();
+    private static final int ROUTING_TABLE_MAX_NODES = 4096;
+
+    /**
+     * Ueber diese System-Property kann die Routenberechnung fest eingestellt werden: {@code table} fuer die
+     * {@link RoutingTable}, {@code astar} fuer den {@link ShortestPathRouter} und {@code ch} fuer den
+     * {@link ContractionHierarchyRouter}
+     */
+    private static final String ROUTING_PROPERTY = "warehouse.routing";
+
+    /**
+     * System-Property mit dem Pfad einer Datei in der die {@link ContractionHierarchy} zwischengespeichert wird
+     */
+    private static final String HIERARCHY_FILE_PROPERTY = "warehouse.routing.hierarchy";
 
     public final List<StorageNode> storageNodes;
 
@@ -25,10 +48,22 @@ public class Map extends JComponent {
 
     public final List<Node> wayPointNodes;
 
-    private Map() {
-        super();
-        setPreferredSize(new Dimension(1000, 1000));
+    /**
+     * Berechnet die Routen zwischen den Nodes, wird auf {@code null} gesetzt sobald sich Verbindungen aendern und
+     * beim naechsten Zugriff zusammen mit {@link Map#navigationGraph} und {@link Map#reservationTable} neu aufgebaut.
+     *
+     * @see Map#getRouter
+     */
+    private volatile Router router;
+
+    private volatile NavigationGraph navigationGraph;
 
+    /**
+     * Zeitfenster die Roboter an den Nodes reserviert haben, die Indizes beziehen sich auf {@link Map#navigationGraph}
+     */
+    private volatile ReservationTable reservationTable;
+
+    private Map() {
         storageNodes = Collections.synchronizedList(new ArrayList<>());
         deliveryNodes = Collections.synchronizedList(new ArrayList<>());
         wayPointNodes = Collections.synchronizedList(new ArrayList<>());
@@ -66,49 +101,162 @@ public class Map extends JComponent {
         connectNodes(wayPointNodes.get(4), storageNodes.get(4));
         connectNodes(wayPointNodes.get(4), deliveryNodes.get(2));
 
+        buildNavigation();
+
         storageNodes.get(0).setMaterialType(1);
         storageNodes.get(2).setMaterialType(3);
+    }
+
+    public static Map getMap() {
+        return MapHolder.INSTANCE;
+    }
+
+    /**
+     * Verbindet zwei Nodes in beide Richtungen, der {@link Router} wird beim naechsten Zugriff neu aufgebaut
+     *
+     * @param n1 erste Node
+     * @param n2 zweite Node
+     */
+    public void connectNodes(Node n1, Node n2) {
+        n1.addNeighbour(n2);
+        n2.addNeighbour(n1);
+        router = null;
+        navigationGraph = null;
+        reservationTable = null;
+    }
+
+    /**
+     * Trennt die Verbindung zwischen zwei Nodes, der {@link Router} wird beim naechsten Zugriff neu aufgebaut
+     *
+     * @param n1 erste Node
+     * @param n2 zweite Node
+     */
+    public void disconnectNodes(Node n1, Node n2) {
+        n1.removeNeighbour(n2);
+        n2.removeNeighbour(n1);
+        router = null;
+        navigationGraph = null;
+        reservationTable = null;
+    }
 
-        for (StorageNode n : storageNodes) {
-            add(n);
+    /**
+     * Gibt den aktuellen {@link Router} zurueck und baut ihn neu auf falls sich das Wegenetz seit dem letzten Aufbau
+     * geaendert hat.
+     *
+     * @return Router fuer alle Nodes der Map
+     */
+    public Router getRouter() {
+        if (router == null) {
+            buildNavigation();
         }
+        return router;
+    }
 
-        for (DeliveryNode n : deliveryNodes) {
-            add(n);
+    /**
+     * Gibt den aktuellen {@link NavigationGraph} mit allen Nodes der Map zurueck
+     *
+     * @return Graph aller Nodes der Map
+     */
+    public NavigationGraph getNavigationGraph() {
+        if (router == null) {
+            buildNavigation();
         }
+        return navigationGraph;
+    }
 
-        for (Node n : wayPointNodes) {
-            add(n);
+    /**
+     * Gibt die {@link ReservationTable} zurueck in der Roboter ihre Routen reservieren. Aendert sich das Wegenetz wird
+     * eine neue, leere Tabelle erzeugt.
+     *
+     * @return Reservierungen fuer den aktuellen {@link NavigationGraph}
+     */
+    public ReservationTable getReservationTable() {
+        if (router == null) {
+            buildNavigation();
         }
+        return reservationTable;
     }
 
-    public static Map getMap() {
-        return MapHolder.INSTANCE;
+    private synchronized void buildNavigation() {
+        if (router != null) {
+            return;
+        }
+        List<Node> nodes = new ArrayList<>();
+        synchronized (wayPointNodes) {
+            nodes.addAll(wayPointNodes);
+        }
+        synchronized (storageNodes) {
+            nodes.addAll(storageNodes);
+        }
+        synchronized (deliveryNodes) {
+            nodes.addAll(deliveryNodes);
+        }
+        NavigationGraph graph = new NavigationGraph(nodes);
+        navigationGraph = graph;
+        reservationTable = new ReservationTable(i -> graph.getNode(i) instanceof StorageNode
+                ? ((StorageNode) graph.getNode(i)).getBays() : 1);
+        router = createRouter(graph);
     }
 
-    private void connectNodes(Node n1, Node n2) {
-        n1.addNeighbour(n2);
-        n2.addNeighbour(n1);
+    private Router createRouter(NavigationGraph graph) {
+        String mode = System.getProperty(ROUTING_PROPERTY, graph.size() <= ROUTING_TABLE_MAX_NODES ? "table" : "ch");
+        switch (mode) {
+            case "table":
+                return new RoutingTable(graph);
+            case "astar":
+                return new ShortestPathRouter(graph);
+            case "ch":
+                return new ContractionHierarchyRouter(graph, loadHierarchy(graph));
+            default:
+                throw new RuntimeException("Unbekannte Routenberechnung: " + mode);
+        }
     }
 
+    /**
+     * Liest die {@link ContractionHierarchy} aus der Datei in {@link Map#HIERARCHY_FILE_PROPERTY} falls sie zum aktuellen
+     * Wegenetz passt, ansonsten wird sie neu berechnet und in der Datei gespeichert
+     */
+    private ContractionHierarchy loadHierarchy(NavigationGraph graph) {
+        String fileName = System.getProperty(HIERARCHY_FILE_PROPERTY);
+        File file = fileName == null ? null : new File(fileName);
+        if (file != null && file.exists()) {
+            try {
+                ContractionHierarchy hierarchy = ContractionHierarchy.load(file);
+                if (hierarchy.matches(graph.getGraph())) {
+                    return hierarchy;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph.getGraph());
+        if (file != null) {
+            try {
+                hierarchy.save(file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return hierarchy;
+    }
+
+    /**
+     * Gibt eine {@link StorageNode} fuer den Materialtyp zurueck. Um zwischen mehreren Lagern nach Fuellstand und
+     * Wegstrecke zu waehlen gibt es den {@link StorageIndex}.
+     *
+     * @param materialType der Materialtyp
+     * @return das erste Lager im {@link StorageIndex} fuer den Materialtyp
+     * @throws RuntimeException wenn kein Lager den Materialtyp hat
+     */
     public StorageNode getStorageNode(int materialType) {
-        for (StorageNode n : storageNodes) {
-            if (n.getMaterialType() == materialType) {
+        for (StorageNode n : StorageIndex.getStorageIndex().getStorageNodes(materialType)) {
+            if (storageNodes.contains(n)) {
                 return n;
             }
         }
         throw new RuntimeException("Keine Lagereinheit mit benötigtem Material-Typ gefunden");
     }
 
-    @Override
-    public void paintComponent(Graphics g) {
-        g.setColor(Color.BLACK);
-        g.fillRect(35, 75, 690, 890);
-        g.setColor(Color.GRAY);
-        g.fillRect(40, 80, 680, 880);
-
-    }
-
     private static class MapHolder {
         private static final Map INSTANCE = new Map();
     }
@@ -44,7 +44,7 @@ public class Shipment {
      * Wenn dieses Shipment an eine {@link warehousemanagement.navigation.DeliveryNode} gegeben wird, wird dieser Wert auf {@code true}
      * gesetzt damit erkenntlich ist, dass die Lieferung bereits abgefertigt wird
      */
-    private boolean arrived;
+    private volatile boolean arrived;
 
     /**
      * Gibt an, von welchem Lieferant die Lieferung stammt
@@ -95,6 +95,15 @@ public class Shipment {
         return arrived;
     }
 
+    /**
+     * Markiert die Lieferung als angekommen
+     *
+     * @see DataConnection#pollShipments
+     */
+    void setArrived() {
+        arrived = true;
+    }
+
     public String getSupplier() {
         return supplier;
     }
@@ -1,5 +1,6 @@
 package warehousemanagement.gui;
 
+import warehousemanagement.Controller;
 import warehousemanagement.DataConnection;
 import warehousemanagement.Map;
 import warehousemanagement.Shipment;
@@ -12,6 +13,10 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.List;
 
+/**
+ * Hauptfenster mit der JMenuBar, wird nur gestartet wenn eine Anzeige vorhanden ist und zeigt im Titel die Uhrzeit des
+ * {@link Controller}
+ */
 public class Frame extends JFrame {
 
     private JMenuBar menuBar;
@@ -26,6 +31,9 @@ public class Frame extends JFrame {
         setJMenuBar(menuBar);
         setExtendedState(JFrame.MAXIMIZED_BOTH);
         setVisible(true);
+
+        new Timer(100, e -> setTitle("Warehouse Management Software (" + Controller.getController().getTime() + ")"))
+                .start();
     }
 
     private void initMenuBar() {
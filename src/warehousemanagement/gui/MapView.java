@@ -0,0 +1,169 @@
+package warehousemanagement.gui;
+
+import warehousemanagement.DataConnection;
+import warehousemanagement.Map;
+import warehousemanagement.navigation.DeliveryNode;
+import warehousemanagement.navigation.Node;
+import warehousemanagement.navigation.NodeKind;
+import warehousemanagement.navigation.StorageNode;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zeichnet die {@link Map} mit allen {@link Node}s und nimmt die Klicks auf die Nodes entgegen: ein Klick auf die
+ * untere Haelfte einer {@link StorageNode} oeffnet die {@link StorageNodeConfiguration}, an einer {@link DeliveryNode}
+ * werden ueber die Schaltflaechen Roboter eingesetzt oder abgeschaltet.
+ */
+public class MapView extends JComponent {
+
+    private final Map map;
+
+    public MapView(Map map) {
+        super();
+        this.map = map;
+        setPreferredSize(new Dimension(1000, 1000));
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                Node n = nodeAt(e.getX(), e.getY());
+                if (n == null) {
+                    return;
+                }
+                if (n.getKind() == NodeKind.DELIVERY) {
+                    deliveryNodeClicked((DeliveryNode) n, e.getX() - n.getX(), e.getY() - n.getY());
+                } else if (n.getKind() == NodeKind.STORAGE && e.getY() - n.getY() > n.getHeight() / 2) {
+                    new StorageNodeConfiguration((StorageNode) n, e.getXOnScreen(), e.getYOnScreen());
+                }
+            }
+        });
+    }
+
+    /**
+     * Alle Nodes der Map, in der Reihenfolge in der sie gezeichnet werden
+     */
+    private List<Node> nodes() {
+        List<Node> nodes = new ArrayList<>();
+        synchronized (map.wayPointNodes) {
+            nodes.addAll(map.wayPointNodes);
+        }
+        synchronized (map.deliveryNodes) {
+            nodes.addAll(map.deliveryNodes);
+        }
+        synchronized (map.storageNodes) {
+            nodes.addAll(map.storageNodes);
+        }
+        return nodes;
+    }
+
+    private Node nodeAt(int x, int y) {
+        for (Node n : nodes()) {
+            if (n.getX() <= x && x < n.getX() + n.getWidth() && n.getY() <= y && y < n.getY() + n.getHeight()) {
+                return n;
+            }
+        }
+        return null;
+    }
+
+    private static void deliveryNodeClicked(DeliveryNode n, int x, int y) {
+        int width = n.getWidth();
+        int height = n.getHeight();
+
+        if (0.4 * height < y && y < 0.6 * width) {
+            if (0.2 * width < x && x < 0.4 * width) {
+                n.removeRobot();
+            } else if (0.6 * width < x && x < 0.8 * width) {
+                n.addRobot();
+            }
+        }
+    }
+
+    @Override
+    public void paintComponent(Graphics g) {
+        g.setColor(Color.BLACK);
+        g.fillRect(35, 75, 690, 890);
+        g.setColor(Color.GRAY);
+        g.fillRect(40, 80, 680, 880);
+
+        for (Node n : nodes()) {
+            Graphics ng = g.create(n.getX(), n.getY(), n.getWidth(), n.getHeight());
+            try {
+                switch (n.getKind()) {
+                    case DELIVERY:
+                        paintDeliveryNode(ng, (DeliveryNode) n);
+                        break;
+                    case STORAGE:
+                        paintStorageNode(ng, (StorageNode) n);
+                        break;
+                    default:
+                        paintNode(ng, n);
+                }
+            } finally {
+                ng.dispose();
+            }
+        }
+    }
+
+    private static void paintNode(Graphics g, Node n) {
+        if (n.getPresentRobots() > 0) {
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, n.getWidth(), n.getHeight());
+        }
+    }
+
+    private static void paintStorageNode(Graphics g, StorageNode n) {
+        int width = n.getWidth();
+        int height = n.getHeight();
+
+        int gap = (int) (0.05 * height);
+
+        g.setColor(Color.BLACK);
+        g.fillRect(0, (int) (0.5 * height), width, (int) (0.5 * height));
+        g.setColor(Color.LIGHT_GRAY);
+        g.fillRect(gap, (int) (0.5 * height) + gap, width - 2 * gap, (int) (0.5 * height) - 2 * gap);
+
+        g.setColor(Color.BLACK);
+        g.setFont(new Font("Arial", Font.PLAIN, (int) (0.3 * height)));
+        g.drawString(DataConnection.getDataConnection().getMaterialType(n.getMaterialType()), 2 * gap, height - (int) (2.5 * gap));
+
+        if (n.getPresentRobots() > 0) {
+            g.setColor(Color.BLACK);
+            g.fillRect((int) (0.5 * width) - 10, (int) (0.15 * height), 20, 20);
+        }
+    }
+
+    private static void paintDeliveryNode(Graphics g, DeliveryNode n) {
+        int width = n.getWidth();
+        int height = n.getHeight();
+
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, width, (int) (0.2 * height));
+        g.fillRect(0, (int) (0.8 * height), width, (int) (0.2 * height));
+
+        g.setColor(Color.LIGHT_GRAY);
+        g.fillRect((int) (0.1 * width), (int) (0.2 * height) - 1, (int) (0.8 * width), (int) (0.6 * height) + 1);
+
+        g.setColor(Color.BLACK);
+        g.drawRect((int) (0.1 * width), (int) (0.2 * height) - 1, (int) (0.8 * width), (int) (0.6 * height) + 1);
+
+        g.setColor(Color.WHITE);
+        g.fillRect((int) (0.2 * width), (int) (0.4 * height), (int) (0.2 * width), (int) (0.2 * height));
+        g.fillRect((int) (0.6 * width), (int) (0.4 * height), (int) (0.2 * width), (int) (0.2 * height));
+
+        g.setColor(Color.BLACK);
+        g.drawRect((int) (0.2 * width), (int) (0.4 * height), (int) (0.2 * width), (int) (0.2 * height));
+        g.drawRect((int) (0.6 * width), (int) (0.4 * height), (int) (0.2 * width), (int) (0.2 * height));
+
+        g.setFont(new Font("Arial", Font.PLAIN, (int) (0.15 * Math.min(width, height))));
+
+        g.drawString("-", (int) (0.29 * width), (int) (0.55 * height));
+        g.drawString("+", (int) (0.66 * width), (int) (0.56 * height));
+
+        g.drawString(Integer.toString(n.getRobotCount()), (int) (0.46 * width), (int) (0.56 * height));
+    }
+}
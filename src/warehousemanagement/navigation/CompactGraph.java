@@ -0,0 +1,230 @@
+package warehousemanagement.navigation;
+
+import java.util.Arrays;
+
+/**
+ * Kompakte Darstellung eines Wegenetzes ohne Abhaengigkeit zu Swing. Die Nodes sind nur Indizes, die Verbindungen
+ * werden im CSR-Format (compressed sparse row) in wenigen {@code int}-Arrays gespeichert: die ausgehenden Verbindungen
+ * von Node {@code i} stehen in {@link CompactGraph#targets} und {@link CompactGraph#weights} zwischen
+ * {@code offsets[i]} und {@code offsets[i + 1]}.<br>
+ * Dadurch lassen sich auch Lager mit sehr vielen Nodes im Speicher halten, die Zuordnung zu den {@link Node}s auf der
+ * Karte uebernimmt der {@link NavigationGraph}.
+ */
+public class CompactGraph {
+
+    /**
+     * Beginn der Verbindungen jeder Node, hat {@code size() + 1} Eintraege
+     */
+    private final int[] offsets;
+
+    /**
+     * Zielnode jeder Verbindung
+     */
+    private final int[] targets;
+
+    /**
+     * Laenge jeder Verbindung in Pixeln
+     */
+    private final int[] weights;
+
+    /**
+     * Position jeder Node auf der Karte
+     */
+    private final double[] x;
+
+    private final double[] y;
+
+    private CompactGraph(int[] offsets, int[] targets, int[] weights, double[] x, double[] y) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Gibt die Anzahl der Nodes zurueck
+     *
+     * @return Anzahl der Nodes
+     */
+    public int size() {
+        return x.length;
+    }
+
+    /**
+     * Gibt die Anzahl der gerichteten Verbindungen zurueck, jede Verbindung auf der Karte zaehlt doppelt
+     *
+     * @return Anzahl der Verbindungen
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Gibt die erste Verbindung der Node zurueck
+     *
+     * @param node Index der Node
+     * @return Index der ersten ausgehenden Verbindung
+     */
+    public int getEdgeStart(int node) {
+        return offsets[node];
+    }
+
+    /**
+     * Gibt die Verbindung nach der letzten Verbindung der Node zurueck
+     *
+     * @param node Index der Node
+     * @return Index hinter der letzten ausgehenden Verbindung
+     */
+    public int getEdgeEnd(int node) {
+        return offsets[node + 1];
+    }
+
+    public int getEdgeTarget(int edge) {
+        return targets[edge];
+    }
+
+    public int getEdgeWeight(int edge) {
+        return weights[edge];
+    }
+
+    public double getX(int node) {
+        return x[node];
+    }
+
+    public double getY(int node) {
+        return y[node];
+    }
+
+    /**
+     * Schaetzt den Abstand zwischen zwei Nodes ueber die Luftlinie, der Wert ist nie groesser als der tatsaechliche Weg
+     *
+     * @param from Index der ersten Node
+     * @param to   Index der zweiten Node
+     * @return abgerundete Luftlinie in Pixeln
+     */
+    public int estimateDistance(int from, int to) {
+        double dx = x[from] - x[to];
+        double dy = y[from] - y[to];
+        return (int) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Gibt den ungefaehren Speicherbedarf der Arrays zurueck
+     *
+     * @return Speicherbedarf in Bytes
+     */
+    public long getMemoryFootprint() {
+        return 4L * (offsets.length + targets.length + weights.length) + 8L * (x.length + y.length);
+    }
+
+    /**
+     * Baut einen {@link CompactGraph} schrittweise auf. Verbindungen werden zuerst als Liste gesammelt und beim Aufruf von
+     * {@link Builder#build()} nach Startnode sortiert.
+     */
+    public static class Builder {
+
+        private double[] x;
+
+        private double[] y;
+
+        private int nodes;
+
+        /**
+         * Start und Ziel jeder gerichteten Verbindung
+         */
+        private int[] from;
+
+        private int[] to;
+
+        private int edges;
+
+        public Builder() {
+            x = new double[16];
+            y = new double[16];
+            from = new int[32];
+            to = new int[32];
+        }
+
+        /**
+         * Fuegt eine Node an der gegebenen Position hinzu
+         *
+         * @param x x Position auf der Karte
+         * @param y y Position auf der Karte
+         * @return Index der neuen Node
+         */
+        public int addNode(double x, double y) {
+            if (nodes == this.x.length) {
+                this.x = Arrays.copyOf(this.x, 2 * nodes);
+                this.y = Arrays.copyOf(this.y, 2 * nodes);
+            }
+            this.x[nodes] = x;
+            this.y[nodes] = y;
+            return nodes++;
+        }
+
+        /**
+         * Verbindet zwei Nodes in beide Richtungen, die Laenge ist die aufgerundete Luftlinie
+         *
+         * @param a Index der ersten Node
+         * @param b Index der zweiten Node
+         * @throws RuntimeException wenn einer der Indizes ungueltig ist
+         */
+        public void connect(int a, int b) {
+            addDirectedEdge(a, b);
+            addDirectedEdge(b, a);
+        }
+
+        /**
+         * Fuegt eine Verbindung nur in eine Richtung hinzu
+         *
+         * @param a Index der Startnode
+         * @param b Index der Zielnode
+         * @throws RuntimeException wenn einer der Indizes ungueltig ist
+         */
+        public void addDirectedEdge(int a, int b) {
+            if (a < 0 || a >= nodes || b < 0 || b >= nodes) {
+                throw new RuntimeException("Ungueltiger Index beim Verbinden von Nodes");
+            }
+            if (edges == from.length) {
+                from = Arrays.copyOf(from, 2 * edges);
+                to = Arrays.copyOf(to, 2 * edges);
+            }
+            from[edges] = a;
+            to[edges] = b;
+            edges++;
+        }
+
+        /**
+         * Erzeugt den Graphen, die Verbindungen jeder Node behalten die Reihenfolge in der sie hinzugefuegt wurden
+         *
+         * @return der fertige Graph
+         */
+        public CompactGraph build() {
+            double[] nodeX = Arrays.copyOf(x, nodes);
+            double[] nodeY = Arrays.copyOf(y, nodes);
+
+            int[] offsets = new int[nodes + 1];
+            for (int i = 0; i < edges; i++) {
+                offsets[from[i] + 1]++;
+            }
+            for (int i = 0; i < nodes; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+
+            int[] next = Arrays.copyOf(offsets, nodes);
+            int[] targets = new int[edges];
+            int[] weights = new int[edges];
+            for (int i = 0; i < edges; i++) {
+                int a = from[i];
+                int b = to[i];
+                double dx = nodeX[a] - nodeX[b];
+                double dy = nodeY[a] - nodeY[b];
+                int edge = next[a]++;
+                targets[edge] = b;
+                weights[edge] = Math.max(1, (int) Math.ceil(Math.sqrt(dx * dx + dy * dy)));
+            }
+            return new CompactGraph(offsets, targets, weights, nodeX, nodeY);
+        }
+    }
+}
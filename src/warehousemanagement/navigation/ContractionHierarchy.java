@@ -0,0 +1,601 @@
+package warehousemanagement.navigation;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.function.IntConsumer;
+
+/**
+ * Contraction Hierarchy fuer sehr grosse Wegenetze. Bei der Vorberechnung werden die Nodes nacheinander "kontrahiert":
+ * faellt eine Node weg, werden zwischen ihren Nachbarn Abkuerzungen eingefuegt falls der kuerzeste Weg ueber die
+ * Node lief. Eine Anfrage sucht dann von Start und Ziel aus nur noch zu spaeter kontrahierten Nodes hin und
+ * beruehrt dadurch nur einen Bruchteil des Graphen.<br>
+ * Das Ergebnis der Vorberechnung ist {@link Serializable} und kann mit {@link ContractionHierarchy#save} und
+ * {@link ContractionHierarchy#load} gespeichert werden, damit sie nicht bei jedem Programmstart wiederholt werden muss.
+ */
+public class ContractionHierarchy implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Rueckgabewert von {@link ContractionHierarchy#findPath} wenn das Ziel nicht erreichbar ist
+     */
+    public static final int UNREACHABLE = -1;
+
+    /**
+     * Maximale Anzahl an Nodes die eine Zeugensuche abschliesst, danach wird vorsichtshalber eine Abkuerzung eingefuegt
+     */
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private static final ScratchPool<Query> QUERIES = new ScratchPool<>(Query::new);
+
+    /**
+     * Position jeder Node in der Kontraktionsreihenfolge
+     */
+    private final int[] rank;
+
+    /**
+     * Verbindungen zu hoeher eingestuften Nodes im CSR-Format, siehe {@link CompactGraph}
+     */
+    private final int[] upOffsets;
+
+    private final int[] upTargets;
+
+    private final int[] upWeights;
+
+    /**
+     * Fuer Abkuerzungen die uebersprungene Node, {@code -1} fuer Verbindungen aus dem urspruenglichen Graphen
+     */
+    private final int[] upMiddle;
+
+    /**
+     * Pruefsumme des Graphen aus dem die Hierarchie berechnet wurde
+     */
+    private final long signature;
+
+    private ContractionHierarchy(int[] rank, int[] upOffsets, int[] upTargets, int[] upWeights, int[] upMiddle, long signature) {
+        this.rank = rank;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upMiddle = upMiddle;
+        this.signature = signature;
+    }
+
+    /**
+     * Berechnet die Hierarchie fuer den gegebenen Graphen, alle Verbindungen muessen in beide Richtungen gleich lang sein
+     *
+     * @param graph Graph fuer den die Hierarchie berechnet wird
+     * @return die fertige Hierarchie
+     */
+    public static ContractionHierarchy build(CompactGraph graph) {
+        return new Contractor(graph).contract();
+    }
+
+    /**
+     * Liest eine gespeicherte Hierarchie aus einer Datei
+     *
+     * @param file Datei die mit {@link ContractionHierarchy#save} geschrieben wurde
+     * @return die gelesene Hierarchie
+     * @throws IOException wenn die Datei nicht gelesen werden kann oder keine Hierarchie enthaelt
+     */
+    public static ContractionHierarchy load(File file) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return (ContractionHierarchy) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Datei enthaelt keine Contraction Hierarchy: " + file, e);
+        }
+    }
+
+    /**
+     * Schreibt die Hierarchie in eine Datei
+     *
+     * @param file Zieldatei
+     * @throws IOException wenn die Datei nicht geschrieben werden kann
+     */
+    public void save(File file) throws IOException {
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeObject(this);
+        }
+    }
+
+    /**
+     * Kontrolliert ob die Hierarchie aus dem gegebenen Graphen berechnet wurde
+     *
+     * @param graph der zu pruefende Graph
+     * @return {@code true} wenn Nodes und Verbindungen uebereinstimmen
+     */
+    public boolean matches(CompactGraph graph) {
+        return graph.size() == rank.length && signature(graph) == signature;
+    }
+
+    public int size() {
+        return rank.length;
+    }
+
+    /**
+     * Gibt den ungefaehren Speicherbedarf der Arrays zurueck
+     *
+     * @return Speicherbedarf in Bytes
+     */
+    public long getMemoryFootprint() {
+        return 4L * (rank.length + upOffsets.length + upTargets.length + upWeights.length + upMiddle.length);
+    }
+
+    /**
+     * Berechnet den kuerzesten Weg von {@code source} nach {@code target} und gibt die Nodes des Weges ohne die
+     * Startnode der Reihe nach an {@code path} weiter
+     *
+     * @param source Index der Startnode
+     * @param target Index der Zielnode
+     * @param path   erhaelt die Indizes der Nodes auf dem Weg, darf {@code null} sein wenn nur die Laenge benoetigt wird
+     * @return Laenge des Weges, {@link ContractionHierarchy#UNREACHABLE} wenn das Ziel nicht erreichbar ist
+     */
+    public int findPath(int source, int target, IntConsumer path) {
+        Query query = QUERIES.borrow();
+        try {
+            return findPath(query, source, target, path);
+        } finally {
+            QUERIES.release(query);
+        }
+    }
+
+    private int findPath(Query query, int source, int target, IntConsumer path) {
+        Search forward = query.forward;
+        Search backward = query.backward;
+        forward.start(rank.length, source);
+        backward.start(rank.length, target);
+
+        int best = Integer.MAX_VALUE;
+        int meeting = -1;
+        while (forward.heapSize > 0 || backward.heapSize > 0) {
+            if (forward.heapSize > 0 && forward.peekDistance() >= best) {
+                forward.heapSize = 0;
+            }
+            if (backward.heapSize > 0 && backward.peekDistance() >= best) {
+                backward.heapSize = 0;
+            }
+            Search current = forward.heapSize == 0 ? backward
+                    : backward.heapSize == 0 ? forward
+                    : forward.peekDistance() <= backward.peekDistance() ? forward : backward;
+            if (current.heapSize == 0) {
+                break;
+            }
+            Search other = current == forward ? backward : forward;
+            int node = current.poll();
+            int distance = current.distance[node];
+            if (other.isReached(node) && distance + other.distance[node] < best) {
+                best = distance + other.distance[node];
+                meeting = node;
+            }
+            for (int edge = upOffsets[node]; edge < upOffsets[node + 1]; edge++) {
+                current.relax(upTargets[edge], distance + upWeights[edge], node);
+            }
+        }
+        if (meeting < 0) {
+            return UNREACHABLE;
+        }
+
+        if (path != null) {
+            //Vorwaertssuche rueckwaerts einsammeln und dann in richtiger Reihenfolge entpacken
+            int count = 0;
+            for (int n = meeting; n != source; n = forward.predecessor[n]) {
+                query.push(count++, n);
+            }
+            int previous = source;
+            for (int i = count - 1; i >= 0; i--) {
+                unpack(previous, query.stack[i], path);
+                previous = query.stack[i];
+            }
+            for (int n = meeting; n != target; n = backward.predecessor[n]) {
+                unpack(n, backward.predecessor[n], path);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gibt die urspruenglichen Nodes einer Verbindung von {@code from} nach {@code to} aus, {@code from} selbst wird
+     * nicht ausgegeben
+     */
+    private void unpack(int from, int to, IntConsumer path) {
+        int lower = rank[from] < rank[to] ? from : to;
+        int higher = lower == from ? to : from;
+        int middle = -1;
+        for (int edge = upOffsets[lower]; edge < upOffsets[lower + 1]; edge++) {
+            if (upTargets[edge] == higher) {
+                middle = upMiddle[edge];
+                break;
+            }
+        }
+        if (middle < 0) {
+            path.accept(to);
+        } else {
+            unpack(from, middle, path);
+            unpack(middle, to, path);
+        }
+    }
+
+    private static long signature(CompactGraph graph) {
+        long hash = graph.size();
+        for (int node = 0; node < graph.size(); node++) {
+            for (int edge = graph.getEdgeStart(node); edge < graph.getEdgeEnd(node); edge++) {
+                hash = 31 * hash + graph.getEdgeTarget(edge);
+                hash = 31 * hash + graph.getEdgeWeight(edge);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Zustand einer Anfrage, wird fuer jede Anfrage aus {@link ContractionHierarchy#QUERIES} geliehen
+     */
+    private static class Query {
+
+        private final Search forward = new Search();
+
+        private final Search backward = new Search();
+
+        private int[] stack = new int[64];
+
+        private void push(int position, int value) {
+            if (position == stack.length) {
+                stack = Arrays.copyOf(stack, 2 * position);
+            }
+            stack[position] = value;
+        }
+    }
+
+    /**
+     * Eine Richtung der bidirektionalen Suche, die Arrays werden wie beim {@link PathFinder} ueber eine Generationsnummer
+     * wiederverwendet
+     */
+    private static class Search {
+
+        private int[] distance = new int[0];
+
+        private int[] predecessor = new int[0];
+
+        private int[] reached = new int[0];
+
+        private int[] heap = new int[0];
+
+        private int[] heapPosition = new int[0];
+
+        private int heapSize;
+
+        private int generation;
+
+        private void start(int size, int source) {
+            if (distance.length < size) {
+                distance = new int[size];
+                predecessor = new int[size];
+                reached = new int[size];
+                heap = new int[size];
+                heapPosition = new int[size];
+                generation = 0;
+            }
+            heapSize = 0;
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(reached, 0);
+                generation = 1;
+            }
+            relax(source, 0, source);
+        }
+
+        private boolean isReached(int node) {
+            return reached[node] == generation;
+        }
+
+        private void relax(int node, int newDistance, int from) {
+            if (reached[node] != generation) {
+                reached[node] = generation;
+                distance[node] = newDistance;
+                predecessor[node] = from;
+                heapPosition[node] = heapSize;
+                heap[heapSize++] = node;
+                siftUp(heapSize - 1);
+            } else if (newDistance < distance[node]) {
+                distance[node] = newDistance;
+                predecessor[node] = from;
+                if (heapPosition[node] >= 0) {
+                    siftUp(heapPosition[node]);
+                }
+            }
+        }
+
+        private int peekDistance() {
+            return distance[heap[0]];
+        }
+
+        private int poll() {
+            int first = heap[0];
+            heapPosition[first] = -1;
+            heapSize--;
+            if (heapSize > 0) {
+                heap[0] = heap[heapSize];
+                heapPosition[heap[0]] = 0;
+                siftDown(0);
+            }
+            return first;
+        }
+
+        private void siftUp(int position) {
+            int node = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (distance[heap[parent]] <= distance[node]) {
+                    break;
+                }
+                heap[position] = heap[parent];
+                heapPosition[heap[position]] = position;
+                position = parent;
+            }
+            heap[position] = node;
+            heapPosition[node] = position;
+        }
+
+        private void siftDown(int position) {
+            int node = heap[position];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && distance[heap[child + 1]] < distance[heap[child]]) {
+                    child++;
+                }
+                if (distance[node] <= distance[heap[child]]) {
+                    break;
+                }
+                heap[position] = heap[child];
+                heapPosition[heap[position]] = position;
+                position = child;
+            }
+            heap[position] = node;
+            heapPosition[node] = position;
+        }
+    }
+
+    /**
+     * Fuehrt die Vorberechnung aus. Die Reihenfolge der Nodes richtet sich nach der Kantendifferenz (eingefuegte
+     * Abkuerzungen minus entfernte Verbindungen) plus der Anzahl bereits kontrahierter Nachbarn, die Prioritaeten werden
+     * erst aktualisiert wenn eine Node an der Reihe ist.
+     */
+    private static class Contractor {
+
+        private final CompactGraph graph;
+
+        private final int size;
+
+        /**
+         * Verbindungen jeder Node waehrend der Kontraktion, zwischen zwei Nodes gibt es immer nur die kuerzeste Verbindung
+         */
+        private final int[][] targets;
+
+        private final int[][] weights;
+
+        private final int[][] middles;
+
+        private final int[] degree;
+
+        private final boolean[] contracted;
+
+        private final int[] contractedNeighbours;
+
+        /**
+         * Zustand der Zeugensuche
+         */
+        private final int[] witnessDistance;
+
+        private final int[] witnessReached;
+
+        private int witnessGeneration;
+
+        /**
+         * Zwischenspeicher fuer die Abkuerzungen einer Node: Start, Ziel, Laenge
+         */
+        private int[] shortcuts;
+
+        private int shortcutCount;
+
+        private Contractor(CompactGraph graph) {
+            this.graph = graph;
+            size = graph.size();
+            targets = new int[size][];
+            weights = new int[size][];
+            middles = new int[size][];
+            degree = new int[size];
+            contracted = new boolean[size];
+            contractedNeighbours = new int[size];
+            witnessDistance = new int[size];
+            witnessReached = new int[size];
+            shortcuts = new int[48];
+
+            for (int node = 0; node < size; node++) {
+                int edges = graph.getEdgeEnd(node) - graph.getEdgeStart(node);
+                targets[node] = new int[Math.max(edges, 4)];
+                weights[node] = new int[Math.max(edges, 4)];
+                middles[node] = new int[Math.max(edges, 4)];
+            }
+            for (int node = 0; node < size; node++) {
+                for (int edge = graph.getEdgeStart(node); edge < graph.getEdgeEnd(node); edge++) {
+                    addEdge(node, graph.getEdgeTarget(edge), graph.getEdgeWeight(edge), -1);
+                }
+            }
+        }
+
+        private ContractionHierarchy contract() {
+            int[] rank = new int[size];
+            PriorityQueue<long[]> queue = new PriorityQueue<>(Math.max(1, size), (a, b) -> Long.compare(a[0], b[0]));
+            for (int node = 0; node < size; node++) {
+                queue.add(new long[]{priority(node), node});
+            }
+
+            int next = 0;
+            while (!queue.isEmpty()) {
+                long[] entry = queue.poll();
+                int node = (int) entry[1];
+                long current = priority(node);
+                if (!queue.isEmpty() && current > queue.peek()[0]) {
+                    entry[0] = current;
+                    queue.add(entry);
+                    continue;
+                }
+                findShortcuts(node);
+                for (int i = 0; i < shortcutCount; i++) {
+                    int from = shortcuts[3 * i];
+                    int to = shortcuts[3 * i + 1];
+                    int weight = shortcuts[3 * i + 2];
+                    addEdge(from, to, weight, node);
+                    addEdge(to, from, weight, node);
+                }
+                contracted[node] = true;
+                rank[node] = next++;
+                for (int i = 0; i < degree[node]; i++) {
+                    contractedNeighbours[targets[node][i]]++;
+                }
+            }
+            return buildUpwardGraph(rank);
+        }
+
+        private ContractionHierarchy buildUpwardGraph(int[] rank) {
+            int[] offsets = new int[size + 1];
+            for (int node = 0; node < size; node++) {
+                int count = 0;
+                for (int i = 0; i < degree[node]; i++) {
+                    if (rank[targets[node][i]] > rank[node]) {
+                        count++;
+                    }
+                }
+                offsets[node + 1] = offsets[node] + count;
+            }
+            int[] upTargets = new int[offsets[size]];
+            int[] upWeights = new int[offsets[size]];
+            int[] upMiddle = new int[offsets[size]];
+            for (int node = 0; node < size; node++) {
+                int edge = offsets[node];
+                for (int i = 0; i < degree[node]; i++) {
+                    if (rank[targets[node][i]] > rank[node]) {
+                        upTargets[edge] = targets[node][i];
+                        upWeights[edge] = weights[node][i];
+                        upMiddle[edge] = middles[node][i];
+                        edge++;
+                    }
+                }
+            }
+            return new ContractionHierarchy(rank, offsets, upTargets, upWeights, upMiddle, signature(graph));
+        }
+
+        private long priority(int node) {
+            findShortcuts(node);
+            int remaining = 0;
+            for (int i = 0; i < degree[node]; i++) {
+                if (!contracted[targets[node][i]]) {
+                    remaining++;
+                }
+            }
+            return shortcutCount - remaining + contractedNeighbours[node];
+        }
+
+        /**
+         * Berechnet welche Abkuerzungen noetig sind wenn die Node wegfaellt und speichert sie in
+         * {@link Contractor#shortcuts}
+         */
+        private void findShortcuts(int node) {
+            shortcutCount = 0;
+            int maxWeight = 0;
+            for (int i = 0; i < degree[node]; i++) {
+                if (!contracted[targets[node][i]]) {
+                    maxWeight = Math.max(maxWeight, weights[node][i]);
+                }
+            }
+            for (int i = 0; i < degree[node]; i++) {
+                int from = targets[node][i];
+                if (contracted[from]) {
+                    continue;
+                }
+                int fromWeight = weights[node][i];
+                witnessSearch(from, node, fromWeight + maxWeight);
+                for (int j = i + 1; j < degree[node]; j++) {
+                    int to = targets[node][j];
+                    if (contracted[to]) {
+                        continue;
+                    }
+                    int viaNode = fromWeight + weights[node][j];
+                    if (witnessReached[to] != witnessGeneration || witnessDistance[to] > viaNode) {
+                        if (3 * shortcutCount + 3 > shortcuts.length) {
+                            shortcuts = Arrays.copyOf(shortcuts, 2 * shortcuts.length);
+                        }
+                        shortcuts[3 * shortcutCount] = from;
+                        shortcuts[3 * shortcutCount + 1] = to;
+                        shortcuts[3 * shortcutCount + 2] = viaNode;
+                        shortcutCount++;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Dijkstra von {@code source} ueber alle noch nicht kontrahierten Nodes ausser {@code skip}, bricht ab sobald
+         * der Abstand {@code limit} ueberschreitet oder {@link ContractionHierarchy#WITNESS_SETTLE_LIMIT} Nodes
+         * abgeschlossen sind
+         */
+        private void witnessSearch(int source, int skip, int limit) {
+            witnessGeneration++;
+            PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+            witnessReached[source] = witnessGeneration;
+            witnessDistance[source] = 0;
+            queue.add(new long[]{0, source});
+            int settled = 0;
+            while (!queue.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                long[] entry = queue.poll();
+                int node = (int) entry[1];
+                if (entry[0] > witnessDistance[node]) {
+                    continue;
+                }
+                if (entry[0] > limit) {
+                    break;
+                }
+                settled++;
+                for (int i = 0; i < degree[node]; i++) {
+                    int n = targets[node][i];
+                    if (n == skip || contracted[n]) {
+                        continue;
+                    }
+                    int newDistance = witnessDistance[node] + weights[node][i];
+                    if (witnessReached[n] != witnessGeneration || newDistance < witnessDistance[n]) {
+                        witnessReached[n] = witnessGeneration;
+                        witnessDistance[n] = newDistance;
+                        queue.add(new long[]{newDistance, n});
+                    }
+                }
+            }
+        }
+
+        /**
+         * Fuegt eine Verbindung hinzu, gibt es schon eine Verbindung zwischen den Nodes wird nur die kuerzere behalten
+         */
+        private void addEdge(int from, int to, int weight, int middle) {
+            for (int i = 0; i < degree[from]; i++) {
+                if (targets[from][i] == to) {
+                    if (weight < weights[from][i]) {
+                        weights[from][i] = weight;
+                        middles[from][i] = middle;
+                    }
+                    return;
+                }
+            }
+            if (degree[from] == targets[from].length) {
+                targets[from] = Arrays.copyOf(targets[from], 2 * degree[from]);
+                weights[from] = Arrays.copyOf(weights[from], 2 * degree[from]);
+                middles[from] = Arrays.copyOf(middles[from], 2 * degree[from]);
+            }
+            targets[from][degree[from]] = to;
+            weights[from][degree[from]] = weight;
+            middles[from][degree[from]] = middle;
+            degree[from]++;
+        }
+    }
+}
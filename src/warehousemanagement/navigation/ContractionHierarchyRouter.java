@@ -0,0 +1,43 @@
+package warehousemanagement.navigation;
+
+import java.util.List;
+
+/**
+ * {@link Router} der Anfragen ueber eine {@link ContractionHierarchy} beantwortet. Braucht nur linear viel Speicher und
+ * eignet sich fuer Karten die zu gross fuer eine {@link RoutingTable} sind.
+ */
+public class ContractionHierarchyRouter implements Router {
+
+    private final NavigationGraph graph;
+
+    private final ContractionHierarchy hierarchy;
+
+    /**
+     * Erzeugt einen Router mit einer bereits berechneten Hierarchie
+     *
+     * @param graph     Zuordnung zwischen Nodes und Indizes
+     * @param hierarchy Hierarchie die fuer {@link NavigationGraph#getGraph()} berechnet wurde
+     * @throws RuntimeException wenn die Hierarchie nicht zum Graphen passt
+     */
+    public ContractionHierarchyRouter(NavigationGraph graph, ContractionHierarchy hierarchy) {
+        if (!hierarchy.matches(graph.getGraph())) {
+            throw new RuntimeException("Contraction Hierarchy passt nicht zum Wegenetz");
+        }
+        this.graph = graph;
+        this.hierarchy = hierarchy;
+    }
+
+    public ContractionHierarchy getHierarchy() {
+        return hierarchy;
+    }
+
+    @Override
+    public void route(Node source, Node destination, List<Node> path) {
+        path.clear();
+        int result = hierarchy.findPath(graph.indexOf(source), graph.indexOf(destination), n -> path.add(graph.getNode(n)));
+        if (result == ContractionHierarchy.UNREACHABLE) {
+            path.clear();
+            throw new RuntimeException("Kein Weg zwischen " + source.getId() + " und " + destination.getId() + " gefunden");
+        }
+    }
+}
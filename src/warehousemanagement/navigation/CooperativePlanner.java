@@ -0,0 +1,274 @@
+package warehousemanagement.navigation;
+
+import java.util.Arrays;
+
+/**
+ * Plant Routen in Raum und Zeit (kooperatives A*). Ein Zustand ist eine Node zu einem bestimmten Zeitfenster, von dort
+ * aus kann der Roboter ein Zeitfenster warten oder zu einem Nachbarn fahren. Zustaende die in der
+ * {@link ReservationTable} bereits von einem anderen Roboter belegt sind werden nicht betreten, der Roboter wartet also
+ * vorher oder nimmt einen Umweg statt sich an einer Node anzustellen.<br>
+ * Wie beim {@link PathFinder} werden die Instanzen aus einem {@link ScratchPool} geliehen und ihre Arrays
+ * wiederverwendet. Eine Instanz belegt {@link CooperativePlanner#HORIZON} Zustaende pro Node, deswegen darf nicht jeder
+ * Roboter eine eigene behalten.
+ */
+public class CooperativePlanner implements AutoCloseable {
+
+    /**
+     * Anzahl der Zeitfenster die maximal vorausgeplant werden
+     */
+    public static final int HORIZON = 120;
+
+    /**
+     * Obergrenze fuer die Anzahl an Zustaenden, bei groesseren Graphen wird nicht in der Zeit geplant
+     */
+    private static final int MAX_STATES = 1 << 22;
+
+    private static final ScratchPool<CooperativePlanner> POOL = new ScratchPool<>(CooperativePlanner::new);
+
+    /**
+     * Generation in der der Zustand zuletzt erreicht wurde
+     */
+    private int[] reached;
+
+    /**
+     * Vorgaengerzustand auf dem Weg vom Start
+     */
+    private int[] predecessor;
+
+    /**
+     * Zeitfenster seit Start plus geschaetzte Zeitfenster bis zum Ziel
+     */
+    private int[] priority;
+
+    /**
+     * Binaerer Min-Heap ueber die offenen Zustaende, sortiert nach {@link CooperativePlanner#priority}
+     */
+    private int[] heap;
+
+    private int heapSize;
+
+    private int generation;
+
+    private CooperativePlanner() {
+        allocate(0);
+    }
+
+    /**
+     * Leiht einen Planer aus, er muss nach der Planung mit {@link CooperativePlanner#close()} zurueckgegeben werden
+     *
+     * @return Planer der gerade von keinem anderen Thread verwendet wird
+     */
+    public static CooperativePlanner acquire() {
+        return POOL.borrow();
+    }
+
+    @Override
+    public void close() {
+        POOL.release(this);
+    }
+
+    /**
+     * Plant eine Route von {@code source} nach {@code destination} die keine fremden Reservierungen verletzt, reserviert
+     * die benoetigten Zeitfenster und schreibt die Route mit Zeitplan in {@code plan}.<br>
+     * Reserviert werden Wegpunkte fuer die Zeit in der der Roboter dort steht und die Zielnode fuer
+     * {@code holdSlots} Zeitfenster ab Ankunft, damit der Roboter dort ohne Warten be- oder entladen kann.
+     *
+     * @param graph          Graph auf dem geplant wird
+     * @param reservations   Tabelle mit den Reservierungen aller Roboter
+     * @param source         Node an der der Roboter steht
+     * @param destination    Node zu der der Roboter fahren will
+     * @param startSlot      Zeitfenster in dem der Roboter losfahren kann
+     * @param holdSlots      Anzahl der Zeitfenster die der Roboter an der Zielnode bleibt
+     * @param millisPerPixel Fahrzeit pro Pixel Weglaenge
+     * @param plan           Route in die das Ergebnis geschrieben wird
+     * @return {@code false} wenn innerhalb von {@link CooperativePlanner#HORIZON} keine konfliktfreie Route gefunden
+     * wurde oder die Reservierung fehlgeschlagen ist, {@code plan} ist dann leer
+     */
+    public boolean plan(NavigationGraph graph, ReservationTable reservations, Node source, Node destination,
+                        long startSlot, int holdSlots, long millisPerPixel, RoutePlan plan) {
+        int size = graph.size();
+        if ((long) size * HORIZON > MAX_STATES) {
+            plan.reset();
+            return false;
+        }
+        Object owner = plan.getOwner();
+        CompactGraph compact = graph.getGraph();
+        int start = graph.indexOf(source);
+        int target = graph.indexOf(destination);
+        prepare(size * HORIZON);
+
+        int goal = -1;
+        reach(start, -1, heuristic(graph, start, target, millisPerPixel));
+        while (heapSize > 0) {
+            int state = poll();
+            int node = state % size;
+            int time = state / size;
+            if (node == target) {
+                goal = state;
+                break;
+            }
+
+            //ein Zeitfenster warten
+            if (time + 1 < HORIZON && (!needsReservation(graph, node) || reservations.isFree(node, startSlot + time + 1, owner))) {
+                int next = state + size;
+                if (reached[next] != generation) {
+                    reach(next, state, time + 1 + heuristic(graph, node, target, millisPerPixel));
+                }
+            }
+
+            //zu einem Nachbarn fahren
+            int end = compact.getEdgeEnd(node);
+            for (int edge = compact.getEdgeStart(node); edge < end; edge++) {
+                int n = compact.getEdgeTarget(edge);
+                int arrival = time + travelSlots(compact.getEdgeWeight(edge), millisPerPixel);
+                if (arrival >= HORIZON) {
+                    continue;
+                }
+                int next = arrival * size + n;
+                if (reached[next] == generation) {
+                    continue;
+                }
+                if (n == target) {
+                    if (!isFree(reservations, n, startSlot + arrival, holdSlots, owner)) {
+                        continue;
+                    }
+                } else if (needsReservation(graph, n) && !reservations.isFree(n, startSlot + arrival, owner)) {
+                    continue;
+                }
+                reach(next, state, arrival + heuristic(graph, n, target, millisPerPixel));
+            }
+        }
+
+        plan.resetScheduled(reservations);
+        if (goal < 0) {
+            plan.reset();
+            return false;
+        }
+
+        //Route rueckwaerts einsammeln, dabei zaehlt nur die erste und letzte Zeit an jeder Node
+        int count = 0;
+        for (int state = goal; predecessor[state] >= 0; state = predecessor[state]) {
+            if (predecessor[state] % size != state % size) {
+                count++;
+            }
+        }
+        int[] steps = new int[count];
+        int[] departures = new int[count];
+        int i = count;
+        int departure = goal / size + holdSlots - 1;
+        for (int state = goal; predecessor[state] >= 0; state = predecessor[state]) {
+            int previous = predecessor[state];
+            if (previous % size != state % size) {
+                i--;
+                steps[i] = state;
+                departures[i] = departure;
+                departure = previous / size;
+            }
+        }
+        for (int j = 0; j < count; j++) {
+            int node = steps[j] % size;
+            int index = node == target || needsReservation(graph, node) ? node : -1;
+            plan.addStep(graph.getNode(node), index, startSlot + steps[j] / size, startSlot + departures[j]);
+        }
+        if (!plan.reserve()) {
+            plan.reset();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Nur an Wegpunkten muessen Zeitfenster reserviert werden, an {@link StorageNode}s regelt
+     * {@link StorageNode#accessNode} den Zugriff
+     */
+    private static boolean needsReservation(NavigationGraph graph, int node) {
+        return !graph.isStorage(node);
+    }
+
+    private static boolean isFree(ReservationTable reservations, int node, long from, int slots, Object owner) {
+        for (int i = 0; i < slots; i++) {
+            if (!reservations.isFree(node, from + i, owner)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rechnet eine Weglaenge in Zeitfenster um, es wird aufgerundet damit der Roboter nie zu spaet ankommt
+     */
+    private static int travelSlots(int pixels, long millisPerPixel) {
+        return (int) Math.max(1, (pixels * millisPerPixel + ReservationTable.SLOT_MILLIS - 1) / ReservationTable.SLOT_MILLIS);
+    }
+
+    /**
+     * Schaetzt die Zeitfenster bis zum Ziel ueber die Luftlinie, es wird abgerundet damit die Schaetzung nie zu gross ist
+     */
+    private static int heuristic(NavigationGraph graph, int node, int target, long millisPerPixel) {
+        return (int) (graph.getGraph().estimateDistance(node, target) * millisPerPixel / ReservationTable.SLOT_MILLIS);
+    }
+
+    private void reach(int state, int previous, int statePriority) {
+        reached[state] = generation;
+        predecessor[state] = previous;
+        priority[state] = statePriority;
+        push(state);
+    }
+
+    private void prepare(int states) {
+        if (reached.length < states) {
+            allocate(states);
+        }
+        heapSize = 0;
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            generation = 1;
+        }
+    }
+
+    private void allocate(int states) {
+        reached = new int[states];
+        predecessor = new int[states];
+        priority = new int[states];
+        heap = new int[states];
+        generation = 0;
+    }
+
+    private void push(int state) {
+        int position = heapSize++;
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (priority[heap[parent]] <= priority[state]) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = state;
+    }
+
+    private int poll() {
+        int first = heap[0];
+        int last = heap[--heapSize];
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && priority[heap[child + 1]] < priority[heap[child]]) {
+                child++;
+            }
+            if (priority[last] <= priority[heap[child]]) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        if (heapSize > 0) {
+            heap[position] = last;
+        }
+        return first;
+    }
+}
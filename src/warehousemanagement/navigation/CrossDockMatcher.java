@@ -0,0 +1,236 @@
+package warehousemanagement.navigation;
+
+import warehousemanagement.Map;
+import warehousemanagement.Shipment;
+import warehousemanagement.simulation.Simulation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Sucht unter den {@link DeliveryNode}s Paare aus einem LKW der ausgeladen wird und einem der gerade den gleichen
+ * Materialtyp einlaedt. Fuer ein solches Paar werden die Einheiten direkt von Tor zu Tor gebracht statt ueber eine
+ * {@link StorageNode}: der Einlagerungsauftrag des einen und der Auslagerungsauftrag des anderen Tores werden um die
+ * gleiche Menge gekuerzt und dafuer ein {@link TransportTask} zwischen den beiden Toren erstellt. Jede so bewegte
+ * Ladung spart eine Fahrt.<br>
+ * Der Abgleich laeuft im {@link TransportDispatcher} bei jedem neuen Auftrag, also wenn ein LKW ankommt oder vom
+ * Ausladen zum Einladen wechselt. Die am dringendsten wartende DeliveryNode wird zuerst bedient, jeweils vom naechsten
+ * passenden Tor. Ueber die System-Property {@code warehouse.crossdock=off} laesst sich der Abgleich abschalten.
+ */
+public class CrossDockMatcher {
+
+    private static final String CROSSDOCK_PROPERTY = "warehouse.crossdock";
+
+    private volatile boolean enabled;
+
+    private long matches;
+
+    private long crossDockedUnits;
+
+    private long savedTrips;
+
+    private CrossDockMatcher() {
+        enabled = !"off".equals(System.getProperty(CROSSDOCK_PROPERTY, "on"));
+    }
+
+    public static CrossDockMatcher getCrossDockMatcher() {
+        return CrossDockMatcherHolder.INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Kuerzt Ein- und Auslagerungsauftraege passender Tore und gibt die Auftraege fuer die direkten Transporte zurueck.
+     * Wird vom {@link TransportDispatcher} mit dessen Sperre aufgerufen.
+     *
+     * @param tasks alle offenen Auftraege, gekuerzte Auftraege werden veraendert aber nicht entfernt
+     * @return neue Auftraege von Tor zu Tor, leer wenn es keine passenden Tore gibt
+     */
+    synchronized List<TransportTask> match(List<TransportTask> tasks) {
+        if (!enabled) {
+            return new ArrayList<>();
+        }
+        Map m = Map.getMap();
+        List<DeliveryNode> docks;
+        synchronized (m.deliveryNodes) {
+            docks = new ArrayList<>(m.deliveryNodes);
+        }
+        return match(tasks, docks, m.getNavigationGraph());
+    }
+
+    /**
+     * Wie {@link CrossDockMatcher#match(List)}, aber fuer die gegebenen Tore und Wege
+     *
+     * @param tasks alle offenen Auftraege, gekuerzte Auftraege werden veraendert aber nicht entfernt
+     * @param docks die DeliveryNodes unter denen Paare gesucht werden
+     * @param graph Wegenetz ueber das die naechsten Tore bestimmt werden
+     * @return neue Auftraege von Tor zu Tor, leer wenn es keine passenden Tore gibt oder der Abgleich abgeschaltet ist
+     */
+    public synchronized List<TransportTask> match(List<TransportTask> tasks, List<DeliveryNode> docks,
+                                                  NavigationGraph graph) {
+        List<TransportTask> transfers = new ArrayList<>();
+        if (!enabled) {
+            return transfers;
+        }
+        List<DeliveryNode> inbound = new ArrayList<>();
+        List<DeliveryNode> outbound = new ArrayList<>();
+        for (DeliveryNode n : docks) {
+            Shipment s = n.getCurrentShipment();
+            if (s == null || n.getMaterialType() == 0) {
+                continue;
+            }
+            if (n.isLoading()) {
+                outbound.add(n);
+            } else {
+                inbound.add(n);
+            }
+        }
+        if (inbound.isEmpty() || outbound.isEmpty()) {
+            return transfers;
+        }
+
+        long now = Simulation.getSimulation().currentTimeMillis();
+        HashMap<DeliveryNode, Long> slack = new HashMap<>();
+        for (DeliveryNode n : outbound) {
+            slack.put(n, n.getSlackMillis(now));
+        }
+        outbound.sort(Comparator.comparingLong(slack::get));
+        try (PathFinder pathFinder = PathFinder.acquire()) {
+            for (DeliveryNode to : outbound) {
+                int demand = demand(to, tasks);
+                if (demand <= 0 || !graph.contains(to)) {
+                    continue;
+                }
+                pathFinder.search(graph.getGraph(), graph.indexOf(to), -1);
+                List<DeliveryNode> candidates = new ArrayList<>();
+                for (DeliveryNode from : inbound) {
+                    if (from.getMaterialType() == to.getMaterialType() && graph.contains(from)
+                            && pathFinder.isReached(graph.indexOf(from))) {
+                        candidates.add(from);
+                    }
+                }
+                candidates.sort(Comparator.comparingInt(n -> pathFinder.getDistance(graph.indexOf(n))));
+                for (DeliveryNode from : candidates) {
+                    int units = Math.min(demand, supply(from, tasks));
+                    if (units <= 0) {
+                        continue;
+                    }
+                    take(tasks, to, units, false);
+                    take(tasks, from, units, true);
+                    transfers.add(new TransportTask(to, to.getMaterialType(), from, to, units));
+                    matches++;
+                    demand -= units;
+                    if (demand <= 0) {
+                        break;
+                    }
+                }
+            }
+        }
+        return transfers;
+    }
+
+    /**
+     * Einheiten die eine einladende DeliveryNode noch aus dem Lager bekommen wuerde: offene Einheiten ihrer
+     * Auslagerungsauftraege plus Einheiten fuer die es keinen Auftrag gibt, weil kein Lager den Materialtyp hat
+     */
+    private static int demand(DeliveryNode to, List<TransportTask> tasks) {
+        Shipment s = to.getCurrentShipment();
+        if (s == null) {
+            return 0;
+        }
+        int covered = 0;
+        int open = 0;
+        for (TransportTask task : tasks) {
+            if (task.getDestination() == to) {
+                covered += task.getRemaining();
+                if (!task.isCrossDock()) {
+                    open += task.getOpen();
+                }
+            }
+        }
+        return open + Math.max(0, s.getSize() - to.getAmount() - covered);
+    }
+
+    /**
+     * Einheiten die eine ausladende DeliveryNode noch ins Lager bringen lassen wuerde, entsprechend
+     * {@link CrossDockMatcher#demand}
+     */
+    private static int supply(DeliveryNode from, List<TransportTask> tasks) {
+        int covered = 0;
+        int open = 0;
+        for (TransportTask task : tasks) {
+            if (task.getSource() == from) {
+                covered += task.getRemaining();
+                if (!task.isCrossDock()) {
+                    open += task.getOpen();
+                }
+            }
+        }
+        return open + Math.max(0, from.getAmount() - covered);
+    }
+
+    /**
+     * Kuerzt die Lagerauftraege einer DeliveryNode um bis zu {@code units} Einheiten, Einheiten ohne Auftrag brauchen
+     * keine Kuerzung
+     */
+    private static void take(List<TransportTask> tasks, DeliveryNode dock, int units, boolean source) {
+        for (TransportTask task : tasks) {
+            if (units <= 0) {
+                return;
+            }
+            if ((source ? task.getSource() : task.getDestination()) == dock && !task.isCrossDock()) {
+                units -= task.take(units);
+            }
+        }
+    }
+
+    /**
+     * Zaehlt eine Ladung die direkt von Tor zu Tor gebracht wurde
+     *
+     * @param units abgeladene Einheiten
+     */
+    synchronized void transferred(int units) {
+        crossDockedUnits += units;
+        savedTrips++;
+    }
+
+    /**
+     * Gibt zurueck wie oft ein Paar aus aus- und einladender DeliveryNode gefunden wurde
+     *
+     * @return Anzahl der Paare
+     */
+    public synchronized long getMatches() {
+        return matches;
+    }
+
+    public synchronized long getCrossDockedUnits() {
+        return crossDockedUnits;
+    }
+
+    /**
+     * Gibt die Fahrten zurueck die gespart wurden, ueber das Lager waeren es fuer jede Ladung zwei gewesen
+     *
+     * @return gesparte Fahrten
+     */
+    public synchronized long getSavedTrips() {
+        return savedTrips;
+    }
+
+    public synchronized void resetStatistics() {
+        matches = 0;
+        crossDockedUnits = 0;
+        savedTrips = 0;
+    }
+
+    private static class CrossDockMatcherHolder {
+        private static final CrossDockMatcher INSTANCE = new CrossDockMatcher();
+    }
+}
@@ -1,11 +1,13 @@
 package warehousemanagement.navigation;
 
 import warehousemanagement.Controller;
+import warehousemanagement.Map;
 import warehousemanagement.Shipment;
 
-import java.awt.*;
-import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Erweitert die {@link StorageNode} um die Moeglichkeit Spezifikationen aus einem {@link warehousemanagement.Shipment} zu laden
@@ -13,19 +15,114 @@ import java.util.ArrayList;
  */
 public class DeliveryNode extends StorageNode {
 
-    private Shipment currentShipment;
+    private volatile Shipment currentShipment;
 
     /**
      * Gibt an ob die Node gerade be- oder entladen wird um es Robotern zu ermoeglichen die richtige Entscheidung zu treffen
      */
-    private boolean loading;
+    private volatile boolean loading;
 
-    private final ArrayList<Robot> robots;
+    /**
+     * Roboter dieser DeliveryNode, wird vom Autoscaler, der GUI und den Robotern gleichzeitig verwendet
+     */
+    private final List<Robot> robots;
+
+    /**
+     * Anzahl der Roboter die gerade fuer diese DeliveryNode arbeiten, unabhaengig davon wo sie eingesetzt wurden
+     *
+     * @see TaskPrioritizer
+     */
+    private final AtomicInteger workers;
 
     public DeliveryNode(int id, int x, int y, int width, int height) {
-        super(id, x, y, width, height);
+        super(id, x, y, width, height, NodeKind.DELIVERY);
+
+        robots = Collections.synchronizedList(new ArrayList<>());
+        workers = new AtomicInteger();
+    }
 
-        robots = new ArrayList<>();
+    /**
+     * Gibt das {@link Shipment} zurueck das gerade abgefertigt wird
+     *
+     * @return das aktuelle Shipment oder {@code null}
+     */
+    public Shipment getCurrentShipment() {
+        return currentShipment;
+    }
+
+    /**
+     * Gibt die Anzahl der Einheiten zurueck die fuer das aktuelle {@link Shipment} noch bewegt werden muessen, beim
+     * Ausladen inklusive der Einheiten die danach eingeladen werden
+     *
+     * @return verbleibende Einheiten
+     */
+    public int getRemainingUnits() {
+        Shipment s = currentShipment;
+        if (s == null) {
+            return 0;
+        }
+        if (isLoading()) {
+            return s.getSize() - getAmount();
+        }
+        return getAmount() + (s.isOutbound() ? s.getSize() : 0);
+    }
+
+    /**
+     * Gibt an ob an dieser DeliveryNode gerade Roboter gebraucht werden
+     *
+     * @return {@code true} wenn ein Shipment abgefertigt wird und noch Einheiten fehlen
+     */
+    public boolean needsWork() {
+        return currentShipment != null && getMaterialType() != 0 && getRemainingUnits() > 0;
+    }
+
+    /**
+     * Berechnet wie viel Zeit bis zur Frist des aktuellen {@link Shipment}s uebrig bleibt wenn die verbleibenden
+     * Einheiten von den Robotern bewegt werden die gerade fuer diese Node arbeiten
+     *
+     * @param now aktuelle Simulationszeit in Millisekunden
+     * @return Puffer in Millisekunden, negativ wenn die Frist voraussichtlich verpasst wird
+     * @see Shipment#getLoadingTime()
+     */
+    public long getSlackMillis(long now) {
+        return getSlackMillis(now, workers.get());
+    }
+
+    /**
+     * Wie {@link DeliveryNode#getSlackMillis(long)}, aber mit einer vorgegebenen Anzahl an Robotern
+     *
+     * @param now     aktuelle Simulationszeit in Millisekunden
+     * @param workers Anzahl der Roboter die die verbleibenden Einheiten bewegen
+     * @return Puffer in Millisekunden, {@link Long#MAX_VALUE} wenn kein Shipment abgefertigt wird
+     */
+    public long getSlackMillis(long now, int workers) {
+        Shipment s = currentShipment;
+        if (s == null) {
+            return Long.MAX_VALUE;
+        }
+        long deadline = 1000L * (s.getEta() + s.getLoadingTime());
+        long remaining;
+        if (isLoading()) {
+            remaining = trips(getRemainingUnits()) * tripMillis(s.getMaterialTypeOutbound());
+        } else {
+            remaining = trips(getAmount()) * tripMillis(s.getMaterialTypeInbound());
+            if (s.isOutbound()) {
+                remaining += trips(s.getSize()) * tripMillis(s.getMaterialTypeOutbound());
+            }
+        }
+        return deadline - now - remaining / Math.max(1, workers);
+    }
+
+    void addWorker() {
+        workers.incrementAndGet();
+    }
+
+    void removeWorker() {
+        workers.decrementAndGet();
+    }
+
+    public int getWorkers() {
+        return workers.get();
     }
 
     /**
@@ -46,85 +143,121 @@ public class DeliveryNode extends StorageNode {
         return !loading;
     }
 
+    /**
+     * Beim Einladen passt genau so viel in die DeliveryNode wie das {@link Shipment} gross ist, beim Ausladen nichts
+     *
+     * @return {@inheritDoc}
+     */
     @Override
-    boolean accessNode(Robot robot) {
-        if (getMaterialType() == 0) {
-            robotQueue.add(robot);
-            return false;
+    int getCapacity() {
+        Shipment s = currentShipment;
+        if (s == null || !isLoading()) {
+            return 0;
         }
-        return super.accessNode(robot);
+        return s.getSize();
+    }
+
+    /**
+     * Ohne {@link Shipment} gibt es nichts zu tun, ankommende Roboter warten bis {@link DeliveryNode#loadShipment} sie
+     * weckt
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    boolean isAccessible() {
+        return getMaterialType() != 0;
     }
 
     /**
-     * Kontrolliert ob eingeladen werden darf und ruft dann {@link StorageNode#loadItems} auf, um es
-     * Robotern zu ermoeglichen Waren an DeliveryNodes auszuladen.
+     * Der Materialtyp einer DeliveryNode wechselt mit jedem {@link Shipment}, sie ist kein Lager und wird deswegen
+     * nicht in den {@link StorageIndex} aufgenommen
+     *
+     * @param previous {@inheritDoc}
+     * @param current  {@inheritDoc}
+     */
+    @Override
+    void materialTypeChanged(int previous, int current) {
+    }
+
+    /**
+     * Kontrolliert ob eingeladen werden darf, um es Robotern zu ermoeglichen Waren an DeliveryNodes auszuladen.
      * <br>
      * {@inheritDoc}
      *
      * @param materialType {@inheritDoc}
-     * @param amount       {@inheritDoc}
      * @throws RuntimeException wenn {@link DeliveryNode#isLoading()} }{@code == false}
      */
     @Override
-    public void loadItems(int materialType, int amount) {
-        if (isLoading()) {
-            super.loadItems(materialType, amount);
-            if (getAmount() == currentShipment.getSize()) {
-                requestNextShipment();
-            }
-        } else {
+    void checkLoad(int materialType) {
+        if (!isLoading()) {
             throw new RuntimeException("Kann keine Items einladen wenn ausgeladen werden soll");
         }
+        super.checkLoad(materialType);
     }
 
     /**
-     * Kontrolliert ob ausgeladen werden darf und ruft dann {@link StorageNode#loadItems} auf, um es
-     * Robotern zu ermöglichen Waren an DeliveryNodes einzuladen.
-     * <br>
-     * {@inheritDoc}
+     * Kontrolliert ob ausgeladen werden darf, um es Robotern zu ermöglichen Waren an DeliveryNodes einzuladen.
      *
-     * @param amount {@inheritDoc}
      * @throws RuntimeException wenn {@link DeliveryNode#isUnloading()} {@code == false}
      */
     @Override
-    public void unloadItems(int amount) {
+    void checkUnload() {
         if (getMaterialType() == 0) {
             throw new RuntimeException("Keine Waren an dieser DeliveryNode");
         }
-        if (isUnloading()) {
-            super.unloadItems(amount);
-        } else {
+        if (!isUnloading()) {
             throw new RuntimeException("Kann keine Items ausladen wenn eingeladen werden soll");
         }
-        if (getAmount() == 0) {
-            if (currentShipment.isOutbound()) {
+    }
+
+    /**
+     * Wechselt vom Ausladen zum Einladen sobald die DeliveryNode leer ist und fordert das naechste {@link Shipment} an
+     * sobald sie voll ist. Da jede Aenderung genau einmal gemeldet wird, loest auch bei vielen gleichzeitigen Robotern
+     * nur einer den Wechsel aus. Jede bewegte Einheit zaehlt fuer den Umschlag im {@link SlottingOptimizer}.
+     *
+     * @param before {@inheritDoc}
+     * @param after  {@inheritDoc}
+     */
+    @Override
+    void amountChanged(int before, int after) {
+        Shipment s = currentShipment;
+        if (s == null) {
+            return;
+        }
+        SlottingOptimizer.getSlottingOptimizer().record(getMaterialType(), Math.abs(after - before));
+        if (isUnloading() && before > 0 && after == 0) {
+            if (s.isOutbound()) {
                 loading = true;
-                setMaterialType(currentShipment.getMaterialTypeOutbound());
+                setMaterialType(s.getMaterialTypeOutbound());
+                submitTask(false, s.getSize());
+                //Roboter die auf Waren zum Ausladen warten sammeln jetzt fuer das Einladen
+                wakeAll();
             } else {
                 requestNextShipment();
-                resetMaterialType();
             }
+        } else if (isLoading() && after == s.getSize()) {
+            requestNextShipment();
         }
     }
 
     /**
-     * Wenn ein {@link warehousemanagement.Shipment} abgefertigt wurde laedt diese Methode das naechste {@link warehousemanagement.Shipment} beziehungsweise
-     * reiht sich in eine Warteschlange ein
+     * Wenn ein {@link warehousemanagement.Shipment} abgefertigt wurde meldet sich die Node beim {@link Controller} als
+     * frei, das naechste {@link warehousemanagement.Shipment} bekommt sie ueber {@link DeliveryNode#loadShipment}
      */
     private void requestNextShipment() {
-        resetStorage();
-        currentShipment = Controller.getController().requestNextShipment(this);
         if (currentShipment != null) {
-            setMaterialType(currentShipment.getMaterialTypeInbound());
-            amount = currentShipment.getSize();
+            TaskPrioritizer.getTaskPrioritizer().completed(this, currentShipment);
         }
+        resetStorage();
+        currentShipment = null;
+        Controller.getController().requestNextShipment(this);
     }
 
     /**
      * Wenn eine Lieferung abgefertigt wurde setzt diese Methode den Lagerbestand auf null und den materialType auf 0
      */
     private void resetStorage() {
-        amount = 0;
+        setAmount(0);
         resetMaterialType();
         loading = false;
     }
@@ -132,63 +265,112 @@ public class DeliveryNode extends StorageNode {
     public void loadShipment(Shipment s) {
         currentShipment = s;
         setMaterialType(s.getMaterialTypeInbound());
-        amount = s.getSize();
+        setAmount(s.getSize());
         loading = false;
 
-        for (int i = 0; i < robotQueue.size(); i++) {
-            synchronized (robotQueue.get(i)) {
-                robotQueue.get(i).notify();
-                robotQueue.remove(i);
+        wakeAll();
+        submitTask(true, s.getSize());
+
+        //Roboter die an DeliveryNodes ohne Shipment warten koennen hier aushelfen
+        Map m = Map.getMap();
+        synchronized (m.deliveryNodes) {
+            for (DeliveryNode n : m.deliveryNodes) {
+                if (n != this) {
+                    n.wakeAll();
+                }
             }
         }
     }
 
-    @Override
-    public void mouseClicked(MouseEvent e) {
-        int x = e.getX();
-        int y = e.getY();
-
-        int width = getWidth();
-        int height = getHeight();
-
-        if (0.4 * height < y && y < 0.6 * width) {
-            if (0.2 * width < x && x < 0.4 * width) {
-                robots.get(robots.size() - 1).shutdown();
-                robots.remove(robots.size() - 1);
-            } else if (0.6 * width < x && x < 0.8 * width) {
-                robots.add(new Robot(this));
-            }
+    /**
+     * Gibt den Transport an den {@link TransportDispatcher} wenn die Arbeit zentral vergeben wird. Das Lager waehlt der
+     * {@link StorageIndex}, ohne {@link StorageNode} fuer den Materialtyp gibt es keinen Auftrag.
+     *
+     * @param unloading {@code true} wenn die Waren von hier ins Lager gebracht werden
+     * @param units     Anzahl der Einheiten
+     */
+    private void submitTask(boolean unloading, int units) {
+        TransportDispatcher dispatcher = TransportDispatcher.getTransportDispatcher();
+        if (!dispatcher.isCentral()) {
+            return;
+        }
+        StorageIndex index = StorageIndex.getStorageIndex();
+        int materialType = getMaterialType();
+        StorageNode n = unloading ? index.findPutAway(this, materialType, units) : index.findPick(this, materialType, units);
+        if (n != null) {
+            dispatcher.submit(unloading ? new TransportTask(this, materialType, this, n, units)
+                    : new TransportTask(this, materialType, n, this, units));
         }
     }
 
-    @Override
-    public void paintComponent(Graphics g) {
-        int width = getWidth();
-        int height = getHeight();
-
-        g.setColor(Color.BLACK);
-        g.fillRect(0, 0, width, (int) (0.2 * height));
-        g.fillRect(0, (int) (0.8 * height), width, (int) (0.2 * height));
-
-        g.setColor(Color.LIGHT_GRAY);
-        g.fillRect((int) (0.1 * width), (int) (0.2 * height) - 1, (int) (0.8 * width), (int) (0.6 * height) + 1);
-
-        g.setColor(Color.BLACK);
-        g.drawRect((int) (0.1 * width), (int) (0.2 * height) - 1, (int) (0.8 * width), (int) (0.6 * height) + 1);
+    /**
+     * Schaetzt wie lange die Roboter dieser DeliveryNode brauchen um das {@link Shipment} abzufertigen. Jede Ladung von
+     * {@link Robot#CAPACITY} Einheiten ist eine Fahrt zur passenden {@link StorageNode} und zurueck mit zwei
+     * Ladevorgaengen, die Fahrten werden auf alle Roboter verteilt. Warten an belegten Nodes wird nicht beruecksichtigt.
+     *
+     * @param s das abzufertigende Shipment
+     * @return geschaetzte Dauer in Millisekunden
+     */
+    public long estimateHandlingMillis(Shipment s) {
+        long millis = trips(s.getSize()) * tripMillis(s.getMaterialTypeInbound());
+        if (s.isOutbound()) {
+            millis += trips(s.getSize()) * tripMillis(s.getMaterialTypeOutbound());
+        }
+        return millis / Math.max(1, robots.size());
+    }
 
-        g.setColor(Color.WHITE);
-        g.fillRect((int) (0.2 * width), (int) (0.4 * height), (int) (0.2 * width), (int) (0.2 * height));
-        g.fillRect((int) (0.6 * width), (int) (0.4 * height), (int) (0.2 * width), (int) (0.2 * height));
+    /**
+     * Anzahl der Fahrten die ein Roboter fuer die Einheiten braucht
+     */
+    private static long trips(int units) {
+        return (units + Robot.CAPACITY - 1) / Robot.CAPACITY;
+    }
 
-        g.setColor(Color.BLACK);
-        g.drawRect((int) (0.2 * width), (int) (0.4 * height), (int) (0.2 * width), (int) (0.2 * height));
-        g.drawRect((int) (0.6 * width), (int) (0.4 * height), (int) (0.2 * width), (int) (0.2 * height));
+    /**
+     * Dauer einer Fahrt zur naechsten {@link StorageNode} mit dem Materialtyp und zurueck inklusive Be- und Entladen
+     */
+    private long tripMillis(int materialType) {
+        NavigationGraph graph = Map.getMap().getNavigationGraph();
+        int distance = 0;
+        StorageNode n = StorageIndex.getStorageIndex().findPick(this, materialType, 0);
+        if (n != null) {
+            try (PathFinder pathFinder = PathFinder.acquire()) {
+                distance = pathFinder.search(graph.getGraph(), graph.indexOf(this), graph.indexOf(n));
+            }
+        }
+        return 2 * Robot.LOAD_MILLIS + 2 * Math.max(0, distance) * Robot.MOVE_MILLIS_PER_PIXEL;
+    }
 
-        g.setFont(new Font("Arial", Font.PLAIN, (int) (0.15 * Math.min(width, height))));
+    /**
+     * Setzt einen neuen Roboter an dieser DeliveryNode ein
+     */
+    public void addRobot() {
+        robots.add(new Robot(this));
+    }
 
-        g.drawString("-", (int) (0.29 * width), (int) (0.55 * height));
-        g.drawString("+", (int) (0.66 * width), (int) (0.56 * height));
+    /**
+     * Schaltet den zuletzt eingesetzten Roboter ab, er arbeitet noch bis sein Inventar leer ist
+     *
+     * @return {@code false} wenn an dieser DeliveryNode keine Roboter arbeiten
+     */
+    public boolean removeRobot() {
+        Robot robot;
+        synchronized (robots) {
+            if (robots.isEmpty()) {
+                return false;
+            }
+            robot = robots.remove(robots.size() - 1);
+        }
+        robot.shutdown();
+        return true;
+    }
 
-        g.drawString(Integer.toString(robots.size()), (int) (0.46 * width), (int) (0.56 * height));
+    /**
+     * Gibt die Anzahl der Roboter zurueck die fuer diese DeliveryNode arbeiten
+     *
+     * @return Anzahl der Roboter
+     */
+    public int getRobotCount() {
+        return robots.size();
     }
 }
@@ -0,0 +1,258 @@
+package warehousemanagement.navigation;
+
+import warehousemanagement.Map;
+import warehousemanagement.Shipment;
+import warehousemanagement.simulation.Simulation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Setzt Roboter an den {@link DeliveryNode}s automatisch ein und schaltet sie wieder ab, so dass moeglichst wenige
+ * Roboter laufen und die Shipments trotzdem vor ihrer Frist fertig werden. Alle
+ * {@link FleetAutoscaler#PERIOD_MILLIS} werden fuer jede DeliveryNode geprueft:
+ * <ul>
+ * <li>der Puffer bis zur Frist ({@link DeliveryNode#getSlackMillis}) und ob LKWs auf ein freies Tor warten
+ * ({@link warehousemanagement.Controller#getBacklog}),</li>
+ * <li>die Auslastung der Flotte seit der letzten Pruefung ({@link RobotExecution#getBusyMillis}),</li>
+ * <li>wie viele Roboter gerade an den Lagern anstehen ({@link StorageNode#getQueueLength}).</li>
+ * </ul>
+ * Ein Roboter kommt dazu wenn der Puffer knapp wird oder LKWs warten, aber nur wenn die vorhandenen Roboter
+ * ausgelastet sind und nicht schon vor den Lagern Schlange stehen. Ein Roboter wird abgeschaltet wenn der Puffer auch
+ * ohne ihn gross bleibt und die Flotte wenig zu tun hat oder sich an den Lagern staut. Damit nicht staendig hin und her
+ * geschaltet wird, gelten dafuer getrennte Schwellen und die Bedingung muss mehrere Pruefungen hintereinander erfuellt
+ * sein, zum Abschalten laenger als zum Einsetzen.<br>
+ * Die Steuerung ist abgeschaltet damit sie die von Hand eingesetzten Roboter nicht veraendert, mit der System-Property
+ * {@code warehouse.autoscale=on} wird sie eingeschaltet. Die Grenzen je DeliveryNode lassen sich ueber
+ * {@code warehouse.autoscale.min} und {@code warehouse.autoscale.max} einstellen.
+ */
+public class FleetAutoscaler {
+
+    private static final String AUTOSCALE_PROPERTY = "warehouse.autoscale";
+
+    private static final String MIN_PROPERTY = "warehouse.autoscale.min";
+
+    private static final String MAX_PROPERTY = "warehouse.autoscale.max";
+
+    public static final long PERIOD_MILLIS = 5000;
+
+    /**
+     * Unter diesem Puffer wird ein Roboter eingesetzt
+     */
+    static final long UP_SLACK_MILLIS = 30_000;
+
+    /**
+     * Ueber diesem Puffer, gerechnet mit einem Roboter weniger, darf einer abgeschaltet werden
+     */
+    static final long DOWN_SLACK_MILLIS = 120_000;
+
+    /**
+     * Ab dieser Auslastung bringt ein weiterer Roboter etwas
+     */
+    static final double UP_UTILIZATION = 0.7;
+
+    /**
+     * Unter dieser Auslastung hat die Flotte zu viele Roboter
+     */
+    static final double DOWN_UTILIZATION = 0.4;
+
+    /**
+     * Ab so vielen wartenden Robotern je Lager stehen sich die Roboter gegenseitig im Weg
+     */
+    static final double QUEUE_LIMIT = 1.0;
+
+    /**
+     * Aufeinanderfolgende Pruefungen bis ein Roboter eingesetzt beziehungsweise abgeschaltet wird
+     */
+    public static final int UP_TICKS = 2;
+
+    public static final int DOWN_TICKS = 6;
+
+    private final boolean enabled;
+
+    private final int minRobots;
+
+    private final int maxRobots;
+
+    private final HashMap<DeliveryNode, int[]> ticks;
+
+    private long lastTime;
+
+    private long lastBusyMillis;
+
+    private double utilization;
+
+    private double queueLength;
+
+    private long activations;
+
+    private long parkings;
+
+    private long robotMillis;
+
+    /**
+     * Anzahl der LKWs die auf ein freies Tor warten, {@code null} solange nicht gestartet
+     */
+    private IntSupplier backlog;
+
+    private FleetAutoscaler() {
+        this("on".equals(System.getProperty(AUTOSCALE_PROPERTY, "off")), Integer.getInteger(MIN_PROPERTY, 0),
+                Integer.getInteger(MAX_PROPERTY, 8));
+    }
+
+    /**
+     * Erstellt eine eingeschaltete Steuerung die nicht in der {@link Simulation} laeuft, sondern ueber
+     * {@link FleetAutoscaler#run(long, long, int, List, List)} aufgerufen wird
+     *
+     * @param minRobots so viele Roboter bleiben an jeder DeliveryNode mindestens eingesetzt
+     * @param maxRobots so viele Roboter werden an einer DeliveryNode hoechstens eingesetzt
+     */
+    public FleetAutoscaler(int minRobots, int maxRobots) {
+        this(true, minRobots, maxRobots);
+    }
+
+    private FleetAutoscaler(boolean enabled, int minRobots, int maxRobots) {
+        this.enabled = enabled;
+        this.minRobots = minRobots;
+        this.maxRobots = maxRobots;
+        ticks = new HashMap<>();
+    }
+
+    public static FleetAutoscaler getFleetAutoscaler() {
+        return FleetAutoscalerHolder.INSTANCE;
+    }
+
+    /**
+     * Prueft in der {@link Simulation} regelmaessig, weitere Aufrufe haben keine Wirkung
+     *
+     * @param backlog liefert die Anzahl der LKWs die auf ein freies Tor warten
+     */
+    public synchronized void start(IntSupplier backlog) {
+        if (enabled && this.backlog == null) {
+            this.backlog = backlog;
+            Simulation simulation = Simulation.getSimulation();
+            lastTime = simulation.currentTimeMillis();
+            lastBusyMillis = RobotExecution.getRobotExecution().getBusyMillis();
+            simulation.scheduleAtFixedRate(PERIOD_MILLIS, PERIOD_MILLIS, this::run);
+        }
+    }
+
+    /**
+     * Misst Auslastung und Stau seit der letzten Pruefung und setzt an jeder DeliveryNode hoechstens einen Roboter ein
+     * oder ab
+     */
+    public synchronized void run() {
+        Map m = Map.getMap();
+        List<DeliveryNode> docks;
+        synchronized (m.deliveryNodes) {
+            docks = new ArrayList<>(m.deliveryNodes);
+        }
+        List<StorageNode> storageNodes;
+        synchronized (m.storageNodes) {
+            storageNodes = new ArrayList<>(m.storageNodes);
+        }
+        run(Simulation.getSimulation().currentTimeMillis(), RobotExecution.getRobotExecution().getBusyMillis(),
+                backlog != null ? backlog.getAsInt() : 0, docks, storageNodes);
+    }
+
+    /**
+     * Wie {@link FleetAutoscaler#run()}, aber mit vorgegebenen Messwerten
+     *
+     * @param now          aktuelle Simulationszeit in Millisekunden
+     * @param busy         Zeit in der die Roboter bisher insgesamt gefahren sind oder geladen haben
+     * @param backlog      Anzahl der LKWs die auf ein freies Tor warten
+     * @param docks        die DeliveryNodes an denen Roboter eingesetzt und abgeschaltet werden
+     * @param storageNodes die Lager an denen Warteschlangen gezaehlt werden
+     */
+    public synchronized void run(long now, long busy, int backlog, List<DeliveryNode> docks,
+                                 List<StorageNode> storageNodes) {
+        int robots = 0;
+        for (DeliveryNode dock : docks) {
+            robots += dock.getRobotCount();
+        }
+        long elapsed = now - lastTime;
+        //Ohne Roboter gilt die Flotte als ausgelastet, sonst wuerde nie einer eingesetzt
+        utilization = robots == 0 || elapsed <= 0 ? 1 : (double) (busy - lastBusyMillis) / (elapsed * robots);
+        robotMillis += robots * Math.max(0, elapsed);
+        lastTime = now;
+        lastBusyMillis = busy;
+
+        int queued = 0;
+        for (StorageNode n : storageNodes) {
+            queued += n.getQueueLength();
+        }
+        for (DeliveryNode dock : docks) {
+            queued += dock.getQueueLength();
+        }
+        queueLength = (double) queued / Math.max(1, storageNodes.size() + docks.size());
+        boolean contended = queueLength >= QUEUE_LIMIT;
+        boolean waiting = backlog > 0;
+
+        for (DeliveryNode dock : docks) {
+            Shipment s = dock.getCurrentShipment();
+            int count = dock.getRobotCount();
+            boolean up = s != null && count < maxRobots && !contended && utilization >= UP_UTILIZATION
+                    && (robots == 0 || waiting || dock.getSlackMillis(now) < UP_SLACK_MILLIS);
+            boolean relaxed = s == null ? !waiting
+                    : dock.getSlackMillis(now, Math.max(1, dock.getWorkers() - 1)) > DOWN_SLACK_MILLIS;
+            boolean down = count > minRobots && relaxed && (utilization < DOWN_UTILIZATION || contended);
+
+            int[] t = ticks.computeIfAbsent(dock, k -> new int[2]);
+            t[0] = up ? t[0] + 1 : 0;
+            t[1] = down ? t[1] + 1 : 0;
+            if (t[0] >= UP_TICKS) {
+                dock.addRobot();
+                activations++;
+                t[0] = 0;
+            } else if (t[1] >= DOWN_TICKS && dock.removeRobot()) {
+                parkings++;
+                t[1] = 0;
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Gibt die Auslastung der Flotte zwischen den letzten beiden Pruefungen zurueck
+     *
+     * @return Anteil der Zeit in der die Roboter gefahren sind oder geladen haben
+     */
+    public synchronized double getUtilization() {
+        return utilization;
+    }
+
+    /**
+     * Gibt zurueck wie viele Roboter bei der letzten Pruefung im Mittel an jeder Node anstanden
+     *
+     * @return mittlere Warteschlangenlaenge
+     */
+    public synchronized double getQueueLength() {
+        return queueLength;
+    }
+
+    public synchronized long getActivations() {
+        return activations;
+    }
+
+    public synchronized long getParkings() {
+        return parkings;
+    }
+
+    /**
+     * Gibt die Laufzeit aller eingesetzten Roboter zusammen zurueck, als Mass fuer den Energieverbrauch
+     *
+     * @return Summe in Millisekunden
+     */
+    public synchronized long getRobotMillis() {
+        return robotMillis;
+    }
+
+    private static class FleetAutoscalerHolder {
+        private static final FleetAutoscaler INSTANCE = new FleetAutoscaler();
+    }
+}
@@ -0,0 +1,295 @@
+package warehousemanagement.navigation;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bestand einer {@link StorageNode} mit Reservierungen. Ein {@link Robot} reserviert Einheiten oder Platz bevor er
+ * losfaehrt und loest die Reservierung am Ziel ein, so kann ihm kein anderer Roboter die Waren oder den Platz
+ * wegnehmen.<br>
+ * Bestand, reservierte Einheiten und reservierter Platz liegen zusammen in einem {@code long} mit je
+ * {@link Inventory#BITS} Bit und werden mit einem einzigen compareAndSet geaendert, alle drei Werte sind also immer
+ * zueinander passend. Die Kapazitaet wird bei jedem Aufruf uebergeben, bei einer {@link DeliveryNode} haengt sie vom
+ * aktuellen {@link warehousemanagement.Shipment} ab.
+ */
+class Inventory {
+
+    private static final int BITS = 21;
+
+    private static final long MASK = (1L << BITS) - 1;
+
+    /**
+     * Hoechste Menge die gespeichert werden kann
+     */
+    static final int MAX_UNITS = (int) MASK;
+
+    /**
+     * Bestand im unteren, reservierte Einheiten im mittleren und reservierter Platz im oberen Drittel
+     */
+    private final AtomicLong state;
+
+    /**
+     * Wird nach jeder Aenderung des Bestands benachrichtigt
+     */
+    private final StorageNode owner;
+
+    private final AtomicLong reservations;
+
+    private final AtomicLong conflicts;
+
+    Inventory(StorageNode owner) {
+        this.owner = owner;
+        state = new AtomicLong();
+        reservations = new AtomicLong();
+        conflicts = new AtomicLong();
+    }
+
+    private static int amount(long s) {
+        return (int) (s & MASK);
+    }
+
+    private static int reservedUnits(long s) {
+        return (int) ((s >>> BITS) & MASK);
+    }
+
+    private static int reservedSpace(long s) {
+        return (int) (s >>> 2 * BITS);
+    }
+
+    private static long pack(int amount, int reservedUnits, int reservedSpace) {
+        return amount | (long) reservedUnits << BITS | (long) reservedSpace << 2 * BITS;
+    }
+
+    private static int free(long s, int capacity) {
+        return Math.max(0, capacity - amount(s) - reservedSpace(s));
+    }
+
+    int getAmount() {
+        return amount(state.get());
+    }
+
+    /**
+     * Gibt die Einheiten zurueck die im Lager sind und noch nicht reserviert wurden
+     *
+     * @return verfuegbare Einheiten
+     */
+    int getAvailable() {
+        long s = state.get();
+        return amount(s) - reservedUnits(s);
+    }
+
+    /**
+     * Gibt den Platz zurueck der weder belegt noch reserviert ist
+     *
+     * @param capacity Kapazitaet des Lagers
+     * @return freier Platz
+     */
+    int getFree(int capacity) {
+        return free(state.get(), capacity);
+    }
+
+    int getReservedUnits() {
+        return reservedUnits(state.get());
+    }
+
+    int getReservedSpace() {
+        return reservedSpace(state.get());
+    }
+
+    /**
+     * Gibt an ob weder Bestand noch Reservierungen vorhanden sind, alle drei Werte werden zusammen gelesen
+     *
+     * @return {@code true} wenn das Lager ungenutzt ist
+     */
+    boolean isUnused() {
+        return state.get() == 0;
+    }
+
+    /**
+     * Setzt den Bestand und verwirft alle Reservierungen, benachrichtigt nicht
+     *
+     * @param amount neuer Bestand
+     */
+    void set(int amount) {
+        if (amount < 0 || amount > MAX_UNITS) {
+            throw new RuntimeException("Ungültiger Lagerbestand");
+        }
+        state.set(pack(amount, 0, 0));
+    }
+
+    /**
+     * Reserviert bis zu {@code max} Einheiten
+     *
+     * @param max gewuenschte Einheiten
+     * @return reservierte Einheiten, weniger als {@code max} wenn nicht genug verfuegbar sind
+     */
+    int reserveUnits(int max) {
+        long s;
+        int n;
+        do {
+            s = state.get();
+            n = Math.min(max, amount(s) - reservedUnits(s));
+            if (n <= 0) {
+                n = 0;
+                break;
+            }
+        } while (!state.compareAndSet(s, pack(amount(s), reservedUnits(s) + n, reservedSpace(s))));
+        count(max, n);
+        return n;
+    }
+
+    /**
+     * Reserviert Platz fuer bis zu {@code max} Einheiten
+     *
+     * @param max      gewuenschter Platz
+     * @param capacity Kapazitaet des Lagers
+     * @return reservierter Platz, weniger als {@code max} wenn nicht genug frei ist
+     */
+    int reserveSpace(int max, int capacity) {
+        long s;
+        int n;
+        do {
+            s = state.get();
+            n = Math.min(max, free(s, capacity));
+            if (n <= 0) {
+                n = 0;
+                break;
+            }
+        } while (!state.compareAndSet(s, pack(amount(s), reservedUnits(s), reservedSpace(s) + n)));
+        count(max, n);
+        return n;
+    }
+
+    /**
+     * Gibt reservierte Einheiten wieder frei ohne sie zu entnehmen
+     *
+     * @param units Anzahl der Einheiten
+     * @throws RuntimeException wenn weniger Einheiten reserviert sind
+     */
+    void cancelUnits(int units) {
+        long s;
+        do {
+            s = state.get();
+            if (units > reservedUnits(s)) {
+                throw new RuntimeException("Reservierung nicht vorhanden");
+            }
+        } while (!state.compareAndSet(s, pack(amount(s), reservedUnits(s) - units, reservedSpace(s))));
+    }
+
+    /**
+     * Gibt reservierten Platz wieder frei ohne ihn zu belegen
+     *
+     * @param units Anzahl der Einheiten
+     * @throws RuntimeException wenn weniger Platz reserviert ist
+     */
+    void cancelSpace(int units) {
+        long s;
+        do {
+            s = state.get();
+            if (units > reservedSpace(s)) {
+                throw new RuntimeException("Reservierung nicht vorhanden");
+            }
+        } while (!state.compareAndSet(s, pack(amount(s), reservedUnits(s), reservedSpace(s) - units)));
+    }
+
+    /**
+     * Entnimmt reservierte Einheiten
+     *
+     * @param units Anzahl der reservierten Einheiten
+     * @throws RuntimeException wenn weniger Einheiten reserviert sind
+     */
+    void commitUnits(int units) {
+        long s;
+        do {
+            s = state.get();
+            if (units > reservedUnits(s)) {
+                throw new RuntimeException("Reservierung nicht vorhanden");
+            }
+        } while (!state.compareAndSet(s, pack(amount(s) - units, reservedUnits(s) - units, reservedSpace(s))));
+        owner.amountChanged(amount(s), amount(s) - units);
+    }
+
+    /**
+     * Belegt reservierten Platz mit Einheiten
+     *
+     * @param units Anzahl der Einheiten fuer die Platz reserviert ist
+     * @throws RuntimeException wenn weniger Platz reserviert ist
+     */
+    void commitSpace(int units) {
+        long s;
+        do {
+            s = state.get();
+            if (units > reservedSpace(s)) {
+                throw new RuntimeException("Reservierung nicht vorhanden");
+            }
+        } while (!state.compareAndSet(s, pack(amount(s) + units, reservedUnits(s), reservedSpace(s) - units)));
+        owner.amountChanged(amount(s), amount(s) + units);
+    }
+
+    /**
+     * Entnimmt Einheiten ohne Reservierung, reservierte Einheiten bleiben unangetastet
+     *
+     * @param min mindestens zu entnehmende Einheiten, sonst wird nichts entnommen
+     * @param max hoechstens zu entnehmende Einheiten
+     * @return entnommene Einheiten, {@code 0} wenn weniger als {@code min} verfuegbar sind
+     */
+    int remove(int min, int max) {
+        long s;
+        int n;
+        do {
+            s = state.get();
+            n = Math.min(max, amount(s) - reservedUnits(s));
+            if (n <= 0 || n < min) {
+                return 0;
+            }
+        } while (!state.compareAndSet(s, pack(amount(s) - n, reservedUnits(s), reservedSpace(s))));
+        owner.amountChanged(amount(s), amount(s) - n);
+        return n;
+    }
+
+    /**
+     * Legt Einheiten ohne Reservierung ein, reservierter Platz bleibt frei
+     *
+     * @param min      mindestens einzulegende Einheiten, sonst wird nichts eingelegt
+     * @param max      hoechstens einzulegende Einheiten
+     * @param capacity Kapazitaet des Lagers
+     * @return eingelegte Einheiten, {@code 0} wenn weniger als {@code min} Platz ist
+     */
+    int add(int min, int max, int capacity) {
+        long s;
+        int n;
+        do {
+            s = state.get();
+            n = Math.min(max, free(s, capacity));
+            if (n <= 0 || n < min) {
+                return 0;
+            }
+        } while (!state.compareAndSet(s, pack(amount(s) + n, reservedUnits(s), reservedSpace(s))));
+        owner.amountChanged(amount(s), amount(s) + n);
+        return n;
+    }
+
+    private void count(int requested, int reserved) {
+        reservations.incrementAndGet();
+        if (reserved < requested) {
+            conflicts.incrementAndGet();
+        }
+    }
+
+    long getReservations() {
+        return reservations.get();
+    }
+
+    /**
+     * Gibt zurueck wie oft eine Reservierung weniger bekommen hat als angefragt
+     *
+     * @return Anzahl der Konflikte
+     */
+    long getConflicts() {
+        return conflicts.get();
+    }
+
+    void resetStatistics() {
+        reservations.set(0);
+        conflicts.set(0);
+    }
+}
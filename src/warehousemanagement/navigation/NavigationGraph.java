@@ -0,0 +1,109 @@
+package warehousemanagement.navigation;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Verbindet die {@link Node}s der {@link warehousemanagement.Map} mit einem {@link CompactGraph}. Jede Node bekommt einen
+ * fortlaufenden Index, die Routenberechnung arbeitet nur mit dem {@link CompactGraph} und den Indizes, die Nodes werden
+ * erst fuer die fertige Route wieder benoetigt.
+ */
+public class NavigationGraph {
+
+    /**
+     * Alle Nodes des Graphen, die Position im Array ist der Index der Node
+     */
+    private final Node[] nodes;
+
+    /**
+     * Zuordnung von Node zu Index, die IDs der Nodes sind nur innerhalb einer Node-Art eindeutig und koennen deswegen nicht
+     * direkt als Index verwendet werden
+     */
+    private final IdentityHashMap<Node, Integer> indices;
+
+    /**
+     * Gibt fuer jeden Index an ob die Node eine {@link StorageNode} ist
+     */
+    private final boolean[] storage;
+
+    private final CompactGraph graph;
+
+    /**
+     * Erzeugt einen Graphen aus den gegebenen Nodes, Nachbarn die nicht in der Liste enthalten sind werden ignoriert
+     *
+     * @param nodes alle Nodes die in den Graphen aufgenommen werden sollen
+     */
+    public NavigationGraph(List<Node> nodes) {
+        this.nodes = nodes.toArray(new Node[0]);
+        indices = new IdentityHashMap<>();
+        storage = new boolean[this.nodes.length];
+
+        CompactGraph.Builder builder = new CompactGraph.Builder();
+        for (int i = 0; i < this.nodes.length; i++) {
+            Node node = this.nodes[i];
+            indices.put(node, i);
+            storage[i] = node instanceof StorageNode;
+            builder.addNode(node.getX() + node.getWidth() / 2.0, node.getY() + node.getHeight() / 2.0);
+        }
+        for (int i = 0; i < this.nodes.length; i++) {
+            for (Node n : this.nodes[i].getNeighbourNodes()) {
+                Integer index = indices.get(n);
+                if (index != null) {
+                    builder.addDirectedEdge(i, index);
+                }
+            }
+        }
+        graph = builder.build();
+    }
+
+    /**
+     * Gibt die Anzahl der Nodes im Graphen zurueck
+     *
+     * @return Anzahl der Nodes
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Gibt den Index der Node zurueck
+     *
+     * @param node die gesuchte Node
+     * @return Index der Node
+     * @throws RuntimeException wenn die Node nicht Teil des Graphen ist
+     */
+    public int indexOf(Node node) {
+        Integer index = indices.get(node);
+        if (index == null) {
+            throw new RuntimeException("Node ist nicht Teil des Graphen: " + node.getId());
+        }
+        return index;
+    }
+
+    /**
+     * Gibt an ob die Node Teil des Graphen ist
+     *
+     * @param node die gesuchte Node
+     * @return {@code true} wenn die Node einen Index hat
+     */
+    public boolean contains(Node node) {
+        return indices.containsKey(node);
+    }
+
+    public Node getNode(int index) {
+        return nodes[index];
+    }
+
+    public boolean isStorage(int index) {
+        return storage[index];
+    }
+
+    /**
+     * Gibt den {@link CompactGraph} mit den Verbindungen zwischen den Nodes zurueck
+     *
+     * @return Graph ueber die Indizes der Nodes
+     */
+    public CompactGraph getGraph() {
+        return graph;
+    }
+}
@@ -1,39 +1,41 @@
 package warehousemanagement.navigation;
 
-import javax.swing.*;
-import java.awt.*;
 import java.util.ArrayList;
 
 /**
- * Represäntiert einen Wegpunkt auf der Karte zu dem die Roboter fahren können und der mit anderen Wegpunkten verbunden ist
+ * Represäntiert einen Wegpunkt auf der Karte zu dem die Roboter fahren können und der mit anderen Wegpunkten verbunden ist.
+ * Die Node kennt nur ihre Position auf der Karte, gezeichnet wird sie von der {@link warehousemanagement.gui.MapView}.
  */
-public class Node extends JComponent {
+public class Node {
 
     /**
      * Eindeutige ID zum Vergleichen
      */
     private final int id;
 
-    /**
-     * Speichert während der Pfadberechnung den kürzesten Weg zu dieser Node
-     */
-    ArrayList<Node> shortestPath;
+    private final int x;
 
-    /**
-     * Speichert während der Pfadberechnung die Länge des gespeicherten kürzesten Weges
-     */
-    int distance;
+    private final int y;
+
+    private final int width;
+
+    private final int height;
 
     /**
      * Interner Wert der kontrolliert ob Roboter an der Node sind um die Node entsprechend zu zeichnen
      */
-    int robots;
+    private int robots;
 
     /**
      * Enthält alle Nodes mit denen diese Node verbunden ist
      */
     private final ArrayList<Node> neighbourNodes;
 
+    /**
+     * Art der Node, damit Roboter sie ohne Typpruefung unterscheiden koennen
+     */
+    private final NodeKind kind;
+
     /**
      * Erzeugt einen neue Node mit einer Position
      *
@@ -44,13 +46,22 @@ public class Node extends JComponent {
      * @param height grafische Höhe auf der Karte
      */
     public Node(int id, int x, int y, int width, int height) {
-        super();
-        setSize(width, height);
-        setLocation(x, y);
+        this(id, x, y, width, height, NodeKind.WAYPOINT);
+    }
+
+    /**
+     * Erzeugt eine Node einer bestimmten Art, fuer die Unterklassen
+     *
+     * @param kind Art der Node
+     */
+    Node(int id, int x, int y, int width, int height, NodeKind kind) {
+        this.kind = kind;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
         this.id = id;
         neighbourNodes = new ArrayList<>();
-        shortestPath = new ArrayList<>();
-        distance = Integer.MAX_VALUE;
         robots = 0;
     }
 
@@ -63,6 +74,15 @@ public class Node extends JComponent {
         neighbourNodes.add(n);
     }
 
+    /**
+     * Entfernt eine Node aus den Nachbarnodes dieser Node
+     *
+     * @param n die Node die nicht mehr Nachbar sein soll
+     */
+    public void removeNeighbour(Node n) {
+        neighbourNodes.removeIf(neighbour -> neighbour == n);
+    }
+
     public ArrayList<Node> getNeighbourNodes() {
         return neighbourNodes;
     }
@@ -71,6 +91,38 @@ public class Node extends JComponent {
         return id;
     }
 
+    public NodeKind getKind() {
+        return kind;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Berechnet die Luftlinie zwischen den Mittelpunkten dieser und der gegebenen Node
+     *
+     * @param n die andere Node
+     * @return Abstand in Pixeln
+     */
+    public double distanceTo(Node n) {
+        double dx = (getX() + getWidth() / 2.0) - (n.getX() + n.getWidth() / 2.0);
+        double dy = (getY() + getHeight() / 2.0) - (n.getY() + n.getHeight() / 2.0);
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
     synchronized void register() {
         robots++;
     }
@@ -79,12 +131,13 @@ public class Node extends JComponent {
         robots = robots > 0 ? robots - 1 : 0;
     }
 
-    @Override
-    public void paintComponent(Graphics g) {
-        if (robots > 0) {
-            g.setColor(Color.BLACK);
-            g.fillRect(0, 0, getWidth(), getHeight());
-        }
+    /**
+     * Gibt zurueck wie viele Roboter gerade auf der Node stehen
+     *
+     * @return Anzahl der Roboter
+     */
+    public synchronized int getPresentRobots() {
+        return robots;
     }
 
     @Override
@@ -0,0 +1,384 @@
+package warehousemanagement.navigation;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Vergibt eine feste Anzahl an Plaetzen (zum Beispiel die Ladeplaetze einer {@link StorageNode}) ohne Sperren. Ist
+ * kein Platz frei stellt sich der Anfragende in eine Warteschlange, ein frei werdender Platz wird immer an den ersten
+ * Wartenden uebergeben (FIFO). Gewartet wird entweder mit einem Rueckruf ({@link NodeAccessQueue#tryAcquire}), den
+ * die {@link Robot}s nutzen, oder blockierend mit Zeitlimit ({@link NodeAccessQueue#acquire}) ueber
+ * {@link LockSupport#park}.<br>
+ * Aufwecken geht nicht verloren: Nach jedem Einreihen und jeder Freigabe wird die Warteschlange erneut abgearbeitet.
+ * Da beides ueber atomare Operationen laeuft, sieht mindestens eine der beiden Seiten die andere.<br>
+ * Die Wartezeiten werden in einem Histogramm mit Zweierpotenzen als Grenzen gesammelt, die Zeit misst die Uhr die
+ * beim Erstellen angegeben wird.
+ */
+public class NodeAccessQueue {
+
+    private static final int WAITING = 0;
+
+    private static final int GRANTED = 1;
+
+    private static final int CANCELLED = 2;
+
+    private static final int RELEASED = 3;
+
+    /**
+     * Freie Plaetze, negativ wenn die Anzahl der Plaetze verringert wurde waehrend sie belegt waren
+     */
+    private final AtomicInteger permits;
+
+    private volatile int capacity;
+
+    private final ConcurrentLinkedQueue<Ticket> waiters;
+
+    private final LongSupplier clock;
+
+    private final AtomicInteger queued;
+
+    private final AtomicInteger maxQueued;
+
+    /**
+     * Summe der Zeit in der Plaetze belegt waren, fuer abgeschlossene Belegungen
+     */
+    private final AtomicLong occupiedTime;
+
+    /**
+     * Summe der Wartezeiten, fuer abgeschlossene Wartevorgaenge
+     */
+    private final AtomicLong waitTime;
+
+    private final AtomicLong grants;
+
+    private final AtomicLong waits;
+
+    private final AtomicLong cancellations;
+
+    /**
+     * Anzahl der Wartezeiten je Zweierpotenz, Index {@code i} zaehlt Wartezeiten kleiner {@code 2^i}
+     */
+    private final AtomicLongArray histogram;
+
+    private volatile long statisticsSince;
+
+    /**
+     * @param capacity Anzahl der Plaetze
+     * @param clock    Uhr fuer die Messwerte, zum Beispiel die Zeit der {@link warehousemanagement.simulation.Simulation}
+     */
+    public NodeAccessQueue(int capacity, LongSupplier clock) {
+        this.capacity = capacity;
+        this.clock = clock;
+        permits = new AtomicInteger(capacity);
+        waiters = new ConcurrentLinkedQueue<>();
+        queued = new AtomicInteger();
+        maxQueued = new AtomicInteger();
+        occupiedTime = new AtomicLong();
+        waitTime = new AtomicLong();
+        grants = new AtomicLong();
+        waits = new AtomicLong();
+        cancellations = new AtomicLong();
+        histogram = new AtomicLongArray(Long.SIZE + 1);
+        statisticsSince = clock.getAsLong();
+    }
+
+    /**
+     * Belegt einen Platz falls einer frei ist und niemand wartet, ansonsten wird eingereiht. Sobald der Platz
+     * uebergeben wurde wird {@code onGrant} auf dem freigebenden Thread aufgerufen.
+     *
+     * @param owner   der Anfragende, nur zur Information
+     * @param onGrant Rueckruf wenn der Platz spaeter uebergeben wird, nicht bei sofortiger Vergabe
+     * @return das Ticket, {@link Ticket#isGranted()} gibt an ob der Platz sofort vergeben wurde
+     */
+    public Ticket tryAcquire(Object owner, Runnable onGrant) {
+        Ticket ticket = new Ticket(owner, onGrant, clock.getAsLong());
+        if (waiters.isEmpty() && takePermit()) {
+            ticket.state.set(GRANTED);
+            ticket.granted = ticket.enqueued;
+            grants.incrementAndGet();
+            record(0);
+            return ticket;
+        }
+        waits.incrementAndGet();
+        maxQueued.accumulateAndGet(queued.incrementAndGet(), Math::max);
+        waiters.offer(ticket);
+        drain();
+        return ticket;
+    }
+
+    /**
+     * Belegt einen Platz und wartet dafuer hoechstens {@code timeout}, der Thread wird dabei geparkt
+     *
+     * @param owner   der Anfragende, nur zur Information
+     * @param timeout maximale Wartezeit
+     * @param unit    Einheit von {@code timeout}
+     * @return das Ticket mit dem der Platz freigegeben wird oder {@code null} wenn die Zeit abgelaufen ist
+     * @throws InterruptedException wenn der Thread beim Warten unterbrochen wurde, der Platz ist dann nicht belegt
+     */
+    public Ticket acquire(Object owner, long timeout, TimeUnit unit) throws InterruptedException {
+        Thread thread = Thread.currentThread();
+        Ticket ticket = tryAcquire(owner, () -> LockSupport.unpark(thread));
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!ticket.isGranted()) {
+            boolean interrupted = Thread.interrupted();
+            if (interrupted || deadline - System.nanoTime() <= 0) {
+                if (cancel(ticket)) {
+                    if (interrupted) {
+                        throw new InterruptedException();
+                    }
+                    return null;
+                }
+                //Der Platz wurde gleichzeitig uebergeben, er gehoert jetzt dem Anfragenden
+                if (interrupted) {
+                    thread.interrupt();
+                }
+                break;
+            }
+            LockSupport.parkNanos(this, deadline - System.nanoTime());
+        }
+        return ticket;
+    }
+
+    /**
+     * Gibt das Warten auf. Wurde der Platz schon uebergeben passiert nichts, er muss dann mit
+     * {@link NodeAccessQueue#release} freigegeben werden.
+     *
+     * @param ticket das wartende Ticket
+     * @return {@code true} wenn das Warten beendet wurde, {@code false} wenn der Platz schon uebergeben war
+     */
+    public boolean cancel(Ticket ticket) {
+        if (!ticket.state.compareAndSet(WAITING, CANCELLED)) {
+            return ticket.state.get() == CANCELLED;
+        }
+        queued.decrementAndGet();
+        cancellations.incrementAndGet();
+        waitTime.addAndGet(clock.getAsLong() - ticket.enqueued);
+        waiters.remove(ticket);
+        return true;
+    }
+
+    /**
+     * Gibt den Platz frei und uebergibt ihn an den ersten Wartenden
+     *
+     * @param ticket das Ticket mit dem der Platz belegt wurde
+     * @throws RuntimeException wenn das Ticket keinen Platz belegt
+     */
+    public void release(Ticket ticket) {
+        if (!ticket.state.compareAndSet(GRANTED, RELEASED)) {
+            throw new RuntimeException("Platz ist nicht belegt");
+        }
+        occupiedTime.addAndGet(clock.getAsLong() - ticket.granted);
+        permits.incrementAndGet();
+        drain();
+    }
+
+    /**
+     * Aendert die Anzahl der Plaetze, zusaetzliche Plaetze werden sofort an Wartende uebergeben
+     *
+     * @param capacity neue Anzahl der Plaetze
+     */
+    public synchronized void setCapacity(int capacity) {
+        permits.addAndGet(capacity - this.capacity);
+        this.capacity = capacity;
+        drain();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Vergibt freie Plaetze an die Wartenden bis einer von beiden ausgeht
+     */
+    private void drain() {
+        while (true) {
+            Ticket head = waiters.peek();
+            if (head == null) {
+                return;
+            }
+            if (head.state.get() != WAITING) {
+                waiters.remove(head);
+                continue;
+            }
+            if (!takePermit()) {
+                return;
+            }
+            Ticket next = waiters.poll();
+            if (next != null && next.state.compareAndSet(WAITING, GRANTED)) {
+                next.granted = clock.getAsLong();
+                queued.decrementAndGet();
+                grants.incrementAndGet();
+                waitTime.addAndGet(next.granted - next.enqueued);
+                record(next.granted - next.enqueued);
+                next.onGrant.run();
+            } else {
+                permits.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean takePermit() {
+        int p;
+        do {
+            p = permits.get();
+            if (p <= 0) {
+                return false;
+            }
+        } while (!permits.compareAndSet(p, p - 1));
+        return true;
+    }
+
+    private void record(long wait) {
+        histogram.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(Math.max(0, wait)));
+    }
+
+    /**
+     * Gibt die Anzahl der belegten oder an einen Wartenden uebergebenen Plaetze zurueck
+     *
+     * @return belegte Plaetze
+     */
+    public int getOccupied() {
+        return capacity - permits.get();
+    }
+
+    public int getQueueLength() {
+        return queued.get();
+    }
+
+    public int getMaxQueueLength() {
+        return maxQueued.get();
+    }
+
+    /**
+     * Gibt zurueck wie viele Plaetze seit {@link NodeAccessQueue#resetStatistics} im Mittel belegt waren, gezaehlt
+     * werden nur bereits freigegebene Belegungen
+     *
+     * @return mittlere Belegung
+     */
+    public double getAverageOccupancy() {
+        long elapsed = clock.getAsLong() - statisticsSince;
+        return elapsed <= 0 ? 0 : (double) occupiedTime.get() / elapsed;
+    }
+
+    /**
+     * Gibt zurueck wie viele Anfragende seit {@link NodeAccessQueue#resetStatistics} im Mittel gewartet haben,
+     * gezaehlt werden nur bereits beendete Wartevorgaenge
+     *
+     * @return mittlere Laenge der Warteschlange
+     */
+    public double getAverageQueueLength() {
+        long elapsed = clock.getAsLong() - statisticsSince;
+        return elapsed <= 0 ? 0 : (double) waitTime.get() / elapsed;
+    }
+
+    /**
+     * Gibt die Anzahl der vergebenen Plaetze zurueck, mit und ohne Warten
+     *
+     * @return Anzahl der Vergaben
+     */
+    public long getGrants() {
+        return grants.get();
+    }
+
+    /**
+     * Gibt zurueck wie oft sich ein Anfragender anstellen musste
+     *
+     * @return Anzahl der Wartevorgaenge
+     */
+    public long getWaits() {
+        return waits.get();
+    }
+
+    /**
+     * Gibt zurueck wie oft das Warten abgebrochen wurde, durch Zeitlimit oder {@link NodeAccessQueue#cancel}
+     *
+     * @return Anzahl der Abbrueche
+     */
+    public long getCancellations() {
+        return cancellations.get();
+    }
+
+    /**
+     * Gibt eine Obergrenze fuer das Quantil der Wartezeiten aller Vergaben zurueck, Vergaben ohne Warten zaehlen mit
+     * null. Die Genauigkeit ist eine Zweierpotenz.
+     *
+     * @param quantile zwischen 0 und 1, zum Beispiel 0.99
+     * @return Wartezeit in Einheiten der Uhr die hoechstens {@code quantile} der Vergaben erreicht haben
+     */
+    public long getWaitQuantile(double quantile) {
+        long total = 0;
+        for (int i = 0; i < histogram.length(); i++) {
+            total += histogram.get(i);
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < histogram.length(); i++) {
+            seen += histogram.get(i);
+            if (seen >= rank && seen > 0) {
+                return i == 0 ? 0 : i >= Long.SIZE - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Setzt alle Messwerte zurueck, die Messung beginnt ab der aktuellen Zeit der Uhr
+     */
+    public void resetStatistics() {
+        statisticsSince = clock.getAsLong();
+        maxQueued.set(queued.get());
+        occupiedTime.set(0);
+        waitTime.set(0);
+        grants.set(0);
+        waits.set(0);
+        cancellations.set(0);
+        for (int i = 0; i < histogram.length(); i++) {
+            histogram.set(i, 0);
+        }
+    }
+
+    /**
+     * Anfrage nach einem Platz, wird beim Freigeben wieder benoetigt
+     */
+    public static class Ticket {
+
+        private final Object owner;
+
+        private final Runnable onGrant;
+
+        private final AtomicInteger state;
+
+        private final long enqueued;
+
+        private volatile long granted;
+
+        private Ticket(Object owner, Runnable onGrant, long enqueued) {
+            this.owner = owner;
+            this.onGrant = onGrant;
+            this.enqueued = enqueued;
+            state = new AtomicInteger(WAITING);
+        }
+
+        public Object getOwner() {
+            return owner;
+        }
+
+        /**
+         * Gibt an ob der Platz vergeben und noch nicht freigegeben wurde
+         *
+         * @return {@code true} wenn das Ticket einen Platz belegt
+         */
+        public boolean isGranted() {
+            return state.get() == GRANTED;
+        }
+
+        public boolean isWaiting() {
+            return state.get() == WAITING;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package warehousemanagement.navigation;
+
+/**
+ * Art einer {@link Node}, wird beim Erzeugen festgelegt. So muessen die Roboter bei jedem Schritt nur das Feld lesen
+ * statt die Klasse der Node zu pruefen.
+ *
+ * @see Node#getKind
+ */
+public enum NodeKind {
+
+    /**
+     * Wegpunkt ohne Lager
+     */
+    WAYPOINT,
+
+    /**
+     * {@link StorageNode}
+     */
+    STORAGE,
+
+    /**
+     * {@link DeliveryNode}
+     */
+    DELIVERY
+}
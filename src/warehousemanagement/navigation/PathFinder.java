@@ -0,0 +1,262 @@
+package warehousemanagement.navigation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Kuerzeste-Wege-Suche auf einem {@link CompactGraph}, die Kosten einer Verbindung sind ihre Laenge auf der Karte.
+ * Mit Ziel wird A* mit der Luftlinie als Schaetzung verwendet, ohne Ziel Dijkstra.<br>
+ * Der Zustand einer Suche liegt nicht in den {@link Node}s sondern in Arrays die ueber den Index der Node adressiert
+ * werden, deswegen koennen beliebig viele Suchen gleichzeitig laufen.
+ * Eine Instanz wird mit {@link PathFinder#acquire()} aus einem {@link ScratchPool} geliehen und mit
+ * {@link PathFinder#close()} zurueckgegeben, am besten ueber try-with-resources. Die Arrays werden zwischen den Suchen
+ * wiederverwendet und nur ueber eine Generationsnummer als ungueltig markiert, eine Suche erzeugt also keinen Muell.
+ */
+public class PathFinder implements AutoCloseable {
+
+    /**
+     * Rueckgabewert von {@link PathFinder#search} wenn das Ziel nicht erreichbar ist
+     */
+    public static final int UNREACHABLE = -1;
+
+    private static final ScratchPool<PathFinder> POOL = new ScratchPool<>(PathFinder::new);
+
+    /**
+     * Abstand jeder Node zum Start, nur gueltig wenn {@code reached[i] == generation}
+     */
+    private int[] distance;
+
+    /**
+     * Abstand zum Start plus geschaetzter Abstand zum Ziel, danach wird der Heap sortiert
+     */
+    private int[] priority;
+
+    /**
+     * Vorgaenger jeder Node auf dem kuerzesten Weg vom Start, nur gueltig wenn {@code reached[i] == generation}
+     */
+    private int[] predecessor;
+
+    /**
+     * Generation in der die Node zuletzt erreicht wurde
+     */
+    private int[] reached;
+
+    /**
+     * Generation in der die Node zuletzt abgeschlossen wurde
+     */
+    private int[] settled;
+
+    /**
+     * Binaerer Min-Heap ueber die Indizes der offenen Nodes, sortiert nach {@link PathFinder#priority}
+     */
+    private int[] heap;
+
+    /**
+     * Position jeder offenen Node in {@link PathFinder#heap}
+     */
+    private int[] heapPosition;
+
+    private int heapSize;
+
+    /**
+     * Wird vor jeder Suche erhoeht, dadurch muessen die Arrays nicht jedes Mal zurueckgesetzt werden
+     */
+    private int generation;
+
+    private PathFinder() {
+        allocate(0);
+    }
+
+    /**
+     * Leiht einen PathFinder aus, er muss nach der Auswertung der Suche mit {@link PathFinder#close()} zurueckgegeben
+     * werden
+     *
+     * @return PathFinder der gerade von keinem anderen Thread verwendet wird
+     */
+    public static PathFinder acquire() {
+        return POOL.borrow();
+    }
+
+    /**
+     * Gibt den PathFinder zurueck, danach duerfen weder er noch die Ergebnisse seiner letzten Suche verwendet werden
+     */
+    @Override
+    public void close() {
+        POOL.release(this);
+    }
+
+    /**
+     * Berechnet die kuerzesten Wege von {@code source} aus. Mit Ziel wird die Suche ueber die Luftlinie zum Ziel
+     * gelenkt (A*) und bricht ab sobald {@code target} erreicht ist, mit {@code target < 0} wird der komplette Baum der
+     * kuerzesten Wege berechnet (Dijkstra).
+     *
+     * @param graph  Graph auf dem gesucht wird
+     * @param source Index der Startnode
+     * @param target Index der Zielnode oder ein negativer Wert
+     * @return Laenge des Weges zum Ziel in Pixeln, {@link PathFinder#UNREACHABLE} wenn das Ziel nicht erreichbar ist
+     */
+    public int search(CompactGraph graph, int source, int target) {
+        prepare(graph.size());
+        reached[source] = generation;
+        distance[source] = 0;
+        priority[source] = target < 0 ? 0 : graph.estimateDistance(source, target);
+        predecessor[source] = source;
+        push(source);
+
+        while (heapSize > 0) {
+            int current = poll();
+            settled[current] = generation;
+            if (current == target) {
+                return distance[current];
+            }
+            int sourceDistance = distance[current];
+            int end = graph.getEdgeEnd(current);
+            for (int edge = graph.getEdgeStart(current); edge < end; edge++) {
+                int n = graph.getEdgeTarget(edge);
+                if (settled[n] == generation) {
+                    continue;
+                }
+                int newDistance = sourceDistance + graph.getEdgeWeight(edge);
+                if (reached[n] != generation) {
+                    reached[n] = generation;
+                    distance[n] = newDistance;
+                    priority[n] = newDistance + (target < 0 ? 0 : graph.estimateDistance(n, target));
+                    predecessor[n] = current;
+                    push(n);
+                } else if (newDistance < distance[n]) {
+                    priority[n] -= distance[n] - newDistance;
+                    distance[n] = newDistance;
+                    predecessor[n] = current;
+                    siftUp(heapPosition[n]);
+                }
+            }
+        }
+        return target < 0 ? 0 : UNREACHABLE;
+    }
+
+    /**
+     * Schreibt den kuerzesten Weg von {@code source} nach {@code destination} in {@code path}, die Startnode ist nicht
+     * enthalten. Der Inhalt von {@code path} wird vorher geloescht.
+     *
+     * @param graph       Graph auf dem gesucht wird
+     * @param source      Node an der die Route beginnt
+     * @param destination Node an der die Route endet
+     * @param path        Liste in die die Route geschrieben wird
+     * @throws RuntimeException wenn es keinen Weg zwischen den Nodes gibt
+     */
+    public void findPath(NavigationGraph graph, Node source, Node destination, List<Node> path) {
+        int start = graph.indexOf(source);
+        int target = graph.indexOf(destination);
+        path.clear();
+        if (search(graph.getGraph(), start, target) == UNREACHABLE) {
+            throw new RuntimeException("Kein Weg zwischen " + source.getId() + " und " + destination.getId() + " gefunden");
+        }
+        for (int current = target; current != start; current = predecessor[current]) {
+            path.add(graph.getNode(current));
+        }
+        Collections.reverse(path);
+    }
+
+    /**
+     * Gibt zurueck ob die Node in der letzten Suche erreicht wurde
+     *
+     * @param index Index der Node
+     * @return {@code true} wenn es einen Weg vom Start zu der Node gibt
+     */
+    public boolean isReached(int index) {
+        return reached[index] == generation;
+    }
+
+    /**
+     * Gibt den Vorgaenger der Node auf dem kuerzesten Weg der letzten Suche zurueck
+     *
+     * @param index Index der Node
+     * @return Index des Vorgaengers, die Startnode ist ihr eigener Vorgaenger
+     */
+    public int getPredecessor(int index) {
+        return predecessor[index];
+    }
+
+    public int getDistance(int index) {
+        return distance[index];
+    }
+
+    private void prepare(int size) {
+        if (distance.length < size) {
+            allocate(size);
+        }
+        heapSize = 0;
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            Arrays.fill(settled, 0);
+            generation = 1;
+        }
+    }
+
+    private void allocate(int size) {
+        distance = new int[size];
+        priority = new int[size];
+        predecessor = new int[size];
+        reached = new int[size];
+        settled = new int[size];
+        heap = new int[size];
+        heapPosition = new int[size];
+        generation = 0;
+    }
+
+    private void push(int node) {
+        heap[heapSize] = node;
+        heapPosition[node] = heapSize;
+        heapSize++;
+        siftUp(heapSize - 1);
+    }
+
+    private int poll() {
+        int first = heap[0];
+        heapSize--;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapPosition[heap[0]] = 0;
+            siftDown(0);
+        }
+        return first;
+    }
+
+    private void siftUp(int position) {
+        int node = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (priority[heap[parent]] <= priority[node]) {
+                break;
+            }
+            heap[position] = heap[parent];
+            heapPosition[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = node;
+        heapPosition[node] = position;
+    }
+
+    private void siftDown(int position) {
+        int node = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && priority[heap[child + 1]] < priority[heap[child]]) {
+                child++;
+            }
+            if (priority[node] <= priority[heap[child]]) {
+                break;
+            }
+            heap[position] = heap[child];
+            heapPosition[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = node;
+        heapPosition[node] = position;
+    }
+}
@@ -0,0 +1,239 @@
+package warehousemanagement.navigation;
+
+import warehousemanagement.Map;
+import warehousemanagement.Shipment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Bringt die Waren fuer ausgehende {@link Shipment}s schon vor dem Einladen in ein Pufferlager nahe dem Tor. Bisher
+ * beginnt das Sammeln erst wenn eine {@link DeliveryNode} leer ist und auf Einladen wechselt, der LKW wartet also auf
+ * alle Fahrten durch das Lager. Der PreStager bekommt regelmaessig die Vorschau des
+ * {@link warehousemanagement.DockScheduler} und bereitet jedes ausgehende Shipment vor das angekuendigt ist oder an
+ * seinem Tor noch ausgeladen wird: die naechste {@link StorageNode} zum Tor die den Materialtyp aufnehmen kann wird
+ * Puffer, und Waren aus dem entferntesten anderen Lager werden als {@link TransportTask} ohne DeliveryNode dorthin
+ * gebracht. Solche Auftraege bekommen nur Roboter die sonst nichts zu tun haetten. Beim Einladen findet der
+ * {@link StorageIndex} dann den Puffer als naechstes Lager.<br>
+ * Vorbereitet wird nur wenn die Roboter zentral vergeben werden.
+ */
+public class PreStager {
+
+    /**
+     * Abstand in Sekunden in dem die Vorschau ausgewertet wird
+     */
+    public static final int PERIOD_SECONDS = 5;
+
+    /**
+     * Der Puffer muss hoechstens diesen Anteil der Entfernung des bisherigen Lagers haben damit sich die Fahrt lohnt
+     */
+    private static final double MIN_IMPROVEMENT = 0.8;
+
+    /**
+     * Vorbereitungen in der Reihenfolge in der die Shipments erstmals angekuendigt wurden
+     */
+    private final LinkedHashMap<Shipment, Staging> stagings;
+
+    private long stagedUnits;
+
+    private long completedStagings;
+
+    private PreStager() {
+        stagings = new LinkedHashMap<>();
+    }
+
+    public static PreStager getPreStager() {
+        return PreStagerHolder.INSTANCE;
+    }
+
+    /**
+     * Bereitet alle ausgehenden Shipments vor die noch nicht eingeladen werden und beendet die Vorbereitung der
+     * anderen. Ein noch offener Auftrag wird dabei zurueckgenommen, bereitgestellte Waren bleiben im Puffer.
+     *
+     * @param forecast voraussichtliches Tor jedes wartenden und angekuendigten Shipments
+     */
+    public synchronized void update(java.util.Map<Shipment, DeliveryNode> forecast) {
+        TransportDispatcher dispatcher = TransportDispatcher.getTransportDispatcher();
+        if (!dispatcher.isCentral()) {
+            return;
+        }
+        LinkedHashMap<Shipment, DeliveryNode> targets = new LinkedHashMap<>();
+        Map m = Map.getMap();
+        synchronized (m.deliveryNodes) {
+            for (DeliveryNode n : m.deliveryNodes) {
+                Shipment s = n.getCurrentShipment();
+                if (s != null && s.isOutbound() && n.isUnloading()) {
+                    targets.put(s, n);
+                }
+            }
+        }
+        for (java.util.Map.Entry<Shipment, DeliveryNode> e : forecast.entrySet()) {
+            if (e.getKey().isOutbound()) {
+                targets.putIfAbsent(e.getKey(), e.getValue());
+            }
+        }
+
+        for (Shipment s : new ArrayList<>(stagings.keySet())) {
+            Staging staging = stagings.get(s);
+            //Hat der Planer das Shipment einem anderen Tor zugeteilt wird neu vorbereitet
+            if (targets.get(s) != staging.dock) {
+                finish(s, staging);
+            }
+        }
+        for (java.util.Map.Entry<Shipment, DeliveryNode> e : targets.entrySet()) {
+            Staging staging = stagings.get(e.getKey());
+            if (staging == null || staging.task == null || !dispatcher.isOpen(staging.task)) {
+                stage(e.getKey(), e.getValue(), staging);
+            }
+        }
+    }
+
+    /**
+     * Waehlt den Puffer falls noch keiner gewaehlt ist und gibt einen Auftrag fuer die noch fehlenden Einheiten ab
+     */
+    private void stage(Shipment s, DeliveryNode dock, Staging staging) {
+        NavigationGraph graph = Map.getMap().getNavigationGraph();
+        if (!graph.contains(dock)) {
+            return;
+        }
+        int materialType = s.getMaterialTypeOutbound();
+        StorageNode buffer = staging != null ? staging.buffer : null;
+        int missing;
+        StorageNode source = null;
+        try (PathFinder pathFinder = PathFinder.acquire()) {
+            pathFinder.search(graph.getGraph(), graph.indexOf(dock), -1);
+            if (buffer == null) {
+                buffer = findBuffer(graph, pathFinder, materialType);
+                if (buffer == null) {
+                    return;
+                }
+            }
+            missing = s.getSize() - buffer.getAvailableAmount();
+            if (buffer.getMaterialType() == materialType && missing <= 0) {
+                return;
+            }
+
+            //Aus dem entferntesten Lager holen, dort ist der Weg beim Einladen am laengsten
+            long bufferDistance = pathFinder.getDistance(graph.indexOf(buffer));
+            long sourceDistance = -1;
+            for (StorageNode n : StorageIndex.getStorageIndex().getStorageNodes(materialType)) {
+                if (n == buffer || n.getAvailableAmount() <= 0 || !graph.contains(n)
+                        || !pathFinder.isReached(graph.indexOf(n))) {
+                    continue;
+                }
+                long d = pathFinder.getDistance(graph.indexOf(n));
+                if (d > sourceDistance) {
+                    source = n;
+                    sourceDistance = d;
+                }
+            }
+            if (source == null || bufferDistance >= sourceDistance * MIN_IMPROVEMENT) {
+                return;
+            }
+        }
+
+        boolean claimed = staging != null && staging.claimed;
+        if (buffer.getMaterialType() != materialType) {
+            buffer.setMaterialType(materialType);
+            claimed = true;
+        }
+        int units = Math.min(missing, Math.min(buffer.getFreeCapacity(), source.getAvailableAmount()));
+        TransportTask task = null;
+        if (units > 0) {
+            task = new TransportTask(null, materialType, source, buffer, units);
+            TransportDispatcher.getTransportDispatcher().submit(task);
+            stagedUnits += units;
+        }
+        stagings.put(s, new Staging(dock, buffer, task, claimed));
+    }
+
+    /**
+     * Sucht die naechste Lagerstelle zum Tor, entweder ein Lager des Materialtyps mit Platz oder ein ungenutztes
+     */
+    private static StorageNode findBuffer(NavigationGraph graph, PathFinder pathFinder, int materialType) {
+        Map m = Map.getMap();
+        List<StorageNode> storageNodes;
+        synchronized (m.storageNodes) {
+            storageNodes = new ArrayList<>(m.storageNodes);
+        }
+        StorageNode best = null;
+        long bestDistance = Long.MAX_VALUE;
+        for (StorageNode n : storageNodes) {
+            if (!graph.contains(n) || !pathFinder.isReached(graph.indexOf(n)) || n.isRetired()) {
+                continue;
+            }
+            boolean usable = n.getMaterialType() == materialType ? n.getFreeCapacity() > 0
+                    : n.getMaterialType() == 0 && n.isUnused();
+            long d = pathFinder.getDistance(graph.indexOf(n));
+            if (usable && d < bestDistance) {
+                best = n;
+                bestDistance = d;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Nimmt den offenen Auftrag zurueck und gibt einen eigens belegten Puffer wieder frei wenn er leer ist
+     */
+    private void finish(Shipment s, Staging staging) {
+        if (staging.task != null) {
+            TransportDispatcher.getTransportDispatcher().withdraw(staging.task);
+        }
+        if (staging.claimed && staging.buffer.isUnused()) {
+            staging.buffer.resetMaterialType();
+        }
+        stagings.remove(s);
+        completedStagings++;
+    }
+
+    /**
+     * Gibt die Einheiten zurueck die bisher in Puffer beauftragt wurden
+     *
+     * @return beauftragte Einheiten
+     */
+    public synchronized long getStagedUnits() {
+        return stagedUnits;
+    }
+
+    public synchronized int getActiveStagings() {
+        return stagings.size();
+    }
+
+    public synchronized long getCompletedStagings() {
+        return completedStagings;
+    }
+
+    /**
+     * Vorbereitung eines Shipments
+     */
+    private static class Staging {
+
+        final DeliveryNode dock;
+
+        final StorageNode buffer;
+
+        /**
+         * Zuletzt abgegebener Auftrag, {@code null} wenn nichts zu bewegen war
+         */
+        final TransportTask task;
+
+        /**
+         * Gibt an ob der Puffer erst fuer diese Vorbereitung den Materialtyp bekommen hat
+         */
+        final boolean claimed;
+
+        Staging(DeliveryNode dock, StorageNode buffer, TransportTask task, boolean claimed) {
+            this.dock = dock;
+            this.buffer = buffer;
+            this.task = task;
+            this.claimed = claimed;
+        }
+    }
+
+    private static class PreStagerHolder {
+        private static final PreStager INSTANCE = new PreStager();
+    }
+}
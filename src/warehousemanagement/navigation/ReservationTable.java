@@ -0,0 +1,192 @@
+package warehousemanagement.navigation;
+
+import warehousemanagement.simulation.Simulation;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Reservierungstabelle fuer Nodes in festen Zeitfenstern. Roboter tragen beim Planen einer Route ein wann sie an
+ * welcher Node sein werden, andere Roboter planen dann um diese Zeitfenster herum statt an der gleichen Node
+ * zusammenzustossen und dort zu warten.<br>
+ * Eine Node kann pro Zeitfenster von so vielen Robotern reserviert werden wie sie Plaetze hat, bei Wegpunkten ist das
+ * einer, bei {@link StorageNode}s die Anzahl der Ladeplaetze.
+ *
+ * @see CooperativePlanner
+ */
+public class ReservationTable {
+
+    /**
+     * Laenge eines Zeitfensters in Millisekunden
+     */
+    public static final long SLOT_MILLIS = 250;
+
+    /**
+     * Anzahl der Bits die im Schluessel fuer den Index der Node reserviert sind
+     */
+    private static final int NODE_BITS = 24;
+
+    /**
+     * Anzahl der Bits die im Schluessel fuer den Platz an der Node reserviert sind
+     */
+    private static final int LANE_BITS = 4;
+
+    /**
+     * Maximale Anzahl an Robotern die eine Node im gleichen Zeitfenster reservieren koennen
+     */
+    public static final int MAX_CAPACITY = 1 << LANE_BITS;
+
+    /**
+     * Belegte Zeitfenster, der Schluessel setzt sich aus Zeitfenster, Platz und Index der Node zusammen, der Wert ist der
+     * Besitzer
+     */
+    private final ConcurrentHashMap<Long, Object> reservations;
+
+    /**
+     * Zaehlt wie oft eine Reservierung fehlgeschlagen ist weil das Zeitfenster bereits belegt war
+     */
+    private final AtomicLong conflicts;
+
+    /**
+     * Plaetze je Node, wird bei jeder Reservierung abgefragt damit Aenderungen sofort gelten
+     */
+    private final IntUnaryOperator capacity;
+
+    /**
+     * Erstellt eine Tabelle in der jede Node einen Platz hat
+     */
+    public ReservationTable() {
+        this(node -> 1);
+    }
+
+    /**
+     * @param capacity Anzahl der Plaetze fuer den Index einer Node, wird auf {@link ReservationTable#MAX_CAPACITY}
+     *                 begrenzt
+     */
+    public ReservationTable(IntUnaryOperator capacity) {
+        this.capacity = capacity;
+        reservations = new ConcurrentHashMap<>();
+        conflicts = new AtomicLong();
+    }
+
+    /**
+     * Gibt das Zeitfenster zurueck in dem wir uns gerade befinden, gemessen an der Uhr der {@link Simulation}
+     *
+     * @return aktuelles Zeitfenster
+     */
+    public static long currentSlot() {
+        return Simulation.getSimulation().currentTimeMillis() / SLOT_MILLIS;
+    }
+
+    /**
+     * Gibt den Zeitpunkt zurueck an dem das Zeitfenster beginnt
+     *
+     * @param slot Zeitfenster
+     * @return Beginn des Zeitfensters in Millisekunden
+     */
+    public static long slotStart(long slot) {
+        return slot * SLOT_MILLIS;
+    }
+
+    /**
+     * Kontrolliert ob die Node im gegebenen Zeitfenster frei oder bereits vom {@code owner} reserviert ist
+     *
+     * @param node  Index der Node
+     * @param slot  Zeitfenster
+     * @param owner der anfragende Roboter
+     * @return {@code true} wenn der {@code owner} die Node in diesem Zeitfenster nutzen darf
+     */
+    public boolean isFree(int node, long slot, Object owner) {
+        int lanes = lanes(node);
+        for (int lane = 0; lane < lanes; lane++) {
+            Object current = reservations.get(key(node, lane, slot));
+            if (current == null || current == owner) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reserviert die Node fuer alle Zeitfenster von {@code from} bis einschliesslich {@code to}. Entweder werden alle
+     * Zeitfenster reserviert oder keines.
+     *
+     * @param node  Index der Node
+     * @param from  erstes Zeitfenster
+     * @param to    letztes Zeitfenster
+     * @param owner der reservierende Roboter
+     * @return {@code true} wenn die Reservierung erfolgreich war
+     */
+    public boolean reserve(int node, long from, long to, Object owner) {
+        int lanes = lanes(node);
+        for (long slot = from; slot <= to; slot++) {
+            if (!reserveLane(node, lanes, slot, owner)) {
+                conflicts.incrementAndGet();
+                release(node, from, slot - 1, owner);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reserviert einen beliebigen freien Platz, hat der {@code owner} schon einen reicht das
+     */
+    private boolean reserveLane(int node, int lanes, long slot, Object owner) {
+        for (int lane = 0; lane < lanes; lane++) {
+            if (reservations.get(key(node, lane, slot)) == owner) {
+                return true;
+            }
+        }
+        for (int lane = 0; lane < lanes; lane++) {
+            Object previous = reservations.putIfAbsent(key(node, lane, slot), owner);
+            if (previous == null || previous == owner) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gibt alle Zeitfenster von {@code from} bis einschliesslich {@code to} frei die dem {@code owner} gehoeren
+     *
+     * @param node  Index der Node
+     * @param from  erstes Zeitfenster
+     * @param to    letztes Zeitfenster
+     * @param owner der Roboter dem die Reservierung gehoert
+     */
+    public void release(int node, long from, long to, Object owner) {
+        for (long slot = from; slot <= to; slot++) {
+            for (int lane = 0; lane < MAX_CAPACITY; lane++) {
+                reservations.remove(key(node, lane, slot), owner);
+            }
+        }
+    }
+
+    /**
+     * Gibt die Anzahl der aktuell belegten Zeitfenster zurueck
+     *
+     * @return Anzahl der Reservierungen
+     */
+    public int size() {
+        return reservations.size();
+    }
+
+    /**
+     * Gibt zurueck wie oft eine Reservierung an einem bereits belegten Zeitfenster gescheitert ist
+     *
+     * @return Anzahl der Konflikte
+     */
+    public long getConflicts() {
+        return conflicts.get();
+    }
+
+    private int lanes(int node) {
+        return Math.max(1, Math.min(MAX_CAPACITY, capacity.applyAsInt(node)));
+    }
+
+    private static long key(int node, int lane, long slot) {
+        return (slot << (NODE_BITS + LANE_BITS)) | ((long) lane << NODE_BITS) | node;
+    }
+}
@@ -2,10 +2,12 @@ package warehousemanagement.navigation;
 
 import warehousemanagement.DataConnection;
 import warehousemanagement.Map;
+import warehousemanagement.simulation.Simulation;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Ein Roboter ist eine eigenständige Einheit, die Waren zwischen den {@link Node}s transportiert.
@@ -13,61 +15,171 @@ import java.util.Set;
 class Robot implements Runnable {
 
     /**
-     * Die {@link Node}s die der Roboter als nächstes abfahren muss (von 0 beginnend)
+     * Fahrzeit pro Pixel Weglaenge in Millisekunden
      */
-    private ArrayList<Node> graph;
+    static final long MOVE_MILLIS_PER_PIXEL = 3;
+
+    /**
+     * Dauer eines Be- oder Entladevorgangs in Millisekunden
+     */
+    static final long LOAD_MILLIS = 1000;
+
+    /**
+     * Wie viele Einheiten ein Roboter auf einmal transportieren kann, einstellbar ueber die System-Property
+     * {@code warehouse.robots.capacity}
+     */
+    static final int CAPACITY = Math.max(1, Integer.getInteger("warehouse.robots.capacity", 10));
+
+    /**
+     * Rueckgabewert von {@link Robot#step}, der Roboter wartet bis er mit {@link Robot#wakeUp} geweckt wird
+     */
+    static final long WAITING = -1;
+
+    /**
+     * Rueckgabewert von {@link Robot#step}, der Roboter ist abgeschaltet
+     */
+    static final long FINISHED = -2;
+
+    /**
+     * Die {@link Node}s die der Roboter als nächstes abfahren muss
+     */
+    private final RoutePlan route;
 
     /**
      * Die {@link DeliveryNode} für die der Roboter arbeitet
      */
     private final DeliveryNode home;
 
+    /**
+     * Die {@link DeliveryNode} für die der Roboter gerade arbeitet
+     */
+    private DeliveryNode target;
+
+    /**
+     * Der Auftrag dessen Ladung der Roboter gerade bewegt, nur wenn die Arbeit zentral vergeben wird
+     *
+     * @see TransportDispatcher
+     */
+    private TransportTask task;
+
+    /**
+     * Einheiten des {@link Robot#task}s die der Roboter noch nicht abgeladen hat
+     */
+    private int taskUnits;
+
+    private final Simulation simulation;
+
+    /**
+     * Ob die Arbeit zentral vom {@link TransportDispatcher} vergeben wird, aendert sich zur Laufzeit nicht
+     */
+    private final boolean central;
+
+    /**
+     * Abschluss der laufenden Fahrt oder des laufenden Ladevorgangs, wird beim naechsten {@link Robot#step} ausgefuehrt
+     */
+    private Runnable pending;
+
+    /**
+     * Die {@link StorageNode} an der der Roboter sich angestellt hat, bis er dort einen Ladeplatz bekommt
+     */
+    private StorageNode queuedAt;
+
+    /**
+     * Die {@link StorageNode} an der der Roboter gerade einen Ladeplatz belegt
+     */
+    private StorageNode occupying;
+
+    /**
+     * Gibt im ereignisgesteuerten Betrieb an ob der Roboter auf {@link Robot#wakeUp} wartet
+     */
+    private boolean waiting;
+
     /**
      * Die {@link Node} auf der der Roboter sich aktuell befindet
      */
-    private Node currentNode;
+    private volatile Node currentNode;
 
     /**
-     * Speichert was der Roboter aktuell in seinem Inventar hat: 0 = nichts, größer 0 = irgendein Warentyp
+     * Behaelter mit den Waren die der Roboter gerade transportiert, fasst {@link Robot#CAPACITY} Einheiten
      *
      * @see DataConnection#getMaterialTypes
      */
-    private int inventoryMaterialType;
+    private final Tote tote;
+
+    /**
+     * Die {@link StorageNode}s die der Roboter auf seiner aktuellen Sammeltour noch anfahren muss
+     *
+     * @see TourPlanner
+     */
+    private final ArrayDeque<StorageNode> tour;
+
+    /**
+     * Wie viele Einheiten der Roboter auf der aktuellen Sammeltour insgesamt aufnehmen soll
+     */
+    private int tourUnits;
+
+    /**
+     * Die Waren die der Roboter an den {@link StorageNode}s reserviert hat, an denen er sie als naechstes abholt
+     *
+     * @see StorageNode#reserveUnits
+     */
+    private final HashMap<StorageNode, Integer> reservedUnits;
 
     /**
-     * Speichert die Menge an Materialien die der Roboter im Inventar hat
+     * Die {@link StorageNode} an der der Roboter Platz fuer seine Ladung reserviert hat
+     *
+     * @see StorageNode#reserveSpace
      */
-    private int inventoryAmount;
+    private StorageNode spaceAt;
+
+    private int reservedSpace;
 
     /**
      * Kontroll-Flag um den Roboter als abzuschalten zu markieren
      */
-    private boolean terminated;
+    private volatile boolean terminated;
+
+    /**
+     * Schuetzt {@link Robot#wakeUpPending}, statt {@code synchronized} damit wartende virtuelle Threads ihren Traeger-Thread
+     * freigeben
+     */
+    private final ReentrantLock wakeUpLock;
+
+    private final Condition wakeUpCondition;
+
+    /**
+     * Merkt sich ein Aufwecken das vor dem Warten ankommt, damit es nicht verloren geht
+     */
+    private boolean wakeUpPending;
+
+    /**
+     * Zeitpunkt des letzten Aufweckens in Nanosekunden
+     */
+    private long wakeUpSignalled;
 
     /**
      * Initialisiert einen neuen Roboter an der gegebenen {@link DeliveryNode}. Jeder Roboter hat einen eigenen Thread und arbeitet deswegen völlig
-     * unabhängig. Die Threads sind {@code isDaemon() = true} und werden terminiert wenn der main-Thread terminiert wird.
+     * unabhängig. Auf welchen Threads die Roboter laufen legt die {@link RobotExecution} fest, die Threads sind
+     * {@code isDaemon() = true} und werden terminiert wenn der main-Thread terminiert wird. Im ereignisgesteuerten
+     * Betrieb der {@link Simulation} laufen alle Roboter auf dem Thread der Simulation.
      *
      * @param home  {@link DeliveryNode} an der der Roboter arbeitet
      */
     Robot(DeliveryNode home) {
-        graph = new ArrayList<>();
+        route = new RoutePlan(this);
         this.home = home;
+        target = home;
+        target.addWorker();
+        simulation = Simulation.getSimulation();
+        central = TransportDispatcher.getTransportDispatcher().isCentral();
         currentNode = home;
-        inventoryMaterialType = 0;
-        inventoryAmount = 0;
+        tote = new Tote(CAPACITY);
+        tour = new ArrayDeque<>();
+        reservedUnits = new HashMap<>();
         terminated = false;
-        Thread thread = new Thread(this, "Roboter");
-        thread.start();
-    }
-
-    /**
-     * Zum überpruefen ob der Roboter noch {@link Node}s hat die er abarbeiten muss
-     *
-     * @return ob der Roboter noch {@link Node}s hat die er abarbeiten muss
-     */
-    private boolean hasNextNode() {
-        return graph.size() != 0;
+        wakeUpLock = new ReentrantLock();
+        wakeUpCondition = wakeUpLock.newCondition();
+        RobotExecution.getRobotExecution().start(this);
     }
 
     /**
@@ -79,155 +191,349 @@ class Robot implements Runnable {
         return home;
     }
 
+    /**
+     * Lässt den {@link TaskPrioritizer} entscheiden für welche {@link DeliveryNode} der Roboter als nächstes arbeitet,
+     * darf nur mit leerem Inventar aufgerufen werden
+     */
+    private void selectTarget() {
+        DeliveryNode next = TaskPrioritizer.getTaskPrioritizer().select(getCurrentNode(), target, home);
+        if (next != target) {
+            target.removeWorker();
+            next.addWorker();
+            target = next;
+        }
+    }
+
     private Node getCurrentNode() {
         return currentNode;
     }
 
+    /**
+     * Gibt die {@link Node} zurueck an der der Roboter steht, fuer die Vergabe von Auftraegen
+     *
+     * @return aktuelle Node
+     */
+    Node getPosition() {
+        return currentNode;
+    }
+
+    DeliveryNode getHome() {
+        return home;
+    }
+
     private Node getNextNode() {
-        return graph.get(0);
+        return route.peek();
     }
 
     /**
-     * Bewegt den Roboter zur nächsten {@link Node} die auf dem Graph gegeben ist, der Vorgang sperrt den Roboter für eine Sekunde.
+     * Bewegt den Roboter zur nächsten {@link Node} die auf dem Graph gegeben ist, der Vorgang dauert proportional zur
+     * Länge der Verbindung. Hat die Route einen Zeitplan wartet der Roboter zusätzlich bis zu dem Zeitfenster das er an
+     * der nächsten Node reserviert hat.
      *
-     * @see Robot#lock
+     * @return Dauer der Fahrt in Millisekunden
+     * @see Robot#MOVE_MILLIS_PER_PIXEL
      */
-    private void move() {
-        lock(500);
-        currentNode.unregister();
-        currentNode = getNextNode();
-        currentNode.register();
-        graph.remove(0);
+    private long move() {
+        long timeout = Math.round(currentNode.distanceTo(getNextNode()) * MOVE_MILLIS_PER_PIXEL);
+        long arrival = route.peekArrival();
+        if (arrival >= 0) {
+            timeout = Math.max(timeout, ReservationTable.slotStart(arrival) - simulation.currentTimeMillis());
+        }
+        pending = () -> {
+            currentNode.unregister();
+            currentNode = route.next();
+            currentNode.register();
+        };
+        return timeout;
     }
 
     /**
-     * Greift auf die {@link Robot#currentNode} zu und lädt ein oder aus beziehungsweise wartet wenn die Node aktuell belegt ist.<br>
-     * Muss auf einer {@link StorageNode} ausgefuehrt werden
-     * <ul>
-     * <li>Wenn der Roboter Ladung in seinem Inventar hat, versucht er seine Waren in die {@link StorageNode} abzuladen</li>
-     * <li>Wenn der Roboter keine Ladung hat versucht er Waren aus der {@link StorageNode} zu laden</li>
-     * </ul>
-     * Der Vorgang dauert eine Sekunde und sperrt die {@link Robot#currentNode}
+     * Greift auf die {@link Robot#currentNode} zu und nimmt bis zu {@code max} Einheiten in den {@link Tote} auf
+     * beziehungsweise wartet wenn die Node aktuell belegt ist. Hat der Roboter an der Node Waren reserviert nimmt er
+     * genau diese, ansonsten nimmt er was nicht reserviert ist.<br>
+     * Muss auf einer {@link StorageNode} ausgefuehrt werden, der Vorgang dauert unabhaengig von der Menge eine Sekunde
+     * und sperrt die {@link Robot#currentNode}
      *
-     * @see Robot#lock
-     * @see StorageNode#loadItems
-     * @see StorageNode#unloadItems
-     */
-    private void load() {
-        /*
-         * Versuchen auf die Node zuzugreifen und wenn sie belegt ist, warten bis man benachrichtigt wird und wieder
-         * versuchen darauf zuzugreifen
-         */
+     * @param max wie viele Einheiten der Roboter hoechstens aufnimmt, begrenzt durch den freien Platz im {@link Tote}
+     * @return Dauer des Ladevorgangs in Millisekunden oder {@link Robot#WAITING} wenn die Node belegt ist
+     * @see StorageNode#unloadUpTo
+     */
+    private long pick(int max) {
+        //Ist die Node belegt stellt sich der Roboter an und wird von ihr geweckt sobald er es erneut versuchen kann
         StorageNode current = (StorageNode) getCurrentNode();
-        while (!current.accessNode(this)) {
-            try {
-                synchronized (this) {
-                    wait();
+        if (!current.accessNode(this)) {
+            queuedAt = current;
+            return WAITING;
+        }
+        occupying = current;
+
+        pending = () -> {
+            //Der Materialtyp wird vorher gelesen, eine leere DeliveryNode setzt ihn beim Ausladen zurueck
+            int materialType = current.getMaterialType();
+            Integer reserved = reservedUnits.remove(current);
+            if (reserved != null) {
+                int units = Math.min(reserved, tote.getFree());
+                tote.add(materialType, current.commitUnits(units));
+                current.cancelUnits(reserved - units);
+            } else {
+                tote.add(materialType, current.unloadUpTo(Math.min(max, tote.getFree())));
+            }
+            occupying = null;
+            current.leaveNode(this);
+        };
+        return LOAD_MILLIS;
+    }
+
+    /**
+     * Greift auf die {@link Robot#currentNode} zu und gibt so viele Einheiten ihres Materialtyps aus dem {@link Tote} ab
+     * wie in die Node passen beziehungsweise wartet wenn die Node aktuell belegt ist. Zuerst wird der reservierte Platz
+     * belegt, dann so viel freier Platz wie vorhanden. Der Rest bleibt im {@link Tote}.<br>
+     * Muss auf einer {@link StorageNode} ausgefuehrt werden, der Vorgang dauert unabhaengig von der Menge eine Sekunde
+     * und sperrt die {@link Robot#currentNode}
+     *
+     * @return Dauer des Ladevorgangs in Millisekunden oder {@link Robot#WAITING} wenn die Node belegt ist
+     * @see StorageNode#loadUpTo
+     */
+    private long drop() {
+        StorageNode current = (StorageNode) getCurrentNode();
+        if (!current.accessNode(this)) {
+            queuedAt = current;
+            return WAITING;
+        }
+        occupying = current;
+
+        pending = () -> {
+            int materialType = current.getMaterialType();
+            int units = 0;
+            if (spaceAt == current) {
+                units = Math.min(reservedSpace, tote.getAmount(materialType));
+                current.commitSpace(materialType, units);
+                current.cancelSpace(reservedSpace - units);
+                spaceAt = null;
+                reservedSpace = 0;
+            }
+            //Hat der reservierte Platz alles aufgenommen bleibt die Node unberuehrt, eine DeliveryNode wechselt nach dem
+            //letzten Teil ihres Shipments schon zum naechsten LKW und nimmt dann nichts mehr an
+            if (tote.getAmount(materialType) > units) {
+                units += current.loadUpTo(materialType, tote.getAmount(materialType) - units);
+            }
+            tote.remove(materialType, units);
+            if (task != null && units > 0) {
+                TransportDispatcher.getTransportDispatcher().completed(task, units);
+                taskUnits -= units;
+                if (taskUnits == 0) {
+                    task = null;
                 }
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-                Thread.currentThread().interrupt();
             }
+            occupying = null;
+            current.leaveNode(this);
+        };
+        return LOAD_MILLIS;
+    }
+
+    /**
+     * Plant eine Sammeltour ueber die {@link StorageNode}s die Waren fuer die {@link DeliveryNode} haben. Vor der
+     * Abfahrt reserviert der Roboter den Platz an der DeliveryNode und die Waren an jedem Stopp, ist an der DeliveryNode
+     * kein Platz mehr frei wartet er. Hat kein Lager Bestand, faehrt der Roboter ohne Reservierung zum ersten Lager mit
+     * dem Materialtyp und versucht es dort jede Sekunde erneut.
+     *
+     * @param dock         die DeliveryNode an der die Tour endet
+     * @param materialType Materialtyp der gesammelt wird
+     * @param units        Anzahl der Einheiten die gesammelt werden sollen
+     * @return Dauer der begonnenen Aktion in Millisekunden oder {@link Robot#WAITING}
+     * @see TourPlanner#planPicks
+     */
+    private long startTour(DeliveryNode dock, int materialType, int units) {
+        if (spaceAt != dock) {
+            cancelSpace();
+            reservedSpace = dock.reserveSpaceOrWait(this, Math.min(units, tote.getFree()));
+            if (reservedSpace == 0) {
+                return WAITING;
+            }
+            spaceAt = dock;
+        }
+        tourUnits = reservedSpace;
+        int picks = 0;
+        for (StorageNode stop : TourPlanner.planPicks(getCurrentNode(), dock, materialType, tourUnits)) {
+            int reserved = stop.reserveUnits(tourUnits - picks);
+            if (reserved > 0) {
+                tour.add(stop);
+                reservedUnits.put(stop, reserved);
+                picks += reserved;
+            }
+        }
+        if (tour.isEmpty()) {
+            cancelSpace();
+            tour.add(storageFor(StorageIndex.getStorageIndex().findPick(getCurrentNode(), materialType, tourUnits)));
+        } else if (picks < tourUnits) {
+            //Nicht benoetigten Platz sofort freigeben, andere Roboter koennen dafuer sammeln
+            dock.cancelSpace(tourUnits - picks);
+            reservedSpace = picks;
+            tourUnits = picks;
+        }
+        return continueTour();
+    }
+
+    /**
+     * Reserviert Waren an einer {@link DeliveryNode} die ausgeladen wird und faehrt hin beziehungsweise nimmt sie auf.
+     * Sind alle Waren schon reserviert wartet der Roboter.
+     *
+     * @param dock die DeliveryNode
+     * @return Dauer der begonnenen Aktion in Millisekunden oder {@link Robot#WAITING}
+     */
+    private long collectFrom(DeliveryNode dock) {
+        if (!reservedUnits.containsKey(dock)) {
+            int units = dock.reserveUnitsOrWait(this, tote.getFree());
+            if (units == 0) {
+                return WAITING;
+            }
+            reservedUnits.put(dock, units);
         }
+        if (getCurrentNode() == dock) {
+            return pick(CAPACITY);
+        }
+        navigateTo(dock);
+        return 0;
+    }
 
-        lock(1000);
+    /**
+     * Waehlt das Lager fuer den Materialtyp der zuerst im {@link Tote} liegt, ein Lager an dem der Roboter schon Platz
+     * reserviert hat wird beibehalten
+     *
+     * @return das Lager
+     * @see StorageIndex#findPutAway
+     */
+    private StorageNode putAway() {
+        int materialType = tote.getMaterialType();
+        if (spaceAt != null && spaceAt.getMaterialType() == materialType && spaceAt.getKind() == NodeKind.STORAGE) {
+            return spaceAt;
+        }
+        return storageFor(StorageIndex.getStorageIndex().findPutAway(getCurrentNode(), materialType,
+                tote.getAmount(materialType)));
+    }
 
-        if (inventoryMaterialType == 0) {
-            inventoryMaterialType = current.getMaterialType();
-            current.unloadItems(1);
-            inventoryAmount = 1;
-        } else {
-            current.loadItems(inventoryMaterialType, inventoryAmount);
-            inventoryMaterialType = 0;
-            inventoryAmount = 0;
+    /**
+     * @param storage vom {@link StorageIndex} gewaehltes Lager
+     * @return das Lager
+     * @throws RuntimeException wenn es kein Lager fuer den Materialtyp gibt
+     */
+    private static StorageNode storageFor(StorageNode storage) {
+        if (storage == null) {
+            throw new RuntimeException("Keine Lagereinheit mit benötigtem Material-Typ gefunden");
         }
-        current.leaveNode();
+        return storage;
     }
 
     /**
-     * Damit der Roboter sich von einer Node zu einer anderen bewegen kann bietet diese Methode
-     * eine Implementierung des Dijkstra-Algorithmuses zur Berechnung des kürzesten Weges von
-     * der {@link Robot#currentNode} zur {@code destination} Node.<br>
-     * Nach Berechnung wird das Ergebnis in {@link Robot#graph} gespeichert.
+     * Reserviert Platz fuer die Ladung an der Node zu der der Roboter sie bringt, eine Reservierung an einer anderen
+     * Node wird freigegeben
      *
-     * @param destination Die Node zu der der Roboter sich bewegen will
-     * @see Robot#getLowestDistanceNode
-     * @see Robot#calculateMinimumDistance
+     * @param destination Ziel der Ladung
+     * @param units       Anzahl der Einheiten
+     * @return reservierter Platz, kann kleiner als {@code units} sein
      */
-    private void navigateTo(Node destination) {
-        Map m = Map.getMap();
-        synchronized (m.nodeLock) {
-            Node source = getCurrentNode();
-
-            //Zuerst erzeugen wir ein Set mit allen Nodes
-            Set<Node> nodes = new HashSet<>();
-            nodes.addAll(m.wayPointNodes);
-            nodes.addAll(m.storageNodes);
-            nodes.addAll(m.deliveryNodes);
-
-            //der abstand zum Ziel ist immer null
-            source.distance = 0;
-
-            //jetzt haben wir nodes die fertig sind
-            Set<Node> settledNodes = new HashSet<>();
-            //und nodes die noch gemacht werden müssen
-            Set<Node> unsettledNodes = new HashSet<>();
-
-            //als erstes kümmern wir uns um die startnode
-            unsettledNodes.add(source);
-
-            //solange wir Nodes haben die gemacht werden müssen arbeiten wir
-            while (unsettledNodes.size() != 0) {
-                //die aktuelle Node ist die nähste in den unsettled nodes
-                Node currentNode = getLowestDistanceNode(unsettledNodes);
-                //wir bearbeiten sie jetzt also können wir sie entferenen
-                unsettledNodes.remove(currentNode);
-                //jetzt gehen wir alle benachbarten Nodes durch
-                for (int i = 0; i < currentNode.getNeighbourNodes().size(); i++) {
-                    Node n = currentNode.getNeighbourNodes().get(i);
-                    //wenn sie nicht schon bearbeitet wurden
-                    if (!settledNodes.contains(n)) {
-                        //errechnen wir die minimale distanz
-                        calculateMinimumDistance(n, currentNode);
-                        //und fügen sie den unfertigen hinzu
-                        unsettledNodes.add(n);
-                    }
-                }
-                //jetzt ist die currentNode abgearbeitet und wir können mit der nächsten fortfahren
-                settledNodes.add(currentNode);
-            }
+    private int reserveSpace(StorageNode destination, int units) {
+        if (spaceAt != destination) {
+            cancelSpace();
+            reservedSpace = destination.reserveSpace(units);
+            spaceAt = reservedSpace > 0 ? destination : null;
+        }
+        return reservedSpace;
+    }
+
+    private void cancelSpace() {
+        if (spaceAt != null) {
+            spaceAt.cancelSpace(reservedSpace);
+            spaceAt = null;
+            reservedSpace = 0;
+        }
+    }
 
-            this.graph = destination.shortestPath;
-            graph.add(destination);
+    /**
+     * Gibt alle Reservierungen des Roboters frei
+     */
+    private void cancelReservations() {
+        cancelSpace();
+        reservedUnits.forEach(StorageNode::cancelUnits);
+        reservedUnits.clear();
+    }
 
-            //Alle Werte zurücksetzen
-            for (Node n : nodes) {
-                n.distance = Integer.MAX_VALUE;
-                n.shortestPath = new ArrayList<>();
+    /**
+     * Faehrt den naechsten Stopp der Sammeltour an oder nimmt dort Waren auf
+     *
+     * @return Dauer der begonnenen Aktion in Millisekunden oder {@link Robot#WAITING}
+     */
+    private long continueTour() {
+        StorageNode stop = tour.peek();
+        if (getCurrentNode() != stop) {
+            navigateTo(stop);
+            return 0;
+        }
+        long duration = pick(tourUnits - tote.getTotal());
+        if (duration != WAITING) {
+            tour.poll();
+        }
+        return duration;
+    }
+
+    /**
+     * Weckt den Roboter auf wenn er in {@link Robot#pick} oder {@link Robot#drop} auf eine {@link StorageNode} wartet, ansonsten kehrt sein
+     * naechstes Warten sofort zurueck. Im ereignisgesteuerten Betrieb wird der naechste Schritt sofort geplant.
+     */
+    void wakeUp() {
+        wakeUpLock.lock();
+        try {
+            if (simulation.isEventDriven() && waiting) {
+                waiting = false;
+                simulation.schedule(0, this::runStep);
+            } else {
+                wakeUpPending = true;
+                wakeUpSignalled = System.nanoTime();
+                wakeUpCondition.signal();
             }
+        } finally {
+            wakeUpLock.unlock();
         }
     }
 
-    private Node getLowestDistanceNode(Set<Node> unsettledNodes) {
-        Node lowestDistanceNode = null;
-        int lowestDistance = Integer.MAX_VALUE;
-        for (Node node : unsettledNodes) {
-            int nodeDistance = node.distance;
-            if (nodeDistance < lowestDistance) {
-                lowestDistance = nodeDistance;
-                lowestDistanceNode = node;
+    /**
+     * Wartet bis {@link Robot#wakeUp} aufgerufen wurde
+     */
+    private void awaitWakeUp() {
+        wakeUpLock.lock();
+        try {
+            while (!wakeUpPending) {
+                wakeUpCondition.await();
             }
+            wakeUpPending = false;
+            RobotExecution.getRobotExecution().recordWakeUp(wakeUpSignalled);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+            Thread.currentThread().interrupt();
+        } finally {
+            wakeUpLock.unlock();
         }
-        return lowestDistanceNode;
     }
 
-    private void calculateMinimumDistance(Node evaluationNode, Node sourceNode) {
-        int sourceDistance = sourceNode.distance;
-        if (sourceDistance + 1 < evaluationNode.distance) {
-            evaluationNode.distance = sourceDistance + 1;
-            ArrayList<Node> shortestPath = new ArrayList<>(sourceNode.shortestPath);
-            shortestPath.add(sourceNode);
-            evaluationNode.shortestPath = shortestPath;
+    /**
+     * Berechnet den Weg von der {@link Robot#currentNode} zur {@code destination} Node und speichert ihn in
+     * {@link Robot#route}. Zuerst wird eine Route gesucht die den Reservierungen der anderen Roboter ausweicht, gelingt
+     * das nicht wird die kürzeste Route vom {@link Router} der {@link Map} ohne Zeitplan verwendet.
+     *
+     * @param destination Die Node zu der der Roboter sich bewegen will
+     * @see CooperativePlanner
+     * @see Map#getRouter
+     */
+    private void navigateTo(Node destination) {
+        Map m = Map.getMap();
+        int holdSlots = (int) ((LOAD_MILLIS + ReservationTable.SLOT_MILLIS - 1) / ReservationTable.SLOT_MILLIS);
+        boolean planned;
+        try (CooperativePlanner planner = CooperativePlanner.acquire()) {
+            planned = planner.plan(m.getNavigationGraph(), m.getReservationTable(), getCurrentNode(), destination,
+                    ReservationTable.currentSlot() + 1, holdSlots, MOVE_MILLIS_PER_PIXEL, route);
+        }
+        if (!planned) {
+            m.getRouter().route(getCurrentNode(), destination, route.reset());
         }
     }
 
@@ -247,84 +553,250 @@ class Robot implements Runnable {
         }
     }
 
+    /**
+     * Schliesst die laufende Aktion ab und beginnt die naechste. Die Aktionen selbst warten nicht, sondern geben zurueck
+     * wie lange sie dauern, der Aufrufer ruft {@code step()} nach Ablauf dieser Zeit erneut auf.
+     *
+     * @return Dauer der begonnenen Aktion in Millisekunden, {@link Robot#WAITING} wenn der Roboter auf
+     * {@link Robot#wakeUp} wartet oder {@link Robot#FINISHED} wenn er abgeschaltet ist
+     * @see Robot#work
+     */
+    long step() {
+        if (pending != null) {
+            Runnable action = pending;
+            pending = null;
+            action.run();
+        }
+        StorageNode queued = queuedAt;
+        queuedAt = null;
+        if (terminated && tote.isEmpty()) {
+            if (queued != null) {
+                queued.cancel(this);
+            }
+            route.reset();
+            tour.clear();
+            cancelReservations();
+            currentNode.unregister();
+            target.removeWorker();
+            if (central) {
+                TransportDispatcher.getTransportDispatcher().remove(this, task, taskUnits);
+                task = null;
+                taskUnits = 0;
+            }
+            return FINISHED;
+        }
+        long duration = work();
+        if (queued != null && queued != queuedAt && queued != occupying) {
+            //Der Roboter hat sich nach dem Aufwecken anders entschieden, sein Platz geht an den naechsten
+            queued.cancel(this);
+        }
+        if (duration > 0) {
+            RobotExecution.getRobotExecution().recordBusy(duration);
+        }
+        return duration;
+    }
+
+    /**
+     * Laesst den Roboter auf einem eigenen Thread in Echtzeit arbeiten
+     */
     @Override
     public void run() {
-        while (!(terminated && inventoryMaterialType == 0)) {
-            work();
+        long duration;
+        while ((duration = step()) != FINISHED) {
+            if (duration == WAITING) {
+                awaitWakeUp();
+            } else if (duration > 0) {
+                lock(duration);
+            }
         }
-        currentNode.unregister();
     }
 
     /**
-     * Führt einen kompletten Arbeitsdurchlauf aus
+     * Fuehrt im ereignisgesteuerten Betrieb einen Schritt aus und plant den naechsten in der {@link Simulation}
+     */
+    void runStep() {
+        long duration = step();
+        if (duration == FINISHED) {
+            RobotExecution.getRobotExecution().stopped();
+        } else if (duration == WAITING) {
+            wakeUpLock.lock();
+            try {
+                if (wakeUpPending) {
+                    wakeUpPending = false;
+                    simulation.schedule(0, this::runStep);
+                } else {
+                    waiting = true;
+                }
+            } finally {
+                wakeUpLock.unlock();
+            }
+        } else {
+            simulation.schedule(duration, this::runStep);
+        }
+    }
+
+    /**
+     * Führt einen kompletten Arbeitsdurchlauf aus. Der Zustand des Roboters wird in der Tabelle von {@link RobotState}
+     * nachgeschlagen, danach beginnt der Roboter die Aktion zum Zustand:
      * <ul>
      * <li>Wenn mindestens eine weitere {@link Node} vorhanden ist bewegt sich der Roboter eine {@link Node} weiter</li>
-     * <li>Andernfalls wird überprüft ob der Roboter an dieser {@link Node} umladen kann
-     * <ul>
-     * <li>Ja: Umladen und den Graphen erneuern</li>
-     * <li>Nein: RuntimeException werfen</li>
-     * </ul>
-     * </li>
+     * <li>Ohne Waren holt er sie an der Ziel-{@link DeliveryNode} ab oder sammelt sie fuer sie in den Lagern</li>
+     * <li>Mit Waren bringt er sie zur Ziel-DeliveryNode oder in ein Lager</li>
      * </ul>
      *
-     * @throws RuntimeException wenn der Roboter an einer {@link Node} steht die keine {@link StorageNode} ist und keinen Graphen mehr hat
+     * @return Dauer der begonnenen Aktion in Millisekunden oder {@link Robot#WAITING}
+     * @throws RuntimeException wenn es kein Lager fuer die Waren gibt
      * @see Robot#move
-     * @see Robot#load
+     * @see Robot#pick
+     * @see Robot#drop
      * @see Robot#navigateTo
      */
-    private void work() {
-        if (hasNextNode()) {
-            move();
-        } else {
-            Map m = Map.getMap();
-            if (inventoryMaterialType == 0) {
-                if (DeliveryNode.class.isAssignableFrom(getCurrentNode().getClass())) {
-                    if (getHomeNode().isUnloading()) {
-                        //Waren ins Inventar laden
-                        load();
-                    } else {
-                        //Zu Lager mit richtigen Waren für Home navigieren
-                        navigateTo(m.getStorageNode(getHomeNode().getMaterialType()));
-                    }
-                } else {
-                    if (((StorageNode) getCurrentNode()).getMaterialType() == getHomeNode().getMaterialType() && getHomeNode().isLoading()) {
-                        //Waren aus Lager in Inventar laden
-                        load();
-                    } else {
-                        if (getHomeNode().isLoading()) {
-                            //Zu Lager mit richtigem Materialtyp für Home navigieren
-                            navigateTo(m.getStorageNode(getHomeNode().getMaterialType()));
-                        } else {
-                            //Zur HomeNode navigieren
-                            navigateTo(getHomeNode());
-                        }
+    private long work() {
+        Node current = currentNode;
+        DeliveryNode target = this.target;
+        RobotState state = RobotState.of(current.getKind(), route.hasNext(), central, !tour.isEmpty(), !tote.isEmpty(),
+                !reservedUnits.isEmpty() || spaceAt != null, target.isLoading());
+        switch (state) {
+            case MOVE:
+                return move();
+            case TASK:
+                return workOnTask();
+            case TOUR:
+                //Sammeltour fortsetzen
+                return continueTour();
+            case IDLE:
+                selectTarget();
+                return this.target.isLoading() ? gather(this.target) : collectFrom(this.target);
+            case COLLECT:
+                //Waren reservieren und zur DeliveryNode navigieren für die der Roboter arbeitet oder dort ins Inventar
+                //laden
+                return collectFrom(target);
+            case GATHER:
+                //Sammeltour zu den Lagern mit richtigem Materialtyp, nur so viele Waren wie der DeliveryNode noch fehlen
+                return gather(target);
+            case DELIVER: {
+                int materialType = tote.getMaterialType();
+                if (target.getMaterialType() == materialType
+                        && reserveSpace(target, tote.getAmount(materialType)) > 0) {
+                    if (current == target) {
+                        //Waren aus Inventar in die DeliveryNode laden
+                        return drop();
                     }
+                    navigateTo(target);
+                    return 0;
                 }
-            } else {
-                if (DeliveryNode.class.isAssignableFrom(getCurrentNode().getClass())) {
-                    if (getHomeNode().isLoading() && getHomeNode().getMaterialType() == inventoryMaterialType) {
-                        //Waren aus Inventar in homeNode laden
-                        load();
-                    } else {
-                        //Zu Lager mit Materialtyp aus Inventar navigieren
-                        navigateTo(m.getStorageNode(inventoryMaterialType));
-                    }
-                } else {
-                    if (((StorageNode) getCurrentNode()).getMaterialType() == getHomeNode().getMaterialType() && getHomeNode().isLoading()) {
-                        //Zur HomeNode navigieren
-                        navigateTo(getHomeNode());
-                    } else {
-                        if (((StorageNode) getCurrentNode()).getMaterialType() == inventoryMaterialType) {
-                            //Waren ins Lager laden
-                            load();
-                        } else {
-                            //Zu passendem Lager für inventarMaterial navigieren
-                            navigateTo(m.getStorageNode(inventoryMaterialType));
-                        }
-                    }
+                return store(materialType);
+            }
+            case PUT_AWAY:
+                return store(tote.getMaterialType());
+            case FORWARD: {
+                int materialType = tote.getMaterialType();
+                if (((StorageNode) current).getMaterialType() == target.getMaterialType()
+                        && reserveSpace(target, tote.getAmount(materialType)) > 0) {
+                    //Zur DeliveryNode navigieren, der Platz dort ist reserviert
+                    navigateTo(target);
+                    return 0;
                 }
+                return dropOrStore((StorageNode) current, materialType);
             }
+            case DROP:
+                return dropOrStore((StorageNode) current, tote.getMaterialType());
+            default:
+                throw new RuntimeException("Unbekannter Zustand " + state);
+        }
+    }
+
+    /**
+     * Beginnt eine Sammeltour fuer eine {@link DeliveryNode} die einlaedt
+     *
+     * @param dock die DeliveryNode
+     * @return Dauer der begonnenen Aktion in Millisekunden oder {@link Robot#WAITING}
+     */
+    private long gather(DeliveryNode dock) {
+        return startTour(dock, dock.getMaterialType(), dock.getFreeCapacity());
+    }
+
+    /**
+     * Laedt die Waren in das Lager an dem der Roboter steht, was nicht hineinpasst kommt in ein anderes Lager
+     *
+     * @param current      das Lager
+     * @param materialType Materialtyp der zuerst im {@link Tote} liegt
+     * @return Dauer der begonnenen Aktion in Millisekunden oder {@link Robot#WAITING}
+     */
+    private long dropOrStore(StorageNode current, int materialType) {
+        if (current.getMaterialType() == materialType && (spaceAt == current || current.getFreeCapacity() > 0)) {
+            return drop();
+        }
+        return store(materialType);
+    }
+
+    /**
+     * Reserviert Platz im naechsten passenden Lager und navigiert hin. Hat kein Lager Platz und der Roboter steht schon
+     * am naechsten, versucht er es jede Sekunde erneut.
+     *
+     * @param materialType Materialtyp der zuerst im {@link Tote} liegt
+     * @return 0 wenn die Fahrt mit dem naechsten Schritt beginnt, sonst die Wartezeit in Millisekunden
+     */
+    private long store(int materialType) {
+        StorageNode storage = putAway();
+        if (storage == currentNode) {
+            return LOAD_MILLIS;
+        }
+        reserveSpace(storage, tote.getAmount(materialType));
+        navigateTo(storage);
+        return 0;
+    }
+
+    /**
+     * Arbeitet die Ladung ab die der {@link TransportDispatcher} dem Roboter zugewiesen hat: die Waren an der Quelle
+     * aufnehmen, fuer eine {@link DeliveryNode} die beladen wird auf einer Sammeltour ueber alle passenden Lager, dann zum
+     * Ziel fahren und dort abladen. Ohne Ladung meldet sich der Roboter als frei und wartet.
+     *
+     * @return Dauer der begonnenen Aktion in Millisekunden oder {@link Robot#WAITING}
+     */
+    private long workOnTask() {
+        if (task == null) {
+            TransportDispatcher.Assignment assignment = TransportDispatcher.getTransportDispatcher().requestTask(this);
+            if (assignment == null) {
+                return WAITING;
+            }
+            task = assignment.task;
+            taskUnits = assignment.units;
+            if (task.getDestination().getKind() == NodeKind.DELIVERY && !task.isCrossDock()) {
+                return startTour((DeliveryNode) task.getDestination(), task.getMaterialType(), taskUnits);
+            }
+            tourUnits = taskUnits;
+            tour.add(task.getSource());
+            int reserved = task.getSource().reserveUnits(taskUnits);
+            if (reserved > 0) {
+                reservedUnits.put(task.getSource(), reserved);
+            }
+        }
+        if (!tour.isEmpty()) {
+            return continueTour();
+        }
+        if (tote.getTotal() < taskUnits) {
+            //Die Lager hatten weniger Waren als reserviert, der Rest wird neu vergeben
+            TransportDispatcher.getTransportDispatcher().release(task, taskUnits - tote.getTotal());
+            taskUnits = tote.getTotal();
+            if (taskUnits == 0) {
+                task = null;
+                return 0;
+            }
+        }
+        //Ins Lager bringt der Roboter die Waren dorthin wo gerade Platz ist, der Auftrag nennt nur eines der Lager.
+        //Bei einer Umlagerung ist das Ziel fest, ausser es ist inzwischen voll
+        StorageNode destination = task.getDestination();
+        if (destination.getKind() != NodeKind.DELIVERY && !(task.isRelocation()
+                && (spaceAt == destination || destination.getFreeCapacity() > 0))) {
+            destination = putAway();
+        }
+        if (getCurrentNode() != destination) {
+            reserveSpace(destination, taskUnits);
+            navigateTo(destination);
+            return 0;
         }
+        return drop();
     }
 
     /**
@@ -333,6 +805,7 @@ class Robot implements Runnable {
      */
     void shutdown() {
         terminated = true;
+        wakeUp();
     }
 
     @Override
@@ -0,0 +1,234 @@
+package warehousemanagement.navigation;
+
+import warehousemanagement.simulation.Simulation;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verwaltet auf welchen Threads die {@link Robot}s laufen und misst wie schnell sie gestartet und nach dem Warten wieder
+ * aufgeweckt werden.<br>
+ * Ueber die System-Property {@code warehouse.robots.executor} kann zwischen {@code virtual} (ein virtueller Thread pro
+ * Roboter, Standard ab Java 21) und {@code platform} (ein eigener Thread pro Roboter) gewaehlt werden. Mit
+ * {@link RobotExecution#setExecutor} kann ein beliebiger {@link Executor} eingesetzt werden, dieser muss allerdings jeden
+ * Roboter sofort auf einem eigenen Thread starten, da ein Roboter erst beim Abschalten zurueckkehrt.
+ */
+public class RobotExecution {
+
+    private static final String EXECUTOR_PROPERTY = "warehouse.robots.executor";
+
+    private volatile Executor executor;
+
+    /**
+     * Beschreibung des aktuellen {@link RobotExecution#executor}
+     */
+    private volatile String mode;
+
+    private final AtomicInteger activeRobots;
+
+    private final AtomicLong starts;
+
+    private final AtomicLong startLatency;
+
+    private final AtomicLong maxStartLatency;
+
+    private final AtomicLong wakeUps;
+
+    private final AtomicLong wakeUpLatency;
+
+    private final AtomicLong maxWakeUpLatency;
+
+    /**
+     * Summe der Zeit die Roboter mit Fahren und Laden verbracht haben
+     */
+    private final AtomicLong busyMillis;
+
+    private RobotExecution() {
+        activeRobots = new AtomicInteger();
+        starts = new AtomicLong();
+        startLatency = new AtomicLong();
+        maxStartLatency = new AtomicLong();
+        wakeUps = new AtomicLong();
+        wakeUpLatency = new AtomicLong();
+        maxWakeUpLatency = new AtomicLong();
+        busyMillis = new AtomicLong();
+
+        if ("platform".equals(System.getProperty(EXECUTOR_PROPERTY, "virtual")) || !useVirtualThreads()) {
+            usePlatformThreads();
+        }
+    }
+
+    public static RobotExecution getRobotExecution() {
+        return RobotExecutionHolder.INSTANCE;
+    }
+
+    /**
+     * Setzt den {@link Executor} fuer alle Roboter die ab jetzt gestartet werden
+     *
+     * @param executor der neue Executor
+     * @param mode     Beschreibung fuer {@link RobotExecution#getMode()}
+     */
+    public void setExecutor(Executor executor, String mode) {
+        this.executor = executor;
+        this.mode = mode;
+    }
+
+    /**
+     * Startet fuer jeden Roboter einen eigenen Thread, die Threads sind {@code isDaemon() = true}
+     */
+    public void usePlatformThreads() {
+        setExecutor(r -> {
+            Thread thread = new Thread(r, "Roboter");
+            thread.setDaemon(true);
+            thread.start();
+        }, "platform");
+    }
+
+    /**
+     * Startet fuer jeden Roboter einen virtuellen Thread, das ist erst ab Java 21 moeglich und wird deswegen ueber
+     * Reflection aufgerufen
+     *
+     * @return {@code false} wenn die Laufzeitumgebung keine virtuellen Threads unterstuetzt
+     */
+    public boolean useVirtualThreads() {
+        try {
+            Executor virtual = (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            setExecutor(virtual, "virtual");
+            return true;
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    /**
+     * Startet den Roboter auf dem aktuellen {@link Executor}, im ereignisgesteuerten Betrieb der {@link Simulation}
+     * wird stattdessen sein erster Schritt geplant
+     *
+     * @param robot der zu startende Roboter
+     */
+    void start(Robot robot) {
+        long submitted = System.nanoTime();
+        Simulation simulation = Simulation.getSimulation();
+        if (simulation.isEventDriven()) {
+            simulation.schedule(0, () -> {
+                record(starts, startLatency, maxStartLatency, System.nanoTime() - submitted);
+                activeRobots.incrementAndGet();
+                robot.runStep();
+            });
+            return;
+        }
+        executor.execute(() -> {
+            record(starts, startLatency, maxStartLatency, System.nanoTime() - submitted);
+            activeRobots.incrementAndGet();
+            try {
+                robot.run();
+            } finally {
+                stopped();
+            }
+        });
+    }
+
+    /**
+     * Wird aufgerufen wenn ein Roboter abgeschaltet ist
+     */
+    void stopped() {
+        activeRobots.decrementAndGet();
+    }
+
+    /**
+     * Wird von einem Roboter aufgerufen der nach dem Warten wieder laeuft
+     *
+     * @param signalled Zeitpunkt in Nanosekunden an dem der Roboter geweckt wurde
+     */
+    void recordWakeUp(long signalled) {
+        record(wakeUps, wakeUpLatency, maxWakeUpLatency, System.nanoTime() - signalled);
+    }
+
+    /**
+     * Wird von einem Roboter aufgerufen wenn er eine Fahrt oder einen Ladevorgang beginnt
+     *
+     * @param millis Dauer der Aktion
+     */
+    void recordBusy(long millis) {
+        busyMillis.addAndGet(millis);
+    }
+
+    /**
+     * Gibt zurueck wie viel Zeit alle Roboter zusammen mit Fahren und Laden verbracht haben, geteilt durch die
+     * Laufzeit und die Anzahl der Roboter ergibt das die Auslastung der Flotte
+     *
+     * @return Summe in Millisekunden
+     */
+    public long getBusyMillis() {
+        return busyMillis.get();
+    }
+
+    /**
+     * Gibt die Anzahl der Roboter zurueck deren Thread gerade laeuft
+     *
+     * @return Anzahl laufender Roboter
+     */
+    public int getActiveRobots() {
+        return activeRobots.get();
+    }
+
+    /**
+     * Gibt die mittlere Zeit zwischen dem Erzeugen eines Roboters und dem Start seines Threads zurueck
+     *
+     * @return mittlere Startverzoegerung in Millisekunden
+     */
+    public double getAverageStartLatency() {
+        return average(startLatency, starts);
+    }
+
+    public double getMaxStartLatency() {
+        return maxStartLatency.get() / 1e6;
+    }
+
+    /**
+     * Gibt die mittlere Zeit zwischen dem Aufwecken eines wartenden Roboters und dem Weiterlaufen seines Threads zurueck
+     *
+     * @return mittlere Aufweckverzoegerung in Millisekunden
+     */
+    public double getAverageWakeUpLatency() {
+        return average(wakeUpLatency, wakeUps);
+    }
+
+    public double getMaxWakeUpLatency() {
+        return maxWakeUpLatency.get() / 1e6;
+    }
+
+    /**
+     * Setzt alle Messwerte ausser der Anzahl laufender Roboter zurueck
+     */
+    public void resetStatistics() {
+        starts.set(0);
+        startLatency.set(0);
+        maxStartLatency.set(0);
+        wakeUps.set(0);
+        wakeUpLatency.set(0);
+        maxWakeUpLatency.set(0);
+        busyMillis.set(0);
+    }
+
+    private static void record(AtomicLong count, AtomicLong sum, AtomicLong max, long nanos) {
+        count.incrementAndGet();
+        sum.addAndGet(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static double average(AtomicLong sum, AtomicLong count) {
+        long n = count.get();
+        return n == 0 ? 0 : sum.get() / 1e6 / n;
+    }
+
+    private static class RobotExecutionHolder {
+        private static final RobotExecution INSTANCE = new RobotExecution();
+    }
+}
@@ -0,0 +1,157 @@
+package warehousemanagement.navigation;
+
+/**
+ * Die Zustaende in denen ein {@link Robot} seine naechste Aktion waehlt. Welcher Zustand gilt haengt nur von wenigen
+ * Merkmalen ab: der {@link NodeKind} auf der der Roboter steht, ob er noch eine Route, einen Auftrag, eine Sammeltour,
+ * Waren oder Reservierungen hat und ob seine Ziel-{@link DeliveryNode} gerade einlaedt. Die Uebergaenge werden beim
+ * Laden der Klasse einmal fuer jede Kombination berechnet, ein Schritt des Roboters schlaegt seinen Zustand in der
+ * Tabelle nur noch nach.<br>
+ * Was nicht in der Tabelle steht, etwa ob der Materialtyp passt oder noch Platz frei ist, prueft der Roboter in der
+ * Aktion zum Zustand.
+ *
+ * @see Robot#step
+ */
+enum RobotState {
+
+    /**
+     * Zur naechsten Node der Route fahren
+     */
+    MOVE,
+
+    /**
+     * Den Auftrag des {@link TransportDispatcher}s abarbeiten
+     */
+    TASK,
+
+    /**
+     * Den naechsten Stopp der Sammeltour anfahren oder dort Waren aufnehmen
+     */
+    TOUR,
+
+    /**
+     * Leer und ohne Reservierungen: das Ziel neu waehlen und je nach dessen Zustand {@link RobotState#COLLECT} oder
+     * {@link RobotState#GATHER}
+     */
+    IDLE,
+
+    /**
+     * Leer, das Ziel laedt aus: dort Waren reservieren und abholen
+     */
+    COLLECT,
+
+    /**
+     * Leer, das Ziel laedt ein: eine Sammeltour ueber die Lager beginnen
+     */
+    GATHER,
+
+    /**
+     * Beladen abseits der Lager, das Ziel laedt ein: die Ladung dorthin bringen wenn sie passt, sonst einlagern
+     */
+    DELIVER,
+
+    /**
+     * Beladen abseits der Lager, das Ziel laedt aus: die Ladung ins naechste passende Lager bringen
+     */
+    PUT_AWAY,
+
+    /**
+     * Beladen an einem Lager, das Ziel laedt ein: die Ladung zum Ziel bringen wenn sie passt, sonst wie
+     * {@link RobotState#DROP}
+     */
+    FORWARD,
+
+    /**
+     * Beladen an einem Lager, das Ziel laedt aus: hier abladen wenn der Materialtyp passt, sonst ein anderes Lager
+     * anfahren
+     */
+    DROP;
+
+    private static final int MOVING = 1 << 5;
+
+    private static final int CENTRAL = 1 << 4;
+
+    private static final int TOURING = 1 << 3;
+
+    private static final int LOADED = 1 << 2;
+
+    private static final int PLANNED = 1 << 1;
+
+    private static final int TARGET_LOADING = 1;
+
+    private static final int KIND_SHIFT = 6;
+
+    /**
+     * Zustand fuer jede Kombination der Merkmale, der Index setzt sich aus den Bits oben und der {@link NodeKind}
+     * zusammen
+     */
+    private static final RobotState[] TRANSITIONS;
+
+    static {
+        NodeKind[] kinds = NodeKind.values();
+        TRANSITIONS = new RobotState[kinds.length << KIND_SHIFT];
+        for (NodeKind kind : kinds) {
+            for (int flags = 0; flags < 1 << KIND_SHIFT; flags++) {
+                TRANSITIONS[kind.ordinal() << KIND_SHIFT | flags] = decide(kind, flags);
+            }
+        }
+    }
+
+    /**
+     * Schlaegt den Zustand eines Roboters in der Tabelle nach
+     *
+     * @param kind          Art der Node auf der der Roboter steht
+     * @param moving        ob die Route noch weitere Nodes hat
+     * @param central       ob die Arbeit zentral vom {@link TransportDispatcher} vergeben wird
+     * @param touring       ob die Sammeltour noch Stopps hat
+     * @param loaded        ob der Roboter Waren traegt
+     * @param planned       ob der Roboter Waren oder Platz reserviert hat
+     * @param targetLoading ob die Ziel-DeliveryNode einlaedt
+     * @return der Zustand
+     */
+    static RobotState of(NodeKind kind, boolean moving, boolean central, boolean touring, boolean loaded,
+                         boolean planned, boolean targetLoading) {
+        int index = kind.ordinal() << KIND_SHIFT;
+        if (moving) {
+            index |= MOVING;
+        }
+        if (central) {
+            index |= CENTRAL;
+        }
+        if (touring) {
+            index |= TOURING;
+        }
+        if (loaded) {
+            index |= LOADED;
+        }
+        if (planned) {
+            index |= PLANNED;
+        }
+        if (targetLoading) {
+            index |= TARGET_LOADING;
+        }
+        return TRANSITIONS[index];
+    }
+
+    /**
+     * Die Entscheidungsregeln aus denen die Tabelle berechnet wird
+     */
+    private static RobotState decide(NodeKind kind, int flags) {
+        boolean targetLoading = (flags & TARGET_LOADING) != 0;
+        if ((flags & MOVING) != 0) {
+            return MOVE;
+        } else if ((flags & CENTRAL) != 0) {
+            return TASK;
+        } else if ((flags & TOURING) != 0) {
+            return TOUR;
+        } else if ((flags & LOADED) == 0) {
+            if ((flags & PLANNED) == 0) {
+                return IDLE;
+            }
+            return targetLoading ? GATHER : COLLECT;
+        } else if (kind == NodeKind.STORAGE) {
+            return targetLoading ? FORWARD : DROP;
+        } else {
+            return targetLoading ? DELIVER : PUT_AWAY;
+        }
+    }
+}
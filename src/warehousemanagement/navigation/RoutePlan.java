@@ -0,0 +1,192 @@
+package warehousemanagement.navigation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Die Route die ein {@link Robot} gerade abfaehrt. Eine Route kann zusaetzlich Ankunftszeiten enthalten, dann wurden die
+ * Nodes in der {@link ReservationTable} fuer diese Zeitfenster reserviert und der Roboter haelt sich an den Zeitplan.
+ */
+public class RoutePlan {
+
+    private final ArrayList<Node> nodes;
+
+    /**
+     * Zeitfenster in dem der Roboter an der Node ankommt, {@code -1} wenn die Route keinen Zeitplan hat
+     */
+    private long[] arrivals;
+
+    /**
+     * Letztes Zeitfenster das fuer die Node reserviert ist
+     */
+    private long[] departures;
+
+    /**
+     * Index der Node in der {@link ReservationTable}, {@code -1} wenn fuer die Node nichts reserviert wurde
+     */
+    private int[] reserved;
+
+    /**
+     * Position der naechsten Node in {@link RoutePlan#nodes}
+     */
+    private int position;
+
+    /**
+     * Die Tabelle in der die Zeitfenster dieser Route reserviert wurden
+     */
+    private ReservationTable reservations;
+
+    /**
+     * Der Roboter dem die Reservierungen gehoeren
+     */
+    private final Object owner;
+
+    /**
+     * @param owner der Roboter dem die Reservierungen der Route gehoeren
+     */
+    public RoutePlan(Object owner) {
+        this.owner = owner;
+        nodes = new ArrayList<>();
+        arrivals = new long[16];
+        departures = new long[16];
+        reserved = new int[16];
+    }
+
+    /**
+     * Gibt alle Reservierungen frei, leert die Route und gibt die Liste zurueck in die ein {@link Router} eine Route ohne
+     * Zeitplan schreiben kann
+     *
+     * @return die leere Liste der Nodes
+     */
+    List<Node> reset() {
+        release();
+        nodes.clear();
+        position = 0;
+        return nodes;
+    }
+
+    /**
+     * Leert die Route und bereitet sie auf einen Zeitplan in der gegebenen Tabelle vor
+     *
+     * @param reservations Tabelle in der die Zeitfenster reserviert werden
+     */
+    void resetScheduled(ReservationTable reservations) {
+        reset();
+        this.reservations = reservations;
+    }
+
+    /**
+     * Haengt eine Node mit Zeitplan an die Route an
+     *
+     * @param node      die Node
+     * @param index     Index der Node in der {@link ReservationTable} oder {@code -1} wenn nichts reserviert werden soll
+     * @param arrival   Zeitfenster der Ankunft
+     * @param departure letztes Zeitfenster an der Node
+     */
+    void addStep(Node node, int index, long arrival, long departure) {
+        int i = nodes.size();
+        if (i == arrivals.length) {
+            arrivals = Arrays.copyOf(arrivals, 2 * i);
+            departures = Arrays.copyOf(departures, 2 * i);
+            reserved = Arrays.copyOf(reserved, 2 * i);
+        }
+        nodes.add(node);
+        arrivals[i] = arrival;
+        departures[i] = departure;
+        reserved[i] = index;
+    }
+
+    /**
+     * Reserviert alle Nodes der Route in der Tabelle, schlaegt eine Reservierung fehl werden alle bisherigen wieder
+     * freigegeben
+     *
+     * @return {@code true} wenn alle Reservierungen erfolgreich waren
+     */
+    boolean reserve() {
+        for (int i = 0; i < nodes.size(); i++) {
+            if (reserved[i] >= 0 && !reservations.reserve(reserved[i], arrivals[i], departures[i], owner)) {
+                for (int j = 0; j < i; j++) {
+                    if (reserved[j] >= 0) {
+                        reservations.release(reserved[j], arrivals[j], departures[j], owner);
+                    }
+                }
+                reservations = null;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gibt alle Reservierungen dieser Route frei
+     */
+    void release() {
+        if (reservations != null) {
+            for (int i = 0; i < nodes.size(); i++) {
+                if (reserved[i] >= 0) {
+                    reservations.release(reserved[i], arrivals[i], departures[i], owner);
+                }
+            }
+            reservations = null;
+        }
+    }
+
+    Object getOwner() {
+        return owner;
+    }
+
+    boolean hasNext() {
+        return position < nodes.size();
+    }
+
+    Node peek() {
+        return nodes.get(position);
+    }
+
+    /**
+     * Gibt das Zeitfenster zurueck in dem der Roboter an der naechsten Node ankommen soll
+     *
+     * @return Zeitfenster der Ankunft oder {@code -1} wenn die Route keinen Zeitplan hat
+     */
+    long peekArrival() {
+        return reservations == null ? -1 : arrivals[position];
+    }
+
+    Node next() {
+        return nodes.get(position++);
+    }
+
+    /**
+     * Gibt die Anzahl der Nodes der Route zurueck, die Startnode ist nicht enthalten
+     *
+     * @return Anzahl der Nodes
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    public Node getNode(int i) {
+        return nodes.get(i);
+    }
+
+    /**
+     * Gibt das Zeitfenster zurueck in dem der Roboter an der Node ankommt
+     *
+     * @param i Position der Node in der Route
+     * @return Zeitfenster der Ankunft, nur gueltig wenn die Route einen Zeitplan hat
+     */
+    public long getArrival(int i) {
+        return arrivals[i];
+    }
+
+    /**
+     * Gibt das letzte Zeitfenster zurueck in dem der Roboter an der Node steht
+     *
+     * @param i Position der Node in der Route
+     * @return letztes Zeitfenster an der Node, nur gueltig wenn die Route einen Zeitplan hat
+     */
+    public long getDeparture(int i) {
+        return departures[i];
+    }
+}
@@ -0,0 +1,21 @@
+package warehousemanagement.navigation;
+
+import java.util.List;
+
+/**
+ * Berechnet Routen zwischen zwei {@link Node}s. Implementierungen muessen von beliebig vielen Robotern gleichzeitig
+ * verwendet werden koennen.
+ */
+public interface Router {
+
+    /**
+     * Schreibt die Route von {@code source} nach {@code destination} in {@code path}. Die Startnode ist nicht enthalten,
+     * die Zielnode ist immer das letzte Element. Der Inhalt von {@code path} wird vorher geloescht.
+     *
+     * @param source      Node an der die Route beginnt
+     * @param destination Node an der die Route endet
+     * @param path        Liste in die die Route geschrieben wird
+     * @throws RuntimeException wenn es keinen Weg zwischen den Nodes gibt
+     */
+    void route(Node source, Node destination, List<Node> path);
+}
@@ -0,0 +1,70 @@
+package warehousemanagement.navigation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Vorberechnete Routingtabelle fuer alle Paare von {@link Node}s. Fuer jedes Paar (Start, Ziel) wird die naechste Node
+ * auf dem kuerzesten Weg (gemessen an der Laenge der Verbindungen) gespeichert, eine Route kann damit in O(Routenlaenge) abgelesen werden.<br>
+ * Die Tabelle wird einmal aus einem {@link NavigationGraph} aufgebaut und muss neu erzeugt werden wenn sich die
+ * Verbindungen zwischen den Nodes aendern.
+ */
+public class RoutingTable implements Router {
+
+    /**
+     * Markiert in {@link RoutingTable#nextHop} dass es keinen Weg gibt
+     */
+    private static final int UNREACHABLE = -1;
+
+    private final NavigationGraph graph;
+
+    /**
+     * Naechster Schritt von {@code from} nach {@code to}, gespeichert an der Stelle {@code from * size + to}
+     */
+    private final int[] nextHop;
+
+    /**
+     * Baut die Tabelle auf, dazu wird von jedem Ziel aus mit dem {@link PathFinder} der Baum der kuerzesten Wege
+     * berechnet. Da alle Verbindungen in beide Richtungen gehen ist der Vorgaenger einer Node in diesem Baum genau der
+     * naechste Schritt in Richtung Ziel.
+     *
+     * @param graph der Graph fuer den die Tabelle erstellt wird
+     */
+    public RoutingTable(NavigationGraph graph) {
+        this.graph = graph;
+        int size = graph.size();
+        nextHop = new int[size * size];
+        Arrays.fill(nextHop, UNREACHABLE);
+
+        try (PathFinder pathFinder = PathFinder.acquire()) {
+            for (int target = 0; target < size; target++) {
+                pathFinder.search(graph.getGraph(), target, -1);
+                for (int n = 0; n < size; n++) {
+                    if (pathFinder.isReached(n)) {
+                        nextHop[n * size + target] = pathFinder.getPredecessor(n);
+                    }
+                }
+            }
+        }
+    }
+
+    public NavigationGraph getGraph() {
+        return graph;
+    }
+
+    @Override
+    public void route(Node source, Node destination, List<Node> path) {
+        int size = graph.size();
+        int current = graph.indexOf(source);
+        int target = graph.indexOf(destination);
+        path.clear();
+        while (current != target) {
+            current = nextHop[current * size + target];
+            if (current == UNREACHABLE) {
+                path.clear();
+                throw new RuntimeException("Kein Weg zwischen " + source.getId() + " und " + destination.getId() + " gefunden");
+            }
+            path.add(graph.getNode(current));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package warehousemanagement.navigation;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Begrenzter Vorrat an wiederverwendbaren Arbeitsspeichern fuer Suchen. Eine Suche leiht sich vorher eine Instanz und
+ * gibt sie danach zurueck. Aufbewahrt werden hoechstens so viele Instanzen wie virtuelle Threads gleichzeitig laufen
+ * koennen, auch bei tausenden Robotern. Ist der Vorrat leer wird eine neue Instanz erzeugt, ist er voll wird die
+ * zurueckgegebene verworfen.
+ *
+ * @param <T> Typ des Arbeitsspeichers
+ */
+class ScratchPool<T> {
+
+    private final ArrayBlockingQueue<T> free;
+
+    private final Supplier<T> factory;
+
+    /**
+     * @param factory erzeugt eine neue Instanz wenn der Vorrat leer ist
+     */
+    ScratchPool(Supplier<T> factory) {
+        this.factory = factory;
+        int parallelism = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                Runtime.getRuntime().availableProcessors());
+        free = new ArrayBlockingQueue<>(Math.max(1, parallelism));
+    }
+
+    /**
+     * Leiht eine Instanz aus, sie muss mit {@link ScratchPool#release} zurueckgegeben werden
+     *
+     * @return eine Instanz die gerade von keiner anderen Suche verwendet wird
+     */
+    T borrow() {
+        T scratch = free.poll();
+        return scratch != null ? scratch : factory.get();
+    }
+
+    /**
+     * Gibt eine ausgeliehene Instanz zurueck, danach darf sie nicht mehr verwendet werden
+     *
+     * @param scratch die ausgeliehene Instanz
+     */
+    void release(T scratch) {
+        free.offer(scratch);
+    }
+}
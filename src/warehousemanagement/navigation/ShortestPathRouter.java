@@ -0,0 +1,23 @@
+package warehousemanagement.navigation;
+
+import java.util.List;
+
+/**
+ * {@link Router} der jede Route mit dem {@link PathFinder} des aufrufenden Threads per A*-Suche neu berechnet. Braucht keinen
+ * zusaetzlichen Speicher und eignet sich deswegen fuer Graphen die zu gross fuer eine {@link RoutingTable} sind.
+ */
+public class ShortestPathRouter implements Router {
+
+    private final NavigationGraph graph;
+
+    public ShortestPathRouter(NavigationGraph graph) {
+        this.graph = graph;
+    }
+
+    @Override
+    public void route(Node source, Node destination, List<Node> path) {
+        try (PathFinder pathFinder = PathFinder.acquire()) {
+            pathFinder.findPath(graph, source, destination, path);
+        }
+    }
+}
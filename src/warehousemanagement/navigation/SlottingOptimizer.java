@@ -0,0 +1,439 @@
+package warehousemanagement.navigation;
+
+import warehousemanagement.DataConnection;
+import warehousemanagement.Map;
+import warehousemanagement.simulation.Simulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lagert schnell drehende Materialtypen in die Lager nahe den {@link DeliveryNode}s um. Jede Einheit die an einer
+ * DeliveryNode ein- oder ausgeladen wird zaehlt fuer ihren Materialtyp, daraus wird in festen Abstaenden eine
+ * geglaettete Umschlagsrate berechnet und die Materialtypen in die Klassen A (80% des Umschlags), B (die naechsten 15%)
+ * und C eingeteilt.<br>
+ * Liegt ein A-Material weiter von den DeliveryNodes entfernt als ein freies Lager, wird die Umlagerung vorgeschlagen:
+ * das freie Lager bekommt den Materialtyp, das alte wird stillgelegt ({@link StorageNode#setRetired}) und sein Bestand
+ * als {@link TransportTask} ohne DeliveryNode an den {@link TransportDispatcher} gegeben. Der vergibt solche Auftraege
+ * nur an Roboter die sonst nichts zu tun haetten. C-Material das ein nahes Lager belegt wird in ein fernes freies Lager
+ * verschoben, damit das nahe Lager frei wird.<br>
+ * Ueber die System-Property {@code warehouse.slotting} wird zwischen {@code propose} (Standard, nur Vorschlaege
+ * berechnen), {@code relocate} und {@code off} gewaehlt, der Abstand in Sekunden ueber
+ * {@code warehouse.slotting.interval}. Ohne {@code relocate} bleiben die in der GUI eingestellten Materialtypen
+ * der Lager unveraendert.
+ * Umgelagert wird nur wenn die Roboter zentral vergeben werden, bei {@code local} bleibt es bei Vorschlaegen.
+ */
+public class SlottingOptimizer {
+
+    private static final String MODE_PROPERTY = "warehouse.slotting";
+
+    private static final String INTERVAL_PROPERTY = "warehouse.slotting.interval";
+
+    /**
+     * Anteil am Umschlag bis zu dem ein Materialtyp zur Klasse A bzw. B gehoert
+     */
+    static final double A_SHARE = 0.8;
+
+    static final double B_SHARE = 0.95;
+
+    /**
+     * Gewicht der bisherigen Umschlagsrate bei jeder Auswertung
+     */
+    private static final double DECAY = 0.5;
+
+    /**
+     * Ein Lager muss hoechstens diesen Anteil der bisherigen Entfernung haben damit sich die Umlagerung lohnt
+     */
+    private static final double MIN_IMPROVEMENT = 0.8;
+
+    /**
+     * Umlagerungen die gleichzeitig laufen duerfen
+     */
+    private static final int MAX_ACTIVE = 1;
+
+    private final boolean propose;
+
+    private final boolean relocate;
+
+    private final long intervalMillis;
+
+    private final AtomicBoolean started;
+
+    /**
+     * An den DeliveryNodes bewegte Einheiten je Materialtyp seit der letzten Auswertung
+     */
+    private final ConcurrentHashMap<Integer, LongAdder> moved;
+
+    private final HashMap<Integer, Double> velocity;
+
+    private volatile java.util.Map<Integer, Character> classification;
+
+    private volatile List<Relocation> proposals;
+
+    private final List<Relocation> active;
+
+    private long startedRelocations;
+
+    private long completedRelocations;
+
+    private SlottingOptimizer() {
+        String mode = System.getProperty(MODE_PROPERTY, "propose");
+        propose = !"off".equals(mode);
+        relocate = "relocate".equals(mode);
+        intervalMillis = Long.getLong(INTERVAL_PROPERTY, 60) * 1000;
+        started = new AtomicBoolean();
+        moved = new ConcurrentHashMap<>();
+        velocity = new HashMap<>();
+        classification = Collections.emptyMap();
+        proposals = Collections.emptyList();
+        active = new ArrayList<>();
+    }
+
+    public static SlottingOptimizer getSlottingOptimizer() {
+        return SlottingOptimizerHolder.INSTANCE;
+    }
+
+    /**
+     * Wertet in der {@link Simulation} regelmaessig aus, weitere Aufrufe haben keine Wirkung
+     */
+    public void start() {
+        if (propose && started.compareAndSet(false, true)) {
+            Simulation.getSimulation().scheduleAtFixedRate(intervalMillis, intervalMillis, this::run);
+        }
+    }
+
+    /**
+     * Zaehlt Einheiten die an einer {@link DeliveryNode} ein- oder ausgeladen wurden
+     *
+     * @param materialType der Materialtyp
+     * @param units        bewegte Einheiten
+     */
+    void record(int materialType, int units) {
+        if (materialType != 0 && units > 0) {
+            moved.computeIfAbsent(materialType, k -> new LongAdder()).add(units);
+        }
+    }
+
+    /**
+     * Aktualisiert Umschlagsraten und Klassen, schliesst fertige Umlagerungen ab und startet hoechstens eine neue
+     */
+    public synchronized void run() {
+        //Materialtypen die noch nie umgeschlagen wurden sind die langsamsten
+        for (int type = 1; type < DataConnection.getDataConnection().getMaterialTypes().length; type++) {
+            velocity.putIfAbsent(type, 0.0);
+        }
+        for (java.util.Map.Entry<Integer, LongAdder> e : moved.entrySet()) {
+            velocity.merge(e.getKey(), (double) e.getValue().sumThenReset(), (v, m) -> v * DECAY + m);
+        }
+        classification = Collections.unmodifiableMap(classify(velocity));
+        finishRelocations();
+        proposals = Collections.unmodifiableList(propose(distances()));
+        if (relocate && TransportDispatcher.getTransportDispatcher().isCentral() && active.size() < MAX_ACTIVE
+                && !proposals.isEmpty()) {
+            execute(proposals.get(0));
+        }
+    }
+
+    /**
+     * Teilt die Materialtypen nach ihrem Anteil am Umschlag in ABC-Klassen ein. Ein Materialtyp gehoert zur Klasse A
+     * solange der Umschlag aller schnelleren Materialtypen unter {@link SlottingOptimizer#A_SHARE} liegt, fuer B
+     * entsprechend {@link SlottingOptimizer#B_SHARE}. Materialtypen ohne Umschlag sind immer C.
+     *
+     * @param velocity Umschlagsrate je Materialtyp
+     * @return Klasse {@code 'A'}, {@code 'B'} oder {@code 'C'} je Materialtyp
+     */
+    public static java.util.Map<Integer, Character> classify(java.util.Map<Integer, Double> velocity) {
+        List<Integer> types = new ArrayList<>(velocity.keySet());
+        types.sort(Comparator.comparingDouble((Integer t) -> -velocity.get(t)).thenComparing(t -> t));
+        double total = 0;
+        for (double v : velocity.values()) {
+            total += v;
+        }
+        HashMap<Integer, Character> classes = new HashMap<>();
+        double cumulative = 0;
+        for (int type : types) {
+            double v = velocity.get(type);
+            if (v <= 0) {
+                classes.put(type, 'C');
+            } else if (cumulative < A_SHARE * total) {
+                classes.put(type, 'A');
+            } else if (cumulative < B_SHARE * total) {
+                classes.put(type, 'B');
+            } else {
+                classes.put(type, 'C');
+            }
+            cumulative += v;
+        }
+        return classes;
+    }
+
+    /**
+     * Berechnet fuer jedes erreichbare Lager die kuerzeste Wegstrecke zu einer {@link DeliveryNode}
+     */
+    private HashMap<StorageNode, Long> distances() {
+        Map m = Map.getMap();
+        NavigationGraph graph = m.getNavigationGraph();
+        List<StorageNode> storageNodes;
+        synchronized (m.storageNodes) {
+            storageNodes = new ArrayList<>(m.storageNodes);
+        }
+        List<DeliveryNode> deliveryNodes;
+        synchronized (m.deliveryNodes) {
+            deliveryNodes = new ArrayList<>(m.deliveryNodes);
+        }
+        HashMap<StorageNode, Long> distance = new HashMap<>();
+        try (PathFinder pathFinder = PathFinder.acquire()) {
+            for (DeliveryNode dock : deliveryNodes) {
+                if (!graph.contains(dock)) {
+                    continue;
+                }
+                pathFinder.search(graph.getGraph(), graph.indexOf(dock), -1);
+                for (StorageNode n : storageNodes) {
+                    if (!graph.contains(n) || !pathFinder.isReached(graph.indexOf(n))) {
+                        continue;
+                    }
+                    distance.merge(n, (long) pathFinder.getDistance(graph.indexOf(n)), Math::min);
+                }
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Sucht Umlagerungen: A-Material aus dem entferntesten Lager in ein deutlich naeheres freies Lager oder in ein
+     * leeres Lager eines C-Materials das noch weitere Lager hat, danach C-Material aus nahen Lagern in ferne freie
+     * Lager. Lager die schon an einer Umlagerung beteiligt sind werden uebergangen.
+     */
+    private List<Relocation> propose(HashMap<StorageNode, Long> distance) {
+        Set<StorageNode> busy = new HashSet<>();
+        for (Relocation r : active) {
+            busy.add(r.from);
+            busy.add(r.to);
+        }
+        List<StorageNode> free = new ArrayList<>();
+        for (StorageNode n : distance.keySet()) {
+            if (n.getMaterialType() == 0 && n.isUnused() && !n.isRetired() && !busy.contains(n)) {
+                free.add(n);
+            }
+        }
+        free.sort(Comparator.comparingLong(distance::get));
+
+        List<Integer> fast = new ArrayList<>();
+        List<Integer> slow = new ArrayList<>();
+        for (java.util.Map.Entry<Integer, Character> e : classification.entrySet()) {
+            if (e.getValue() == 'A') {
+                fast.add(e.getKey());
+            } else if (e.getValue() == 'C') {
+                slow.add(e.getKey());
+            }
+        }
+        fast.sort(Comparator.comparingDouble((Integer t) -> -velocity.get(t)));
+
+        List<Relocation> result = new ArrayList<>();
+        long farthestFast = 0;
+        for (int type : fast) {
+            StorageNode from = farthest(type, distance, busy);
+            if (from == null) {
+                continue;
+            }
+            long d = distance.get(from);
+            farthestFast = Math.max(farthestFast, d);
+            StorageNode to = null;
+            if (!free.isEmpty() && closer(distance.get(free.get(0)), d)) {
+                to = free.remove(0);
+            } else {
+                for (int other : slow) {
+                    List<StorageNode> candidates = StorageIndex.getStorageIndex().getStorageNodes(other);
+                    if (candidates.size() < 2) {
+                        continue;
+                    }
+                    for (StorageNode n : candidates) {
+                        Long nd = distance.get(n);
+                        if (nd != null && n.isUnused() && !n.isRetired() && !busy.contains(n) && closer(nd, d)
+                                && (to == null || nd < distance.get(to))) {
+                            to = n;
+                        }
+                    }
+                }
+            }
+            if (to != null) {
+                busy.add(from);
+                busy.add(to);
+                result.add(new Relocation(type, from, to));
+            }
+        }
+
+        for (int type : slow) {
+            for (StorageNode from : StorageIndex.getStorageIndex().getStorageNodes(type)) {
+                Long d = distance.get(from);
+                if (d == null || free.isEmpty() || from.getAmount() == 0 || from.isRetired() || busy.contains(from)
+                        || !closer(d, farthestFast)) {
+                    continue;
+                }
+                StorageNode to = free.get(free.size() - 1);
+                if (distance.get(to) > d) {
+                    free.remove(to);
+                    busy.add(from);
+                    busy.add(to);
+                    result.add(new Relocation(type, from, to));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean closer(long candidate, long current) {
+        return candidate < current * MIN_IMPROVEMENT;
+    }
+
+    private static StorageNode farthest(int type, HashMap<StorageNode, Long> distance, Set<StorageNode> busy) {
+        StorageNode farthest = null;
+        for (StorageNode n : StorageIndex.getStorageIndex().getStorageNodes(type)) {
+            Long d = distance.get(n);
+            if (d != null && !n.isRetired() && !busy.contains(n)
+                    && (farthest == null || d > distance.get(farthest))) {
+                farthest = n;
+            }
+        }
+        return farthest;
+    }
+
+    /**
+     * Legt das Ziel auf den Materialtyp fest, legt die Quelle still und gibt ihren Bestand als Auftrag ab
+     */
+    private void execute(Relocation r) {
+        //Stilllegen bevor der Materialtyp wechselt, damit kein Roboter mehr Platz fuer das alte Material reserviert
+        r.to.setRetired(true);
+        if (!r.to.isUnused()) {
+            r.to.setRetired(false);
+            return;
+        }
+        r.to.setMaterialType(r.materialType);
+        r.to.setRetired(false);
+        r.from.setRetired(true);
+        submit(r);
+        active.add(r);
+        startedRelocations++;
+    }
+
+    private void submit(Relocation r) {
+        int units = Math.min(r.from.getAvailableAmount(), r.to.getFreeCapacity());
+        r.task = null;
+        if (units > 0) {
+            r.task = new TransportTask(null, r.materialType, r.from, r.to, units);
+            TransportDispatcher.getTransportDispatcher().submit(r.task);
+        }
+    }
+
+    /**
+     * Gibt leere Quellen frei. Ist das Ziel voll bevor die Quelle leer ist, weil auch eingelagerte Waren dort hin
+     * kommen, wird die Umlagerung abgebrochen und die Quelle wieder in Betrieb genommen. Sonst wird ein Rest der
+     * erst nach dem Auftrag frei geworden ist erneut abgegeben.
+     */
+    private void finishRelocations() {
+        TransportDispatcher dispatcher = TransportDispatcher.getTransportDispatcher();
+        for (Relocation r : new ArrayList<>(active)) {
+            if (r.from.isUnused()) {
+                withdraw(r);
+                if (r.from.getMaterialType() == r.materialType) {
+                    r.from.resetMaterialType();
+                }
+                completedRelocations++;
+            } else if (r.to.getMaterialType() != r.materialType || r.to.getFreeCapacity() == 0) {
+                withdraw(r);
+            } else if ((r.task == null || !dispatcher.isOpen(r.task)) && r.from.getAvailableAmount() > 0) {
+                submit(r);
+            }
+        }
+    }
+
+    private void withdraw(Relocation r) {
+        if (r.task != null) {
+            TransportDispatcher.getTransportDispatcher().withdraw(r.task);
+        }
+        r.from.setRetired(false);
+        active.remove(r);
+    }
+
+    /**
+     * Gibt die Klasse jedes Materialtyps zurueck der schon umgeschlagen wurde
+     *
+     * @return {@code 'A'}, {@code 'B'} oder {@code 'C'} je Materialtyp
+     */
+    public java.util.Map<Integer, Character> getClassification() {
+        return classification;
+    }
+
+    public synchronized double getVelocity(int materialType) {
+        return velocity.getOrDefault(materialType, 0.0);
+    }
+
+    /**
+     * Gibt die Umlagerungen der letzten Auswertung zurueck, die erste wird als naechste ausgefuehrt
+     *
+     * @return Vorschlaege in der Reihenfolge ihres Nutzens
+     */
+    public List<Relocation> getProposals() {
+        return proposals;
+    }
+
+    public synchronized long getStartedRelocations() {
+        return startedRelocations;
+    }
+
+    public synchronized long getCompletedRelocations() {
+        return completedRelocations;
+    }
+
+    /**
+     * Umlagerung eines Materialtyps von einer {@link StorageNode} in eine andere
+     */
+    public static class Relocation {
+
+        private final int materialType;
+
+        private final StorageNode from;
+
+        private final StorageNode to;
+
+        /**
+         * Auftrag fuer den Bestand der Quelle, {@code null} solange nichts zu bewegen ist
+         */
+        private TransportTask task;
+
+        Relocation(int materialType, StorageNode from, StorageNode to) {
+            this.materialType = materialType;
+            this.from = from;
+            this.to = to;
+        }
+
+        public int getMaterialType() {
+            return materialType;
+        }
+
+        public StorageNode getFrom() {
+            return from;
+        }
+
+        public StorageNode getTo() {
+            return to;
+        }
+
+        @Override
+        public String toString() {
+            return "Materialtyp " + materialType + " von " + from + " nach " + to;
+        }
+    }
+
+    private static class SlottingOptimizerHolder {
+        private static final SlottingOptimizer INSTANCE = new SlottingOptimizer();
+    }
+}
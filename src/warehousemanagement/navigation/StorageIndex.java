@@ -0,0 +1,149 @@
+package warehousemanagement.navigation;
+
+import warehousemanagement.Map;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ToIntFunction;
+
+/**
+ * Ordnet jedem Materialtyp die {@link StorageNode}s zu in denen er gelagert wird. Der Index wird von
+ * {@link StorageNode#setMaterialType} und {@link StorageNode#resetMaterialType} aktuell gehalten, Abfragen muessen
+ * deswegen nicht mehr alle Lager durchsuchen.<br>
+ * Gibt es mehrere Lager fuer einen Materialtyp waehlt der Index anhand von Fuellstand und Wegstrecke: zum Einlagern das
+ * naechste Lager das die ganze Ladung aufnehmen kann, zum Abholen das naechste das genug Bestand hat. Reicht keines,
+ * wird das naechste genommen das wenigstens einen Teil hat. So verteilen sich die Roboter auf doppelt belegte Regale.
+ */
+public class StorageIndex {
+
+    /**
+     * Lager je Materialtyp, die Listen werden selten geaendert aber bei jeder Entscheidung eines Roboters gelesen
+     */
+    private final ConcurrentHashMap<Integer, CopyOnWriteArrayList<StorageNode>> nodes;
+
+    private StorageIndex() {
+        nodes = new ConcurrentHashMap<>();
+    }
+
+    public static StorageIndex getStorageIndex() {
+        return StorageIndexHolder.INSTANCE;
+    }
+
+    /**
+     * Traegt eine Aenderung des Materialtyps ein
+     *
+     * @param node     die StorageNode
+     * @param previous bisheriger Materialtyp, {@code 0} wenn keiner gesetzt war
+     * @param current  neuer Materialtyp, {@code 0} wenn er zurueckgesetzt wurde
+     */
+    void update(StorageNode node, int previous, int current) {
+        if (previous == current) {
+            return;
+        }
+        if (previous != 0) {
+            List<StorageNode> list = nodes.get(previous);
+            if (list != null) {
+                list.remove(node);
+            }
+        }
+        if (current != 0) {
+            nodes.computeIfAbsent(current, k -> new CopyOnWriteArrayList<>()).addIfAbsent(node);
+        }
+    }
+
+    /**
+     * Gibt alle Lager fuer einen Materialtyp zurueck
+     *
+     * @param materialType der Materialtyp
+     * @return nicht veraenderbare Liste, leer wenn kein Lager den Materialtyp hat
+     */
+    public List<StorageNode> getStorageNodes(int materialType) {
+        List<StorageNode> list = nodes.get(materialType);
+        return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Waehlt das Lager in das eine Ladung gebracht wird
+     *
+     * @param from         Node an der die Fahrt beginnt
+     * @param materialType Materialtyp der Ladung
+     * @param units        Anzahl der Einheiten
+     * @return das naechste Lager mit genug Platz, sonst das naechste mit etwas Platz, sonst das naechste ueberhaupt;
+     * {@code null} wenn kein erreichbares Lager den Materialtyp hat
+     * @see StorageNode#getFreeCapacity
+     */
+    public StorageNode findPutAway(Node from, int materialType, int units) {
+        return find(from, materialType, units, StorageNode::getFreeCapacity);
+    }
+
+    /**
+     * Waehlt das Lager an dem Waren abgeholt werden
+     *
+     * @param from         Node an der die Fahrt beginnt
+     * @param materialType Materialtyp der Waren
+     * @param units        Anzahl der Einheiten
+     * @return das naechste Lager mit genug Bestand, sonst das naechste mit etwas Bestand, sonst das naechste
+     * ueberhaupt; {@code null} wenn kein erreichbares Lager den Materialtyp hat
+     * @see StorageNode#getAvailableAmount
+     */
+    public StorageNode findPick(Node from, int materialType, int units) {
+        return find(from, materialType, units, StorageNode::getAvailableAmount);
+    }
+
+    /**
+     * Sucht das beste Lager: zuerst nach Stufe (genug, etwas, nichts von {@code level}), innerhalb einer Stufe nach
+     * Wegstrecke. Liegt {@code from} nicht im Wegenetz zaehlt nur die Stufe.
+     */
+    private StorageNode find(Node from, int materialType, int units, ToIntFunction<StorageNode> level) {
+        List<StorageNode> candidates = getStorageNodes(materialType);
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        NavigationGraph graph = Map.getMap().getNavigationGraph();
+        boolean located = graph.contains(from);
+        boolean searched = false;
+
+        try (PathFinder pathFinder = PathFinder.acquire()) {
+            StorageNode best = null;
+            int bestRank = Integer.MAX_VALUE;
+            long bestDistance = Long.MAX_VALUE;
+            for (StorageNode n : candidates) {
+                if (!graph.contains(n)) {
+                    continue;
+                }
+                int available = level.applyAsInt(n);
+                int rank = available >= units ? 0 : available > 0 ? 1 : 2;
+                if (rank > bestRank) {
+                    continue;
+                }
+                if (candidates.size() == 1) {
+                    return n;
+                }
+                long distance = 0;
+                if (located) {
+                    if (!searched) {
+                        pathFinder.search(graph.getGraph(), graph.indexOf(from), -1);
+                        searched = true;
+                    }
+                    int index = graph.indexOf(n);
+                    if (!pathFinder.isReached(index)) {
+                        continue;
+                    }
+                    distance = pathFinder.getDistance(index);
+                }
+                if (rank < bestRank || distance < bestDistance) {
+                    best = n;
+                    bestRank = rank;
+                    bestDistance = distance;
+                }
+            }
+            return best;
+        }
+    }
+
+    private static class StorageIndexHolder {
+        private static final StorageIndex INSTANCE = new StorageIndex();
+    }
+}
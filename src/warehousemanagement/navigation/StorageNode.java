@@ -1,51 +1,79 @@
 package warehousemanagement.navigation;
 
 import warehousemanagement.DataConnection;
-import warehousemanagement.gui.StorageNodeConfiguration;
+import warehousemanagement.simulation.Simulation;
 
-import java.awt.*;
-import java.awt.event.MouseEvent;
-import java.awt.event.MouseListener;
-import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Erweitert die {@link Node} um die Möglichkeit Waren zu lagern. Roboter können an diesen Nodes Waren
- * abholen oder abgeben
+ * abholen oder abgeben.<br>
+ * Ein Lager hat mehrere Ladeplaetze ({@link StorageNode#getBays()}) an denen gleichzeitig Roboter arbeiten koennen. Sind
+ * alle belegt stellen sich weitere Roboter in der {@link NodeAccessQueue} an, ein frei werdender Platz wird direkt an
+ * den ersten wartenden Roboter uebergeben, so kann kein spaeter ankommender Roboter vordraengeln. Belegung und
+ * Warteschlange werden ueber die Zeit der {@link Simulation} gemittelt, daran laesst sich ablesen wo weitere
+ * Ladeplaetze helfen.<br>
+ * Der Bestand wird im {@link Inventory} atomar gefuehrt. Roboter reservieren Waren mit
+ * {@link StorageNode#reserveUnits} oder Platz mit {@link StorageNode#reserveSpace} bevor sie losfahren, so findet kein
+ * Roboter am Ziel weniger vor als erwartet.
  */
-public class StorageNode extends Node implements MouseListener {
+public class StorageNode extends Node {
 
     /**
-     * Hier werden Roboter gespeichert wenn sie warten müssen bis die Node freigegeben wird.
+     * Anzahl der Ladeplaetze neuer Lager, einstellbar ueber die System-Property {@code warehouse.storage.bays}
      */
-    final ArrayList<Robot> robotQueue;
+    static final int DEFAULT_BAYS = Math.max(1, Math.min(Integer.getInteger("warehouse.storage.bays", 4), ReservationTable.MAX_CAPACITY));
+
+    /**
+     * Vergibt die Ladeplaetze, hier warten Roboter bis ein Ladeplatz frei wird.
+     */
+    private final NodeAccessQueue accessQueue;
+
+    /**
+     * Die Tickets der Roboter die einen Ladeplatz belegen oder darauf warten
+     */
+    private final ConcurrentHashMap<Robot, NodeAccessQueue.Ticket> tickets;
+
+    /**
+     * Roboter die warten bis die Node ueberhaupt wieder Arbeit hat
+     *
+     * @see StorageNode#isAccessible
+     */
+    private final ConcurrentLinkedQueue<Robot> idleRobots;
+
     /**
      * Repräsentiert den Materialtyp der in dieser StorageNode gelagert wird.
      *
      * @see DataConnection#getMaterialType
      */
-    private int materialType;
+    private volatile int materialType;
     /**
-     * Gibt an wieviel Waren aktuell im Lager sind.
+     * Gibt an wieviel Waren aktuell im Lager sind und was davon reserviert ist.
      */
-    int amount;
+    private final Inventory inventory;
     /**
      * Gibt an wieviele Einheiten in das Lager reinpassen.
      */
     private final int storageSize;
     /**
-     * Gibt an ob die StorageNode gerade von einem Roboter blockiert wird.
+     * Ein stillgelegtes Lager nimmt keine Waren mehr auf, der {@link SlottingOptimizer} lagert es gerade aus.
      */
-    private boolean blocked;
+    private volatile boolean retired;
 
     public StorageNode(int id, int x, int y, int width, int height) {
-        super(id, x, y, width, height);
+        this(id, x, y, width, height, NodeKind.STORAGE);
+    }
+
+    StorageNode(int id, int x, int y, int width, int height, NodeKind kind) {
+        super(id, x, y, width, height, kind);
         materialType = 0;
         storageSize = 100;
-        amount = 0;
-        blocked = false;
-        robotQueue = new ArrayList<>();
-
-        addMouseListener(this);
+        inventory = new Inventory(this);
+        Simulation simulation = Simulation.getSimulation();
+        accessQueue = new NodeAccessQueue(DEFAULT_BAYS, simulation::currentTimeMillis);
+        tickets = new ConcurrentHashMap<>();
+        idleRobots = new ConcurrentLinkedQueue<>();
     }
 
     /**
@@ -67,8 +95,10 @@ public class StorageNode extends Node implements MouseListener {
      */
     public void setMaterialType(int materialType) {
         if (DataConnection.getDataConnection().isValidMaterialType(materialType)) {
-            if (amount == 0) {
+            if (getAmount() == 0) {
+                int previous = this.materialType;
                 this.materialType = materialType;
+                materialTypeChanged(previous, materialType);
             } else {
                 throw new RuntimeException("Kann materialType nicht ändern wenn noch Waren im Lager sind");
             }
@@ -77,13 +107,41 @@ public class StorageNode extends Node implements MouseListener {
         }
     }
 
+    /**
+     * Haelt den {@link StorageIndex} aktuell wenn sich der Materialtyp aendert
+     *
+     * @param previous bisheriger Materialtyp
+     * @param current  neuer Materialtyp
+     */
+    void materialTypeChanged(int previous, int current) {
+        StorageIndex.getStorageIndex().update(this, previous, current);
+    }
+
     /**
      * Gibt zurück wie viel Waren aktuell im Lager sind
      *
      * @return Menge der Waren im Lager
      */
     public int getAmount() {
-        return amount;
+        return inventory.getAmount();
+    }
+
+    /**
+     * Gibt zurück wie viel Waren im Lager sind die noch kein Roboter reserviert hat
+     *
+     * @return verfuegbare Menge
+     */
+    public int getAvailableAmount() {
+        return inventory.getAvailable();
+    }
+
+    /**
+     * Setzt den Bestand, zum Beispiel fuer ein neues {@link warehousemanagement.Shipment}, Reservierungen verfallen
+     *
+     * @param amount neuer Bestand
+     */
+    void setAmount(int amount) {
+        inventory.set(amount);
     }
 
     /**
@@ -95,52 +153,263 @@ public class StorageNode extends Node implements MouseListener {
         return storageSize;
     }
 
+    /**
+     * Gibt zurueck wie viele Einheiten das Lager gerade insgesamt aufnehmen kann
+     *
+     * @return Kapazitaet
+     */
+    int getCapacity() {
+        return retired ? 0 : storageSize;
+    }
+
+    /**
+     * Legt das Lager still oder nimmt es wieder in Betrieb, ein stillgelegtes Lager hat keine Kapazitaet mehr, Waren
+     * koennen aber weiter entnommen werden
+     *
+     * @param retired {@code true} um das Lager stillzulegen
+     */
+    void setRetired(boolean retired) {
+        this.retired = retired;
+    }
+
+    boolean isRetired() {
+        return retired;
+    }
+
+    /**
+     * Gibt an ob das Lager leer ist und kein Roboter Waren oder Platz darin reserviert hat
+     *
+     * @return {@code true} wenn das Lager ungenutzt ist
+     */
+    boolean isUnused() {
+        return inventory.isUnused();
+    }
+
+    /**
+     * Gibt zurueck wie viele Einheiten noch in das Lager passen, reservierter Platz zaehlt als belegt
+     *
+     * @return freier Platz
+     */
+    public int getFreeCapacity() {
+        return inventory.getFree(getCapacity());
+    }
+
     /**
      * Setzt den Materialtyp zurück auf null, nur möglich wenn das Warenlager leer ist
      */
     public void resetMaterialType() {
         if (getAmount() == 0) {
+            int previous = this.materialType;
             this.materialType = 0;
+            materialTypeChanged(previous, 0);
         } else {
             throw new RuntimeException("Kann Materialtype von StorageNode nicht zurücksetzen wenn Waren im Lager sind");
         }
     }
 
+    /**
+     * Versucht einen Ladeplatz zu belegen. Ist keiner frei oder warten schon andere Roboter stellt sich der Roboter an
+     * und wird mit {@link Robot#wakeUp} geweckt sobald ihm ein Ladeplatz uebergeben wurde. Ein Roboter der schon wartet
+     * wird nicht erneut eingereiht.
+     *
+     * @param robot der Roboter der be- oder entladen will
+     * @return {@code true} wenn der Roboter einen Ladeplatz hat und ihn mit {@link StorageNode#leaveNode} wieder
+     * freigeben muss
+     */
     boolean accessNode(Robot robot) {
-        if (blocked) {
-            robotQueue.add(robot);
-            return false;
-        } else {
-            blocked = true;
-            return true;
+        NodeAccessQueue.Ticket ticket = tickets.get(robot);
+        if (ticket != null) {
+            return ticket.isGranted();
         }
+        if (!isAccessible()) {
+            //Erst einreihen und dann erneut pruefen, sonst geht ein gleichzeitiges wakeAll() verloren
+            idleRobots.offer(robot);
+            if (!isAccessible() || !idleRobots.remove(robot)) {
+                return false;
+            }
+        }
+        ticket = accessQueue.tryAcquire(robot, robot::wakeUp);
+        tickets.put(robot, ticket);
+        return ticket.isGranted();
     }
 
-    void leaveNode() {
-        blocked = false;
-        if (robotQueue.size() != 0) {
-            synchronized (robotQueue.get(0)) {
-                robotQueue.get(0).notify();
-            }
+    /**
+     * Gibt an ob Roboter gerade ueberhaupt an diese Node duerfen, unabhaengig von den Ladeplaetzen
+     *
+     * @return {@code true} wenn Ladeplaetze vergeben werden
+     */
+    boolean isAccessible() {
+        return true;
+    }
+
+    /**
+     * Gibt den Ladeplatz des Roboters frei, wartet ein anderer Roboter wird er ihm direkt uebergeben
+     *
+     * @param robot der Roboter
+     */
+    void leaveNode(Robot robot) {
+        accessQueue.release(tickets.remove(robot));
+    }
+
+    /**
+     * Wird aufgerufen wenn ein wartender Roboter nach dem Aufwecken doch nicht be- oder entlaedt, er verliert seinen
+     * Platz in der Warteschlange und ein bereits uebergebener Ladeplatz geht an den naechsten
+     *
+     * @param robot der Roboter
+     */
+    void cancel(Robot robot) {
+        idleRobots.remove(robot);
+        NodeAccessQueue.Ticket ticket = tickets.remove(robot);
+        if (ticket != null && !accessQueue.cancel(ticket)) {
+            accessQueue.release(ticket);
         }
     }
 
+    /**
+     * Weckt alle Roboter die darauf warten dass die Node wieder Arbeit hat, sie entscheiden danach neu was sie tun
+     */
+    void wakeAll() {
+        Robot robot;
+        while ((robot = idleRobots.poll()) != null) {
+            robot.wakeUp();
+        }
+    }
+
+    public int getBays() {
+        return accessQueue.getCapacity();
+    }
+
+    /**
+     * Setzt die Anzahl der Ladeplaetze, zusaetzliche Ladeplaetze werden sofort an wartende Roboter vergeben. Werden es
+     * weniger, arbeiten die Roboter auf den wegfallenden Ladeplaetzen noch zu Ende.
+     *
+     * @param bays neue Anzahl, mindestens 1 und hoechstens {@link ReservationTable#MAX_CAPACITY}
+     * @throws RuntimeException bei einer ungueltigen Anzahl
+     */
+    public void setBays(int bays) {
+        if (bays < 1 || bays > ReservationTable.MAX_CAPACITY) {
+            throw new RuntimeException("Ungültige Anzahl an Ladeplätzen");
+        }
+        accessQueue.setCapacity(bays);
+    }
+
+    /**
+     * Gibt die Anzahl der Ladeplaetze zurueck die gerade belegt oder an einen wartenden Roboter uebergeben sind
+     *
+     * @return belegte Ladeplaetze
+     */
+    public int getOccupiedBays() {
+        return accessQueue.getOccupied();
+    }
+
+    public int getQueueLength() {
+        return accessQueue.getQueueLength();
+    }
+
+    public int getMaxQueueLength() {
+        return accessQueue.getMaxQueueLength();
+    }
+
+    /**
+     * Gibt zurueck wie viele Ladeplaetze seit {@link StorageNode#resetStatistics} im Mittel belegt waren
+     *
+     * @return mittlere Belegung, zwischen 0 und {@link StorageNode#getBays()}
+     */
+    public double getAverageOccupancy() {
+        return accessQueue.getAverageOccupancy();
+    }
+
+    /**
+     * Gibt zurueck wie viele Roboter seit {@link StorageNode#resetStatistics} im Mittel gewartet haben
+     *
+     * @return mittlere Laenge der Warteschlange
+     */
+    public double getAverageQueueLength() {
+        return accessQueue.getAverageQueueLength();
+    }
+
+    /**
+     * Gibt die Anzahl der vergebenen Ladeplaetze zurueck
+     *
+     * @return Anzahl der Zugriffe
+     */
+    public long getAccesses() {
+        return accessQueue.getGrants();
+    }
+
+    /**
+     * Gibt zurueck wie oft sich ein Roboter anstellen musste
+     *
+     * @return Anzahl der Wartevorgaenge
+     */
+    public long getWaits() {
+        return accessQueue.getWaits();
+    }
+
+    /**
+     * Gibt die Warteschlange der Ladeplaetze zurueck, zum Beispiel fuer die Verteilung der Wartezeiten
+     *
+     * @return Warteschlange dieser Node
+     */
+    public NodeAccessQueue getAccessQueue() {
+        return accessQueue;
+    }
+
+    /**
+     * Gibt die Anzahl der Reservierungen von Waren oder Platz zurueck
+     *
+     * @return Anzahl der Reservierungen
+     */
+    public long getReservations() {
+        return inventory.getReservations();
+    }
+
+    /**
+     * Gibt zurueck welcher Anteil der Reservierungen weniger bekommen hat als angefragt
+     *
+     * @return Konfliktrate zwischen 0 und 1
+     */
+    public double getReservationConflictRate() {
+        long reservations = inventory.getReservations();
+        return reservations == 0 ? 0 : (double) inventory.getConflicts() / reservations;
+    }
+
+    /**
+     * Setzt alle Messwerte zurueck, die Messung beginnt ab der aktuellen Simulationszeit
+     */
+    public void resetStatistics() {
+        accessQueue.resetStatistics();
+        inventory.resetStatistics();
+    }
+
     /**
      * Kontrolliert ob die Lagereinheit den richtigen Materialtyp hat, und lädt dann die angegebene Menge ein
      *
      * @param materialType Type der Ware die eingelagert werden soll
      * @param amount       Menge der Ware die eingeladen werden soll
-     * @throws RuntimeException Wenn die Lagereinheit nicht den richtigen Materialtyp hat
+     * @throws RuntimeException Wenn die Lagereinheit nicht den richtigen Materialtyp hat oder nicht genug Platz frei ist
      */
     public void loadItems(int materialType, int amount) {
-        if (materialType != getMaterialType()) {
-            throw new RuntimeException("Falscher Materialtyp");
-        }
-        if (this.amount + amount <= storageSize) {
-            this.amount += amount;
+        checkLoad(materialType);
+        if (amount > 0 && inventory.add(amount, amount, getCapacity()) == 0) {
+            throw new RuntimeException("Lager hat nicht genug Platz");
         }
     }
 
+    /**
+     * Laedt so viele Einheiten ein wie in einem Zugriff moeglich sind, hoechstens {@code max} und hoechstens so viele
+     * wie noch Platz ist
+     *
+     * @param materialType Type der Ware die eingelagert werden soll
+     * @param max          Menge die der Roboter abgeben will
+     * @return tatsaechlich eingeladene Menge
+     * @see StorageNode#getFreeCapacity
+     */
+    public int loadUpTo(int materialType, int max) {
+        checkLoad(materialType);
+        return inventory.add(1, max, getCapacity());
+    }
+
     /**
      * Kontrolliert ob genug Material im Lager ist um die angefragte Menge auszuladen
      *
@@ -148,55 +417,163 @@ public class StorageNode extends Node implements MouseListener {
      * @throws RuntimeException Wenn im Lager weniger Materialien sind als der Roboter benötigt
      */
     public void unloadItems(int amount) {
-        if (this.amount >= amount) {
-            this.amount -= amount;
-        } else {
+        checkUnload();
+        if (amount > 0 && inventory.remove(amount, amount) == 0) {
             throw new RuntimeException("Lager hat nicht genug Material");
         }
     }
 
-    @Override
-    public void mouseClicked(MouseEvent e) {
-        if (e.getY() > getHeight() / 2) {
-            new StorageNodeConfiguration(this, e.getXOnScreen(), e.getYOnScreen());
-        }
+    /**
+     * Laedt so viele Einheiten aus wie in einem Zugriff moeglich sind, hoechstens {@code max} und hoechstens so viele
+     * wie im Lager sind
+     *
+     * @param max Menge die der Roboter aufnehmen kann
+     * @return tatsaechlich ausgeladene Menge
+     */
+    public int unloadUpTo(int max) {
+        checkUnload();
+        return inventory.remove(1, max);
     }
 
-    @Override
-    public void mousePressed(MouseEvent e) {
+    /**
+     * Reserviert Waren fuer einen Roboter, bis er sie mit {@link StorageNode#commitUnits} abholt oder mit
+     * {@link StorageNode#cancelUnits} freigibt kann kein anderer sie nehmen
+     *
+     * @param max gewuenschte Menge
+     * @return reservierte Menge, kann kleiner als {@code max} sein
+     */
+    public int reserveUnits(int max) {
+        return inventory.reserveUnits(max);
     }
 
-    @Override
-    public void mouseReleased(MouseEvent e) {
+    /**
+     * Reserviert Platz fuer einen Roboter, bis er ihn mit {@link StorageNode#commitSpace} belegt oder mit
+     * {@link StorageNode#cancelSpace} freigibt kann kein anderer ihn belegen
+     *
+     * @param max gewuenschter Platz
+     * @return reservierter Platz, kann kleiner als {@code max} sein
+     */
+    public int reserveSpace(int max) {
+        return inventory.reserveSpace(max, getCapacity());
     }
 
-    @Override
-    public void mouseEntered(MouseEvent e) {
+    /**
+     * Wie {@link StorageNode#reserveUnits}, bekommt der Roboter nichts wird er mit {@link Robot#wakeUp} geweckt sobald
+     * Reservierungen freigegeben werden oder sich der Zustand der Node aendert
+     *
+     * @param robot der Roboter
+     * @param max   gewuenschte Menge
+     * @return reservierte Menge, {@code 0} wenn der Roboter warten muss
+     */
+    int reserveUnitsOrWait(Robot robot, int max) {
+        int n = reserveUnits(max);
+        if (n == 0) {
+            //Erst einreihen und dann erneut versuchen, sonst geht eine gleichzeitige Freigabe verloren
+            idleRobots.offer(robot);
+            n = reserveUnits(max);
+            if (n > 0) {
+                idleRobots.remove(robot);
+            }
+        }
+        return n;
     }
 
-    @Override
-    public void mouseExited(MouseEvent e) {
+    /**
+     * Wie {@link StorageNode#reserveSpace}, bekommt der Roboter nichts wird er mit {@link Robot#wakeUp} geweckt sobald
+     * Reservierungen freigegeben werden oder sich der Zustand der Node aendert
+     *
+     * @param robot der Roboter
+     * @param max   gewuenschter Platz
+     * @return reservierter Platz, {@code 0} wenn der Roboter warten muss
+     */
+    int reserveSpaceOrWait(Robot robot, int max) {
+        int n = reserveSpace(max);
+        if (n == 0) {
+            idleRobots.offer(robot);
+            n = reserveSpace(max);
+            if (n > 0) {
+                idleRobots.remove(robot);
+            }
+        }
+        return n;
     }
 
-    @Override
-    public void paintComponent(Graphics g) {
-        int width = getWidth();
-        int height = getHeight();
+    /**
+     * Holt reservierte Waren ab
+     *
+     * @param units reservierte Menge
+     * @return abgeholte Menge, gleich {@code units}
+     * @throws RuntimeException wenn nicht so viel reserviert ist oder gerade nicht ausgeladen werden darf
+     */
+    public int commitUnits(int units) {
+        checkUnload();
+        inventory.commitUnits(units);
+        return units;
+    }
 
-        int gap = (int) (0.05 * height);
+    /**
+     * Belegt reservierten Platz
+     *
+     * @param materialType Type der Ware die eingelagert wird
+     * @param units        Menge fuer die Platz reserviert ist
+     * @throws RuntimeException wenn nicht so viel reserviert ist oder der Materialtyp nicht passt
+     */
+    public void commitSpace(int materialType, int units) {
+        checkLoad(materialType);
+        inventory.commitSpace(units);
+    }
 
-        g.setColor(Color.BLACK);
-        g.fillRect(0, (int) (0.5 * height), width, (int) (0.5 * height));
-        g.setColor(Color.LIGHT_GRAY);
-        g.fillRect(gap, (int) (0.5 * height) + gap, width - 2 * gap, (int) (0.5 * height) - 2 * gap);
+    /**
+     * Gibt reservierte Waren frei, wartende Roboter werden geweckt
+     *
+     * @param units reservierte Menge
+     */
+    public void cancelUnits(int units) {
+        if (units > 0) {
+            inventory.cancelUnits(units);
+            wakeAll();
+        }
+    }
 
-        g.setColor(Color.BLACK);
-        g.setFont(new Font("Arial", Font.PLAIN, (int) (0.3 * height)));
-        g.drawString(DataConnection.getDataConnection().getMaterialType(getMaterialType()), 2 * gap, height - (int) (2.5 * gap));
+    /**
+     * Gibt reservierten Platz frei, wartende Roboter werden geweckt
+     *
+     * @param units reservierter Platz
+     */
+    public void cancelSpace(int units) {
+        if (units > 0) {
+            inventory.cancelSpace(units);
+            wakeAll();
+        }
+    }
 
-        if (robots > 0) {
-            g.setColor(Color.BLACK);
-            g.fillRect((int) (0.5 * width) - 10, (int) (0.15 * height), 20, 20);
+    /**
+     * Wird vor jedem Einladen aufgerufen
+     *
+     * @param materialType Type der Ware die eingelagert werden soll
+     * @throws RuntimeException wenn nicht eingeladen werden darf
+     */
+    void checkLoad(int materialType) {
+        if (materialType != getMaterialType()) {
+            throw new RuntimeException("Falscher Materialtyp");
         }
     }
+
+    /**
+     * Wird vor jedem Ausladen aufgerufen
+     *
+     * @throws RuntimeException wenn nicht ausgeladen werden darf
+     */
+    void checkUnload() {
+    }
+
+    /**
+     * Wird nach jeder Aenderung des Bestands aufgerufen, genau einmal je Aenderung und auf dem Thread der sie ausgefuehrt
+     * hat
+     *
+     * @param before Bestand vorher
+     * @param after  Bestand nachher
+     */
+    void amountChanged(int before, int after) {
+    }
 }
@@ -0,0 +1,178 @@
+package warehousemanagement.navigation;
+
+import warehousemanagement.Map;
+import warehousemanagement.Shipment;
+import warehousemanagement.simulation.Simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Entscheidet fuer welche {@link DeliveryNode} ein freier Roboter als naechstes arbeitet. Unter allen DeliveryNodes die
+ * gerade Roboter brauchen und die der Roboter erreichen kann wird die mit dem kleinsten Puffer bis zur Frist des
+ * {@link Shipment}s gewaehlt (earliest deadline first). Ohne dringende Arbeit bleibt der Roboter an seiner
+ * Heimat-Node.<br>
+ * Damit Roboter nicht zwischen zwei fast gleich dringenden Nodes hin und her fahren wird nur gewechselt wenn die andere
+ * Node um mindestens {@link TaskPrioritizer#SWITCH_MARGIN_MILLIS} dringender ist.
+ *
+ * @see DeliveryNode#getSlackMillis
+ */
+public class TaskPrioritizer {
+
+    public static final long SWITCH_MARGIN_MILLIS = 5000;
+
+    /**
+     * Zuletzt berechneter Puffer fuer jedes Shipment das gerade abgefertigt wird
+     */
+    private final ConcurrentHashMap<Shipment, Long> slack;
+
+    private final AtomicLong minimumSlack;
+
+    private final AtomicLong completed;
+
+    private final AtomicLong missedDeadlines;
+
+    private TaskPrioritizer() {
+        slack = new ConcurrentHashMap<>();
+        minimumSlack = new AtomicLong(Long.MAX_VALUE);
+        completed = new AtomicLong();
+        missedDeadlines = new AtomicLong();
+    }
+
+    public static TaskPrioritizer getTaskPrioritizer() {
+        return TaskPrioritizerHolder.INSTANCE;
+    }
+
+    /**
+     * Waehlt die DeliveryNode fuer die ein freier Roboter als naechstes arbeitet
+     *
+     * @param position Node an der der Roboter steht
+     * @param current  DeliveryNode fuer die der Roboter bisher gearbeitet hat
+     * @param home     DeliveryNode an der der Roboter eingesetzt wurde
+     * @return die dringendste erreichbare DeliveryNode, {@code current} wenn sie kaum weniger dringend ist oder
+     * {@code home} wenn nirgends Roboter gebraucht werden
+     */
+    DeliveryNode select(Node position, DeliveryNode current, DeliveryNode home) {
+        Map m = Map.getMap();
+        List<DeliveryNode> docks;
+        synchronized (m.deliveryNodes) {
+            docks = new ArrayList<>(m.deliveryNodes);
+        }
+        return select(docks, m.getNavigationGraph(), position, current, home);
+    }
+
+    /**
+     * Wie {@link TaskPrioritizer#select(Node, DeliveryNode, DeliveryNode)}, aber unter den gegebenen DeliveryNodes.
+     * Sobald eine DeliveryNode Roboter braucht wird einmal der Baum der kuerzesten Wege vom Roboter aus berechnet, darin
+     * ist fuer jede DeliveryNode abzulesen ob sie erreichbar ist.
+     *
+     * @param docks    die DeliveryNodes unter denen gewaehlt wird
+     * @param graph    Wegenetz ueber das der Roboter die DeliveryNodes erreichen muss
+     * @param position Node an der der Roboter steht
+     * @param current  DeliveryNode fuer die der Roboter bisher gearbeitet hat
+     * @param home     DeliveryNode an der der Roboter eingesetzt wurde
+     * @return die dringendste erreichbare DeliveryNode, {@code current} wenn sie kaum weniger dringend ist oder
+     * {@code home} wenn nirgends Roboter gebraucht werden
+     */
+    public DeliveryNode select(List<DeliveryNode> docks, NavigationGraph graph, Node position, DeliveryNode current,
+                               DeliveryNode home) {
+        long now = Simulation.getSimulation().currentTimeMillis();
+        DeliveryNode best = null;
+        long bestSlack = Long.MAX_VALUE;
+        long currentSlack = Long.MAX_VALUE;
+        try (PathFinder pathFinder = PathFinder.acquire()) {
+            boolean searched = false;
+            for (DeliveryNode n : docks) {
+                Shipment s = n.getCurrentShipment();
+                if (s == null || !n.needsWork() || !graph.contains(n)) {
+                    continue;
+                }
+                if (!searched) {
+                    pathFinder.search(graph.getGraph(), graph.indexOf(position), -1);
+                    searched = true;
+                }
+                if (!pathFinder.isReached(graph.indexOf(n))) {
+                    continue;
+                }
+                //Andere Nodes werden so bewertet als wuerde der Roboter dort schon mitarbeiten, sonst wechselt er
+                //hin und her weil jeder zusaetzliche Roboter den Puffer vergroessert
+                long nodeSlack = n == current ? n.getSlackMillis(now) : n.getSlackMillis(now, n.getWorkers() + 1);
+                record(s, nodeSlack);
+                if (n == current) {
+                    currentSlack = nodeSlack;
+                }
+                if (nodeSlack < bestSlack) {
+                    best = n;
+                    bestSlack = nodeSlack;
+                }
+            }
+        }
+
+        if (best == null) {
+            return home;
+        }
+        if (best != current && currentSlack != Long.MAX_VALUE && currentSlack - SWITCH_MARGIN_MILLIS <= bestSlack) {
+            return current;
+        }
+        return best;
+    }
+
+    /**
+     * Wird aufgerufen wenn ein Shipment fertig abgefertigt ist
+     *
+     * @param node die DeliveryNode an der es abgefertigt wurde
+     * @param s    das Shipment
+     */
+    void completed(DeliveryNode node, Shipment s) {
+        slack.remove(s);
+        long finalSlack = 1000L * (s.getEta() + s.getLoadingTime()) - Simulation.getSimulation().currentTimeMillis();
+        minimumSlack.accumulateAndGet(finalSlack, Math::min);
+        completed.incrementAndGet();
+        if (finalSlack < 0) {
+            missedDeadlines.incrementAndGet();
+        }
+    }
+
+    private void record(Shipment s, long nodeSlack) {
+        slack.put(s, nodeSlack);
+        minimumSlack.accumulateAndGet(nodeSlack, Math::min);
+    }
+
+    /**
+     * Gibt den zuletzt berechneten Puffer eines Shipments zurueck das gerade abgefertigt wird
+     *
+     * @param s das Shipment
+     * @return Puffer in Millisekunden oder {@code null} wenn er noch nicht berechnet wurde
+     */
+    public Long getSlack(Shipment s) {
+        return slack.get(s);
+    }
+
+    /**
+     * Gibt den kleinsten Puffer zurueck der bisher fuer ein Shipment berechnet wurde
+     *
+     * @return Puffer in Millisekunden, {@link Long#MAX_VALUE} wenn noch keiner berechnet wurde
+     */
+    public long getMinimumSlack() {
+        return minimumSlack.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    /**
+     * Gibt die Anzahl der Shipments zurueck die erst nach ihrer Frist fertig geworden sind
+     *
+     * @return Anzahl verpasster Fristen
+     */
+    public long getMissedDeadlines() {
+        return missedDeadlines.get();
+    }
+
+    private static class TaskPrioritizerHolder {
+        private static final TaskPrioritizer INSTANCE = new TaskPrioritizer();
+    }
+}
@@ -0,0 +1,107 @@
+package warehousemanagement.navigation;
+
+import java.util.LinkedHashMap;
+
+/**
+ * Behaelter eines {@link Robot}s in dem er mehrere Materialtypen gleichzeitig transportieren kann. Die Summe aller
+ * Einheiten ist durch die Kapazitaet begrenzt.
+ */
+class Tote {
+
+    private final int capacity;
+
+    /**
+     * Menge je Materialtyp in der Reihenfolge in der die Waren aufgenommen wurden, enthaelt keine leeren Eintraege
+     */
+    private final LinkedHashMap<Integer, Integer> items;
+
+    private int total;
+
+    Tote(int capacity) {
+        this.capacity = capacity;
+        items = new LinkedHashMap<>();
+        total = 0;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gibt die Summe aller Einheiten im Behaelter zurueck
+     *
+     * @return Anzahl der Einheiten
+     */
+    int getTotal() {
+        return total;
+    }
+
+    int getFree() {
+        return capacity - total;
+    }
+
+    boolean isEmpty() {
+        return total == 0;
+    }
+
+    /**
+     * Gibt die Menge eines Materialtyps im Behaelter zurueck
+     *
+     * @param materialType der Materialtyp
+     * @return Anzahl der Einheiten, {@code 0} wenn der Materialtyp nicht im Behaelter ist
+     */
+    int getAmount(int materialType) {
+        return items.getOrDefault(materialType, 0);
+    }
+
+    /**
+     * Gibt den Materialtyp zurueck der zuerst aufgenommen wurde
+     *
+     * @return Materialtyp oder {@code 0} wenn der Behaelter leer ist
+     */
+    int getMaterialType() {
+        return items.isEmpty() ? 0 : items.keySet().iterator().next();
+    }
+
+    /**
+     * Legt Einheiten in den Behaelter
+     *
+     * @param materialType Materialtyp der Einheiten
+     * @param units        Anzahl der Einheiten
+     * @throws RuntimeException wenn die Einheiten nicht in den Behaelter passen
+     */
+    void add(int materialType, int units) {
+        if (units > getFree()) {
+            throw new RuntimeException("Nicht genug Platz im Behaelter");
+        }
+        if (units > 0) {
+            items.merge(materialType, units, Integer::sum);
+            total += units;
+        }
+    }
+
+    /**
+     * Nimmt Einheiten eines Materialtyps aus dem Behaelter
+     *
+     * @param materialType Materialtyp der Einheiten
+     * @param units        Anzahl der Einheiten
+     * @throws RuntimeException wenn weniger Einheiten im Behaelter sind
+     */
+    void remove(int materialType, int units) {
+        int amount = getAmount(materialType);
+        if (units > amount) {
+            throw new RuntimeException("Nicht genug Material im Behaelter");
+        }
+        if (units == amount) {
+            items.remove(materialType);
+        } else {
+            items.put(materialType, amount - units);
+        }
+        total -= units;
+    }
+
+    @Override
+    public String toString() {
+        return items.toString();
+    }
+}
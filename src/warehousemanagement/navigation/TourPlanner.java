@@ -0,0 +1,171 @@
+package warehousemanagement.navigation;
+
+import warehousemanagement.Map;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Plant Sammeltouren ueber mehrere {@link StorageNode}s. Ein {@link Robot} faehrt von seiner aktuellen Node alle
+ * Stopps ab und endet an der {@link DeliveryNode} fuer die er sammelt. Die Reihenfolge der Stopps wird mit einer
+ * Heuristik fuer das Problem des Handlungsreisenden bestimmt: zuerst wird immer der naechste noch nicht besuchte Stopp
+ * angefahren (Nearest Neighbour), danach werden so lange Teilstuecke der Tour umgedreht wie sie dadurch kuerzer wird
+ * (2-opt). Start und Ende bleiben dabei fest.
+ */
+public class TourPlanner {
+
+    /**
+     * Maximale Anzahl an Stopps einer Tour
+     */
+    static final int MAX_STOPS = 5;
+
+    /**
+     * Abstand fuer Nodes die nicht erreichbar sind, gross genug um nie gewaehlt zu werden ohne beim Addieren
+     * ueberzulaufen
+     */
+    private static final long UNREACHABLE = Long.MAX_VALUE / 4;
+
+    private TourPlanner() {
+    }
+
+    /**
+     * Bestimmt die Reihenfolge der Stopps. Index {@code 0} ist der Start, der letzte Index das Ende der Tour, alle
+     * anderen sind Stopps.
+     *
+     * @param distance symmetrische Abstaende zwischen allen Punkten der Tour
+     * @return die Indizes der Stopps in der Reihenfolge in der sie angefahren werden
+     */
+    public static int[] order(long[][] distance) {
+        int end = distance.length - 1;
+        int[] tour = new int[distance.length];
+        tour[end] = end;
+
+        //Nearest Neighbour ab dem Start
+        boolean[] visited = new boolean[distance.length];
+        for (int i = 1; i < end; i++) {
+            int last = tour[i - 1];
+            int next = -1;
+            for (int stop = 1; stop < end; stop++) {
+                if (!visited[stop] && (next < 0 || distance[last][stop] < distance[last][next])) {
+                    next = stop;
+                }
+            }
+            visited[next] = true;
+            tour[i] = next;
+        }
+
+        //2-opt: Teilstueck tour[i..j] umdrehen wenn die beiden neuen Kanten kuerzer sind als die alten
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 1; i < end - 1; i++) {
+                for (int j = i + 1; j < end; j++) {
+                    long before = distance[tour[i - 1]][tour[i]] + distance[tour[j]][tour[j + 1]];
+                    long after = distance[tour[i - 1]][tour[j]] + distance[tour[i]][tour[j + 1]];
+                    if (after < before) {
+                        reverse(tour, i, j);
+                        improved = true;
+                    }
+                }
+            }
+        }
+
+        int[] stops = new int[end - 1];
+        System.arraycopy(tour, 1, stops, 0, stops.length);
+        return stops;
+    }
+
+    /**
+     * Gibt die Laenge einer Tour zurueck
+     *
+     * @param distance Abstaende wie bei {@link TourPlanner#order}
+     * @param stops    Reihenfolge der Stopps
+     * @return Summe der Abstaende vom Start ueber alle Stopps zum Ende
+     */
+    public static long length(long[][] distance, int[] stops) {
+        long length = 0;
+        int last = 0;
+        for (int stop : stops) {
+            length += distance[last][stop];
+            last = stop;
+        }
+        return length + distance[last][distance.length - 1];
+    }
+
+    /**
+     * Plant eine Sammeltour fuer {@code units} Einheiten eines Materialtyps. Es werden die naechstgelegenen
+     * {@link StorageNode}s mit nicht reserviertem Bestand ausgewaehlt bis sie zusammen genug Einheiten haben,
+     * hoechstens aber {@link TourPlanner#MAX_STOPS}, und in die kuerzeste gefundene Reihenfolge gebracht.
+     *
+     * @param start        Node an der der Roboter steht
+     * @param end          Node an der die Tour endet
+     * @param materialType Materialtyp der gesammelt wird
+     * @param units        Anzahl der Einheiten die gesammelt werden sollen
+     * @return die Stopps in der Reihenfolge in der sie angefahren werden, leer wenn kein Lager Bestand hat
+     */
+    public static List<StorageNode> planPicks(Node start, Node end, int materialType, int units) {
+        NavigationGraph graph = Map.getMap().getNavigationGraph();
+        try (PathFinder pathFinder = PathFinder.acquire()) {
+            List<StorageNode> candidates = new ArrayList<>();
+            for (StorageNode n : StorageIndex.getStorageIndex().getStorageNodes(materialType)) {
+                if (n.getAvailableAmount() > 0 && graph.contains(n)) {
+                    candidates.add(n);
+                }
+            }
+            pathFinder.search(graph.getGraph(), graph.indexOf(start), -1);
+            long[] fromStart = new long[candidates.size()];
+            for (int i = 0; i < candidates.size(); i++) {
+                fromStart[i] = distance(pathFinder, graph.indexOf(candidates.get(i)));
+            }
+            List<Integer> byDistance = new ArrayList<>();
+            for (int i = 0; i < candidates.size(); i++) {
+                byDistance.add(i);
+            }
+            byDistance.sort(Comparator.comparingLong(i -> fromStart[i]));
+
+            List<StorageNode> selected = new ArrayList<>();
+            int stock = 0;
+            for (int i : byDistance) {
+                if (stock >= units || selected.size() == MAX_STOPS || fromStart[i] == UNREACHABLE) {
+                    break;
+                }
+                selected.add(candidates.get(i));
+                stock += candidates.get(i).getAvailableAmount();
+            }
+            if (selected.size() < 2) {
+                return selected;
+            }
+
+            List<Node> points = new ArrayList<>();
+            points.add(start);
+            points.addAll(selected);
+            points.add(end);
+            long[][] distance = new long[points.size()][points.size()];
+            for (int i = 0; i < points.size(); i++) {
+                pathFinder.search(graph.getGraph(), graph.indexOf(points.get(i)), -1);
+                for (int j = 0; j < points.size(); j++) {
+                    distance[i][j] = distance(pathFinder, graph.indexOf(points.get(j)));
+                }
+            }
+
+            List<StorageNode> tour = new ArrayList<>();
+            for (int stop : order(distance)) {
+                tour.add((StorageNode) points.get(stop));
+            }
+            return tour;
+        }
+    }
+
+    private static long distance(PathFinder pathFinder, int index) {
+        return pathFinder.isReached(index) ? pathFinder.getDistance(index) : UNREACHABLE;
+    }
+
+    private static void reverse(int[] tour, int from, int to) {
+        while (from < to) {
+            int swap = tour[from];
+            tour[from++] = tour[to];
+            tour[to--] = swap;
+        }
+    }
+}
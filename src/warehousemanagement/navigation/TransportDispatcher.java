@@ -0,0 +1,347 @@
+package warehousemanagement.navigation;
+
+import warehousemanagement.Map;
+import warehousemanagement.simulation.Simulation;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Zentrale Vergabe der Transportauftraege an alle Roboter. Freie Roboter melden sich mit
+ * {@link TransportDispatcher#requestTask} und bekommen eine Ladung eines {@link TransportTask}s zugewiesen, sobald
+ * es Arbeit gibt. Die Auftraege werden nach dem Puffer ihrer {@link DeliveryNode} bis zur Frist abgearbeitet
+ * ({@link DeliveryNode#getSlackMillis}), jede Ladung bekommt der freie Roboter mit dem kuerzesten Weg zur Quelle.<br>
+ * Mit einer Heimat-Bindung ({@link TransportDispatcher#setHomeAffinity}) wird fuer Roboter die an einer anderen
+ * {@link DeliveryNode} eingesetzt wurden ein Umweg auf den Weg aufgeschlagen, sie helfen also nur wenn sie deutlich
+ * naeher sind.<br>
+ * Ueber die System-Property {@code warehouse.dispatch} kann zwischen {@code central} (Standard) und {@code local}
+ * gewaehlt werden, bei {@code local} entscheidet jeder Roboter selbst ueber den {@link TaskPrioritizer}.
+ */
+public class TransportDispatcher {
+
+    private static final String DISPATCH_PROPERTY = "warehouse.dispatch";
+
+    private static final String AFFINITY_PROPERTY = "warehouse.dispatch.affinity";
+
+    /**
+     * Roboter die gleichzeitig an einer Umlagerung arbeiten duerfen
+     */
+    private static final int RELOCATION_CARRIERS = 2;
+
+    private final boolean central;
+
+    /**
+     * Umweg in Pixeln der fuer Roboter aufgeschlagen wird die nicht an der {@link DeliveryNode} des Auftrags eingesetzt
+     * wurden
+     */
+    private volatile int homeAffinity;
+
+    /**
+     * Auftraege in denen noch Einheiten bewegt werden muessen
+     */
+    private final ArrayList<TransportTask> tasks;
+
+    /**
+     * Freie Roboter in der Reihenfolge in der sie sich gemeldet haben
+     */
+    private final LinkedHashSet<Robot> idle;
+
+    /**
+     * Zuweisungen die der Roboter noch nicht abgeholt hat
+     */
+    private final IdentityHashMap<Robot, Assignment> assignments;
+
+    private long assignedUnits;
+
+    private long completedUnits;
+
+    private TransportDispatcher() {
+        central = !"local".equals(System.getProperty(DISPATCH_PROPERTY, "central"));
+        homeAffinity = Integer.getInteger(AFFINITY_PROPERTY, 0);
+        tasks = new ArrayList<>();
+        idle = new LinkedHashSet<>();
+        assignments = new IdentityHashMap<>();
+    }
+
+    public static TransportDispatcher getTransportDispatcher() {
+        return TransportDispatcherHolder.INSTANCE;
+    }
+
+    /**
+     * Gibt an ob die Roboter ihre Arbeit vom Dispatcher bekommen oder selbst entscheiden
+     *
+     * @return {@code true} wenn die Arbeit zentral vergeben wird
+     */
+    public boolean isCentral() {
+        return central;
+    }
+
+    /**
+     * Setzt den Umweg der fuer Roboter aufgeschlagen wird die an einer anderen {@link DeliveryNode} eingesetzt wurden
+     *
+     * @param pixels Umweg in Pixeln, {@code 0} schaltet die Heimat-Bindung ab
+     */
+    public void setHomeAffinity(int pixels) {
+        homeAffinity = pixels;
+    }
+
+    /**
+     * Nimmt einen neuen Auftrag auf und verteilt ihn an die freien Roboter. Vorher gleicht der
+     * {@link CrossDockMatcher} alle Auftraege ab, passende Ein- und Auslagerungen werden zu Transporten von Tor zu Tor.
+     *
+     * @param task der neue Auftrag
+     */
+    public synchronized void submit(TransportTask task) {
+        if (task.getRemaining() <= 0) {
+            return;
+        }
+        tasks.add(task);
+        tasks.addAll(CrossDockMatcher.getCrossDockMatcher().match(tasks));
+        tasks.removeIf(t -> t.getRemaining() <= 0);
+        match(null);
+    }
+
+    /**
+     * Gibt dem Roboter seine naechste Ladung. Gibt es keine Arbeit wird er als frei gefuehrt und mit
+     * {@link Robot#wakeUp} geweckt sobald ihm eine Ladung zugewiesen wurde.
+     *
+     * @param robot der freie Roboter
+     * @return die Zuweisung oder {@code null} wenn der Roboter warten muss
+     */
+    synchronized Assignment requestTask(Robot robot) {
+        Assignment assignment = assignments.remove(robot);
+        if (assignment != null) {
+            return assignment;
+        }
+        idle.add(robot);
+        match(robot);
+        return assignments.remove(robot);
+    }
+
+    /**
+     * Nimmt einen Auftrag zurueck, schon zugewiesene Ladungen werden noch abgeladen
+     *
+     * @param task der Auftrag
+     */
+    synchronized void withdraw(TransportTask task) {
+        tasks.remove(task);
+    }
+
+    /**
+     * Gibt an ob in dem Auftrag noch Einheiten bewegt werden muessen
+     *
+     * @param task der Auftrag
+     * @return {@code false} wenn er erledigt oder zurueckgenommen ist
+     */
+    synchronized boolean isOpen(TransportTask task) {
+        return tasks.contains(task);
+    }
+
+    /**
+     * Meldet dass der Roboter Einheiten seiner Ladung am Ziel abgeladen hat
+     *
+     * @param task  der Auftrag der Ladung
+     * @param units abgeladene Einheiten
+     */
+    synchronized void completed(TransportTask task, int units) {
+        task.complete(units);
+        completedUnits += units;
+        if (task.isCrossDock()) {
+            CrossDockMatcher.getCrossDockMatcher().transferred(units);
+        }
+        if (task.getRemaining() <= 0) {
+            tasks.remove(task);
+        }
+    }
+
+    /**
+     * Gibt Einheiten zurueck die der Roboter nicht bewegen kann, zum Beispiel weil die Quelle weniger hat als
+     * reserviert wurde. Die Einheiten werden sofort neu vergeben.
+     *
+     * @param task  der Auftrag der Ladung
+     * @param units zurueckgegebene Einheiten
+     */
+    synchronized void release(TransportTask task, int units) {
+        task.unassign(units);
+        match(null);
+    }
+
+    /**
+     * Nimmt einen Roboter der abgeschaltet wird aus der Vergabe, eine noch nicht erledigte Ladung wird wieder frei
+     *
+     * @param robot der Roboter
+     * @param task  der Auftrag seiner Ladung oder {@code null}
+     * @param units noch nicht abgeladene Einheiten der Ladung
+     */
+    synchronized void remove(Robot robot, TransportTask task, int units) {
+        idle.remove(robot);
+        Assignment pending = assignments.remove(robot);
+        if (pending != null) {
+            pending.task.unassign(pending.units);
+        }
+        if (task != null) {
+            task.unassign(units);
+        }
+        match(null);
+    }
+
+    /**
+     * Verteilt die offenen Einheiten ladungsweise an die freien Roboter. Jede Ladung geht an den Auftrag mit dem
+     * kleinsten Puffer, gerechnet mit den schon zugewiesenen Robotern plus dem naechsten. So bekommt ein dringender Auftrag so
+     * lange Roboter bis er nicht mehr dringender ist als der naechste, statt alle freien Roboter auf einmal.
+     * Umlagerungen bekommen nur Roboter wenn kein anderer Auftrag offen ist, und hoechstens
+     * {@link TransportDispatcher#RELOCATION_CARRIERS} gleichzeitig.
+     *
+     * @param requester Roboter der gerade selbst nachfragt und deswegen nicht geweckt werden muss
+     */
+    private void match(Robot requester) {
+        if (idle.isEmpty() || tasks.isEmpty()) {
+            return;
+        }
+        long now = Simulation.getSimulation().currentTimeMillis();
+        List<TransportTask> open = new ArrayList<>();
+        for (TransportTask task : tasks) {
+            //Eine Umlagerung deren Quelle gerade alles fuer Shipments reserviert hat wartet
+            if (task.getOpen() > 0 && (!task.isRelocation() || task.getSource().getAvailableAmount() > 0)) {
+                open.add(task);
+            }
+        }
+        if (open.isEmpty()) {
+            return;
+        }
+
+        //Die Wege sind in beide Richtungen gleich lang, ein Baum von der Quelle aus reicht fuer alle Roboter. Auftraege
+        //mit der gleichen Quelle, etwa die Einlagerungen eines Tores, teilen sich den Baum.
+        NavigationGraph graph = Map.getMap().getNavigationGraph();
+        IdentityHashMap<Node, IdentityHashMap<Robot, Integer>> distances = new IdentityHashMap<>();
+        List<IdentityHashMap<Robot, Long>> costs = new ArrayList<>();
+        try (PathFinder pathFinder = PathFinder.acquire()) {
+            for (TransportTask task : open) {
+                IdentityHashMap<Robot, Integer> distance = distances.get(task.getSource());
+                if (distance == null) {
+                    distance = new IdentityHashMap<>();
+                    pathFinder.search(graph.getGraph(), graph.indexOf(task.getSource()), -1);
+                    for (Robot robot : idle) {
+                        int index = graph.indexOf(robot.getPosition());
+                        if (pathFinder.isReached(index)) {
+                            distance.put(robot, pathFinder.getDistance(index));
+                        }
+                    }
+                    distances.put(task.getSource(), distance);
+                }
+                IdentityHashMap<Robot, Long> cost = new IdentityHashMap<>();
+                for (java.util.Map.Entry<Robot, Integer> e : distance.entrySet()) {
+                    Robot robot = e.getKey();
+                    cost.put(robot, (long) e.getValue()
+                            + (!task.isRelocation() && robot.getHome() != task.getDock() ? homeAffinity : 0));
+                }
+                costs.add(cost);
+            }
+        }
+
+        while (!idle.isEmpty()) {
+            boolean urgent = false;
+            for (int t = 0; t < open.size(); t++) {
+                if (!open.get(t).isRelocation() && open.get(t).getOpen() > 0 && !costs.get(t).isEmpty()) {
+                    urgent = true;
+                    break;
+                }
+            }
+            int next = -1;
+            long nextSlack = Long.MAX_VALUE;
+            for (int t = 0; t < open.size(); t++) {
+                TransportTask task = open.get(t);
+                if (task.getOpen() <= 0 || costs.get(t).isEmpty()) {
+                    continue;
+                }
+                int carriers = (task.getAssigned() + Robot.CAPACITY - 1) / Robot.CAPACITY;
+                if (task.isRelocation() && (urgent || carriers >= RELOCATION_CARRIERS)) {
+                    continue;
+                }
+                long slack = task.isRelocation() ? Long.MAX_VALUE : task.getDock().getSlackMillis(now, carriers + 1);
+                if (next < 0 || slack < nextSlack) {
+                    next = t;
+                    nextSlack = slack;
+                }
+            }
+            if (next < 0) {
+                return;
+            }
+
+            TransportTask task = open.get(next);
+            Robot best = null;
+            long bestCost = Long.MAX_VALUE;
+            for (java.util.Map.Entry<Robot, Long> e : costs.get(next).entrySet()) {
+                if (e.getValue() < bestCost) {
+                    best = e.getKey();
+                    bestCost = e.getValue();
+                }
+            }
+            for (IdentityHashMap<Robot, Long> cost : costs) {
+                cost.remove(best);
+            }
+            idle.remove(best);
+            int units = task.assign(Robot.CAPACITY);
+            assignedUnits += units;
+            assignments.put(best, new Assignment(task, units));
+            if (best != requester) {
+                best.wakeUp();
+            }
+        }
+    }
+
+    /**
+     * Gibt die offenen Auftraege zurueck
+     *
+     * @return Kopie der Auftraege in der Reihenfolge in der sie abgegeben wurden
+     */
+    public synchronized List<TransportTask> getTasks() {
+        return new ArrayList<>(tasks);
+    }
+
+    public synchronized int getIdleRobots() {
+        return idle.size();
+    }
+
+    /**
+     * Gibt die Anzahl der Einheiten zurueck die noch bewegt werden muessen
+     *
+     * @return offene Einheiten aller Auftraege
+     */
+    public synchronized int getBacklog() {
+        int backlog = 0;
+        for (TransportTask task : tasks) {
+            backlog += task.getRemaining();
+        }
+        return backlog;
+    }
+
+    public synchronized long getAssignedUnits() {
+        return assignedUnits;
+    }
+
+    public synchronized long getCompletedUnits() {
+        return completedUnits;
+    }
+
+    /**
+     * Ladung die einem Roboter zugewiesen wurde
+     */
+    static class Assignment {
+
+        final TransportTask task;
+
+        final int units;
+
+        Assignment(TransportTask task, int units) {
+            this.task = task;
+            this.units = units;
+        }
+    }
+
+    private static class TransportDispatcherHolder {
+        private static final TransportDispatcher INSTANCE = new TransportDispatcher();
+    }
+}
@@ -0,0 +1,136 @@
+package warehousemanagement.navigation;
+
+/**
+ * Ein Transportauftrag: {@code amount} Einheiten eines Materialtyps von einer {@link StorageNode} zu einer anderen
+ * bringen. Die Einheiten werden in Ladungen von hoechstens {@link Robot#CAPACITY} Einheiten an die Roboter vergeben.
+ *
+ * @see TransportDispatcher
+ */
+public class TransportTask {
+
+    /**
+     * Die {@link DeliveryNode} deren {@link warehousemanagement.Shipment} den Auftrag ausgeloest hat, {@code null} bei
+     * einer Umlagerung durch den {@link SlottingOptimizer} oder den {@link PreStager}
+     */
+    private final DeliveryNode dock;
+
+    private final int materialType;
+
+    private final StorageNode source;
+
+    private final StorageNode destination;
+
+    /**
+     * Einheiten die noch nicht am Ziel abgeladen wurden
+     */
+    private int remaining;
+
+    /**
+     * Einheiten die gerade von einem Roboter bewegt werden
+     */
+    private int assigned;
+
+    public TransportTask(DeliveryNode dock, int materialType, StorageNode source, StorageNode destination, int amount) {
+        this.dock = dock;
+        this.materialType = materialType;
+        this.source = source;
+        this.destination = destination;
+        remaining = amount;
+        assigned = 0;
+    }
+
+    public DeliveryNode getDock() {
+        return dock;
+    }
+
+    /**
+     * Gibt an ob der Auftrag eine Umlagerung ist, die hat keine Frist und wird nur an sonst freie Roboter vergeben
+     *
+     * @return {@code true} wenn kein {@link warehousemanagement.Shipment} auf den Auftrag wartet
+     */
+    public boolean isRelocation() {
+        return dock == null;
+    }
+
+    /**
+     * Gibt an ob die Einheiten direkt von einer {@link DeliveryNode} zu einer anderen gebracht werden
+     *
+     * @return {@code true} fuer einen Auftrag des {@link CrossDockMatcher}
+     * @see CrossDockMatcher
+     */
+    public boolean isCrossDock() {
+        return source.getKind() == NodeKind.DELIVERY && destination.getKind() == NodeKind.DELIVERY;
+    }
+
+    public int getMaterialType() {
+        return materialType;
+    }
+
+    public StorageNode getSource() {
+        return source;
+    }
+
+    public StorageNode getDestination() {
+        return destination;
+    }
+
+    public int getRemaining() {
+        return remaining;
+    }
+
+    /**
+     * Gibt die Anzahl der Einheiten zurueck die noch keinem Roboter zugewiesen sind
+     *
+     * @return offene Einheiten
+     */
+    int getOpen() {
+        return remaining - assigned;
+    }
+
+    /**
+     * Gibt die Anzahl der Einheiten zurueck die gerade von einem Roboter bewegt werden
+     *
+     * @return zugewiesene Einheiten
+     */
+    public int getAssigned() {
+        return assigned;
+    }
+
+    /**
+     * Reserviert eine Ladung fuer einen Roboter
+     *
+     * @param max Kapazitaet des Roboters
+     * @return reservierte Einheiten, hoechstens die offenen Einheiten
+     */
+    int assign(int max) {
+        int units = Math.min(max, getOpen());
+        assigned += units;
+        return units;
+    }
+
+    /**
+     * Kuerzt den Auftrag um offene Einheiten, die dann ein anderer Auftrag bewegt
+     *
+     * @param max hoechstens zu kuerzende Einheiten
+     * @return gekuerzte Einheiten, hoechstens die offenen Einheiten
+     */
+    int take(int max) {
+        int units = Math.min(max, getOpen());
+        remaining -= units;
+        return units;
+    }
+
+    void unassign(int units) {
+        assigned -= units;
+    }
+
+    void complete(int units) {
+        assigned -= units;
+        remaining -= units;
+    }
+
+    @Override
+    public String toString() {
+        return remaining + " x " + materialType + " von " + source + " nach " + destination;
+    }
+}
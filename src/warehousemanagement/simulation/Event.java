@@ -0,0 +1,34 @@
+package warehousemanagement.simulation;
+
+/**
+ * Eine Aktion die zu einem bestimmten Zeitpunkt der {@link Simulation} ausgefuehrt wird
+ */
+class Event implements Comparable<Event> {
+
+    /**
+     * Zeitpunkt in Millisekunden Simulationszeit
+     */
+    final long time;
+
+    /**
+     * Laufende Nummer, Ereignisse mit dem gleichen Zeitpunkt werden in der Reihenfolge ausgefuehrt in der sie geplant
+     * wurden
+     */
+    final long sequence;
+
+    final Runnable action;
+
+    Event(long time, long sequence, Runnable action) {
+        this.time = time;
+        this.sequence = sequence;
+        this.action = action;
+    }
+
+    @Override
+    public int compareTo(Event e) {
+        if (time != e.time) {
+            return Long.compare(time, e.time);
+        }
+        return Long.compare(sequence, e.sequence);
+    }
+}
@@ -0,0 +1,279 @@
+package warehousemanagement.simulation;
+
+import java.util.PriorityQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Ereignisgesteuerte Simulation mit eigener Uhr. Alle zeitabhaengigen Ablaeufe (Takt des
+ * {@link warehousemanagement.Controller}, Fahrten und Ladevorgaenge der Roboter) werden als Ereignisse mit einem
+ * Zeitpunkt in eine Prioritaetswarteschlange eingetragen und der Reihe nach ausgefuehrt.<br>
+ * Ueber die System-Property {@code warehouse.simulation} wird der Betrieb gewaehlt:
+ * <ul>
+ * <li>{@code threads} (Standard): Die Roboter laufen auf eigenen Threads und warten in Echtzeit, die Simulationszeit
+ * ist die seit dem Start vergangene Zeit</li>
+ * <li>{@code events}: Auch die Roboter werden ueber Ereignisse gesteuert und alles laeuft auf dem Thread der
+ * Simulation. Die Uhr springt von Ereignis zu Ereignis, mit {@code warehouse.simulation.speed} kann eingestellt werden
+ * wie viel schneller als Echtzeit die Simulation laufen soll, {@code max} laesst sie so schnell laufen wie moeglich</li>
+ * </ul>
+ */
+public class Simulation {
+
+    private static final String MODE_PROPERTY = "warehouse.simulation";
+
+    private static final String SPEED_PROPERTY = "warehouse.simulation.speed";
+
+    /**
+     * Gibt an ob alle Ablaeufe ueber Ereignisse gesteuert werden oder die Roboter eigene Threads haben
+     */
+    private final boolean eventDriven;
+
+    private final PriorityQueue<Event> events;
+
+    private long sequence;
+
+    /**
+     * Zeitpunkt des zuletzt ausgefuehrten Ereignisses in Millisekunden
+     */
+    private long now;
+
+    /**
+     * Faktor um den die Simulation schneller als Echtzeit laeuft, {@code 0} bedeutet so schnell wie moeglich
+     */
+    private double speed;
+
+    /**
+     * Echtzeit und Simulationszeit zu der {@link Simulation#speed} zuletzt gesetzt wurde
+     */
+    private long wallAnchor;
+
+    private long simulationAnchor;
+
+    /**
+     * Liefert die Echtzeit in Millisekunden
+     */
+    private final LongSupplier wallClock;
+
+    private long processedEvents;
+
+    private Thread thread;
+
+    /**
+     * Gibt an ob die Ereignisse mit {@link Simulation#run} im Thread des Aufrufers abgearbeitet werden, dann startet
+     * {@link Simulation#start()} keinen eigenen Thread mehr
+     */
+    private boolean driven;
+
+    /**
+     * Erstellt eine neue Simulation die bei Zeitpunkt null beginnt
+     *
+     * @param eventDriven ob auch die Roboter ueber Ereignisse gesteuert werden
+     * @param speed       Faktor um den die Simulation schneller als Echtzeit laeuft, {@code 0} fuer so schnell wie
+     *                    moeglich, ohne {@code eventDriven} muss er {@code 1} sein
+     */
+    public Simulation(boolean eventDriven, double speed) {
+        this(eventDriven, speed, System::currentTimeMillis);
+    }
+
+    /**
+     * Wie {@link Simulation#Simulation(boolean, double)}, aber mit einer eigenen Uhr fuer die Echtzeit
+     *
+     * @param eventDriven ob auch die Roboter ueber Ereignisse gesteuert werden
+     * @param speed       Faktor um den die Simulation schneller als Echtzeit laeuft
+     * @param wallClock   liefert die Echtzeit in Millisekunden
+     */
+    public Simulation(boolean eventDriven, double speed, LongSupplier wallClock) {
+        this.eventDriven = eventDriven;
+        this.wallClock = wallClock;
+        events = new PriorityQueue<>();
+        sequence = 0;
+        now = 0;
+        wallAnchor = wallClock.getAsLong();
+        simulationAnchor = 0;
+        processedEvents = 0;
+        setSpeed(speed);
+    }
+
+    public static Simulation getSimulation() {
+        return SimulationHolder.INSTANCE;
+    }
+
+    public boolean isEventDriven() {
+        return eventDriven;
+    }
+
+    /**
+     * Gibt die aktuelle Simulationszeit zurueck
+     *
+     * @return Millisekunden seit Beginn der Simulation
+     */
+    public synchronized long currentTimeMillis() {
+        if (eventDriven) {
+            return now;
+        }
+        return simulationAnchor + wallClock.getAsLong() - wallAnchor;
+    }
+
+    public synchronized double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Setzt den Faktor um den die Simulation schneller als Echtzeit laeuft
+     *
+     * @param speed Faktor, {@code 0} fuer so schnell wie moeglich
+     * @throws RuntimeException wenn die Roboter in Echtzeit auf eigenen Threads laufen und {@code speed != 1} ist
+     */
+    public synchronized void setSpeed(double speed) {
+        if (!eventDriven && speed != 1) {
+            throw new RuntimeException("Geschwindigkeit kann nur im ereignisgesteuerten Betrieb geaendert werden");
+        }
+        if (speed < 0) {
+            throw new RuntimeException("Geschwindigkeit darf nicht negativ sein");
+        }
+        simulationAnchor = currentTimeMillis();
+        wallAnchor = wallClock.getAsLong();
+        this.speed = speed;
+        notifyAll();
+    }
+
+    /**
+     * Plant eine Aktion die nach der gegebenen Zeit ausgefuehrt wird
+     *
+     * @param delay  Millisekunden Simulationszeit ab jetzt
+     * @param action die auszufuehrende Aktion
+     */
+    public synchronized void schedule(long delay, Runnable action) {
+        scheduleAt(currentTimeMillis() + Math.max(0, delay), action);
+    }
+
+    /**
+     * Plant eine Aktion zu einem festen Zeitpunkt, liegt er in der Vergangenheit wird sie sofort ausgefuehrt
+     *
+     * @param time   Zeitpunkt in Millisekunden Simulationszeit
+     * @param action die auszufuehrende Aktion
+     */
+    public synchronized void scheduleAt(long time, Runnable action) {
+        events.add(new Event(Math.max(time, now), sequence++, action));
+        notifyAll();
+    }
+
+    /**
+     * Fuehrt eine Aktion nach {@code delay} und danach alle {@code period} Millisekunden aus
+     *
+     * @param delay  Millisekunden bis zur ersten Ausfuehrung
+     * @param period Millisekunden zwischen zwei Ausfuehrungen
+     * @param action die auszufuehrende Aktion
+     */
+    public void scheduleAtFixedRate(long delay, long period, Runnable action) {
+        schedule(delay, new Runnable() {
+            @Override
+            public void run() {
+                scheduleAt(now + period, this);
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Startet einen Thread der die Ereignisse dauerhaft abarbeitet, weitere Aufrufe haben keine Wirkung.
+     * Der Thread ist {@code isDaemon() = true}. Wurde die Simulation schon mit {@link Simulation#run} angetrieben, etwa
+     * in einem Benchmark, bleibt das dem Aufrufer ueberlassen und es wird kein Thread gestartet.
+     */
+    public synchronized void start() {
+        if (thread == null && !driven) {
+            thread = new Thread(() -> process(Long.MAX_VALUE, true), "Simulation");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Arbeitet im aufrufenden Thread alle Ereignisse der naechsten {@code duration} Millisekunden ab, darf nicht
+     * gleichzeitig mit einem schon gestarteten Thread ({@link Simulation#start()}) verwendet werden
+     *
+     * @param duration Millisekunden Simulationszeit
+     */
+    public void run(long duration) {
+        long until;
+        synchronized (this) {
+            driven = true;
+            until = currentTimeMillis() + duration;
+        }
+        process(until, false);
+    }
+
+    public synchronized long getProcessedEvents() {
+        return processedEvents;
+    }
+
+    public synchronized int getPendingEvents() {
+        return events.size();
+    }
+
+    private void process(long until, boolean forever) {
+        Event e;
+        while ((e = next(until, forever)) != null) {
+            try {
+                e.action.run();
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Wartet bis das naechste Ereignis faellig ist und entfernt es aus der Warteschlange
+     *
+     * @return das naechste Ereignis oder {@code null} wenn bis {@code until} keines mehr vorliegt
+     */
+    private synchronized Event next(long until, boolean forever) {
+        try {
+            while (true) {
+                Event e = events.peek();
+                if (e == null || e.time > until) {
+                    if (!forever) {
+                        now = Math.max(now, until);
+                        return null;
+                    }
+                    wait();
+                    continue;
+                }
+                long delay = wallDelay(e.time);
+                if (delay > 0) {
+                    wait(delay);
+                    continue;
+                }
+                events.poll();
+                now = Math.max(now, e.time);
+                processedEvents++;
+                return e;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Rechnet aus wie viele Millisekunden Echtzeit noch vergehen muessen bis der Zeitpunkt erreicht ist
+     *
+     * @param time Zeitpunkt in Simulationszeit
+     * @return Wartezeit in Millisekunden, nicht positiv wenn der Zeitpunkt schon erreicht ist
+     */
+    public synchronized long wallDelay(long time) {
+        if (speed == 0) {
+            return 0;
+        }
+        return wallAnchor + (long) ((time - simulationAnchor) / speed) - wallClock.getAsLong();
+    }
+
+    private static Simulation create() {
+        boolean eventDriven = "events".equals(System.getProperty(MODE_PROPERTY, "threads"));
+        String speed = System.getProperty(SPEED_PROPERTY, "1");
+        return new Simulation(eventDriven, !eventDriven ? 1 : "max".equals(speed) ? 0 : Double.parseDouble(speed));
+    }
+
+    private static class SimulationHolder {
+        private static final Simulation INSTANCE = create();
+    }
+}
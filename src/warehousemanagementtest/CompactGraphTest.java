@@ -0,0 +1,62 @@
+package warehousemanagementtest;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import warehousemanagement.navigation.CompactGraph;
+import warehousemanagement.navigation.PathFinder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactGraphTest {
+
+    static final int WIDTH = 100;
+
+    static CompactGraph grid;
+
+    @BeforeAll
+    static void setUp() {
+        CompactGraph.Builder builder = new CompactGraph.Builder();
+        for (int y = 0; y < WIDTH; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                builder.addNode(10 * x, 10 * y);
+            }
+        }
+        for (int y = 0; y < WIDTH; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (x + 1 < WIDTH) builder.connect(y * WIDTH + x, y * WIDTH + x + 1);
+                if (y + 1 < WIDTH) builder.connect(y * WIDTH + x, (y + 1) * WIDTH + x);
+            }
+        }
+        grid = builder.build();
+    }
+
+    @Test
+    void size() {
+        assertEquals(WIDTH * WIDTH, grid.size());
+        assertEquals(4 * WIDTH * (WIDTH - 1), grid.edgeCount());
+    }
+
+    @Test
+    void edges() {
+        assertEquals(2, grid.getEdgeEnd(0) - grid.getEdgeStart(0));
+        assertEquals(4, grid.getEdgeEnd(WIDTH + 1) - grid.getEdgeStart(WIDTH + 1));
+        for (int e = grid.getEdgeStart(0); e < grid.getEdgeEnd(0); e++) {
+            assertEquals(10, grid.getEdgeWeight(e));
+        }
+        assertThrows(RuntimeException.class, () -> new CompactGraph.Builder().connect(0, 1));
+    }
+
+    @Test
+    void search() {
+        try (PathFinder pathFinder = PathFinder.acquire()) {
+            int target = WIDTH * WIDTH - 1;
+            assertEquals(2 * 10 * (WIDTH - 1), pathFinder.search(grid, 0, target));
+
+            int steps = 0;
+            for (int n = target; n != 0; n = pathFinder.getPredecessor(n)) {
+                steps++;
+            }
+            assertEquals(2 * (WIDTH - 1), steps);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package warehousemanagementtest;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import warehousemanagement.navigation.CompactGraph;
+import warehousemanagement.navigation.ContractionHierarchy;
+import warehousemanagement.navigation.PathFinder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+
+    static CompactGraph graph;
+
+    static ContractionHierarchy hierarchy;
+
+    @BeforeAll
+    static void setUp() {
+        graph = createWarehouse(12, 30);
+        hierarchy = ContractionHierarchy.build(graph);
+    }
+
+    @Test
+    void findPath() {
+        Random random = new Random(1);
+        for (int i = 0; i < 500; i++) {
+            int source = random.nextInt(graph.size());
+            int target = random.nextInt(graph.size());
+            List<Integer> path = new ArrayList<>();
+
+            int distance = hierarchy.findPath(source, target, path::add);
+            try (PathFinder pathFinder = PathFinder.acquire()) {
+                assertEquals(pathFinder.search(graph, source, target), distance);
+            }
+
+            int length = 0;
+            int previous = source;
+            for (int node : path) {
+                length += weight(previous, node);
+                previous = node;
+            }
+            assertEquals(target, previous);
+            assertEquals(distance, length);
+        }
+    }
+
+    @Test
+    void saveAndLoad() throws Exception {
+        File file = File.createTempFile("hierarchy", ".ch");
+        file.deleteOnExit();
+        hierarchy.save(file);
+
+        ContractionHierarchy loaded = ContractionHierarchy.load(file);
+        assertTrue(loaded.matches(graph));
+        assertFalse(loaded.matches(createWarehouse(12, 31)));
+        assertEquals(hierarchy.findPath(0, graph.size() - 1, null), loaded.findPath(0, graph.size() - 1, null));
+    }
+
+    /**
+     * Erzeugt ein Lager aus parallelen Gaengen mit {@code columns} Nodes, die Gaenge sind an jeder achten Position und an
+     * den Enden durch Quergaenge verbunden
+     */
+    private static CompactGraph createWarehouse(int rows, int columns) {
+        CompactGraph.Builder builder = new CompactGraph.Builder();
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                builder.addNode(20 * column, 40 * row);
+            }
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int node = row * columns + column;
+                if (column + 1 < columns) {
+                    builder.connect(node, node + 1);
+                }
+                if (row + 1 < rows && (column % 8 == 0 || column == columns - 1)) {
+                    builder.connect(node, node + columns);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Sucht die Laenge der direkten Verbindung zwischen zwei Nodes, schlaegt fehl wenn es keine gibt
+     */
+    private static int weight(int from, int to) {
+        for (int edge = graph.getEdgeStart(from); edge < graph.getEdgeEnd(from); edge++) {
+            if (graph.getEdgeTarget(edge) == to) {
+                return graph.getEdgeWeight(edge);
+            }
+        }
+        fail("Keine Verbindung zwischen " + from + " und " + to);
+        return 0;
+    }
+}
@@ -0,0 +1,17 @@
+package warehousemanagementtest;
+
+import org.junit.jupiter.api.Test;
+import warehousemanagement.Controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ControllerTest {
+
+    @Test
+    void startsWithoutGui() {
+        Controller controller = assertDoesNotThrow(Controller::getController);
+        assertTrue(controller.getTime() >= 0);
+        assertTrue(controller.getBacklog() >= 0);
+        assertNotNull(controller.getDockScheduler());
+    }
+}
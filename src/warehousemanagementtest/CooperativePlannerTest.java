@@ -0,0 +1,89 @@
+package warehousemanagementtest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import warehousemanagement.navigation.CooperativePlanner;
+import warehousemanagement.navigation.NavigationGraph;
+import warehousemanagement.navigation.Node;
+import warehousemanagement.navigation.ReservationTable;
+import warehousemanagement.navigation.RoutePlan;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CooperativePlannerTest {
+
+    /**
+     * Bei 100 Pixeln zwischen den Nodes dauert jede Verbindung vier Zeitfenster
+     */
+    static final long MILLIS_PER_PIXEL = 10;
+
+    Node west;
+
+    Node east;
+
+    Node north;
+
+    Node south;
+
+    NavigationGraph graph;
+
+    ReservationTable reservations;
+
+    /**
+     * Zwei Gaenge die sich in der Mitte kreuzen
+     */
+    @BeforeEach
+    void setUp() {
+        west = new Node(0, 0, 100, 20, 20);
+        east = new Node(1, 200, 100, 20, 20);
+        north = new Node(2, 100, 0, 20, 20);
+        south = new Node(3, 100, 200, 20, 20);
+        Node center = new Node(4, 100, 100, 20, 20);
+        for (Node n : List.of(west, east, north, south)) {
+            n.addNeighbour(center);
+            center.addNeighbour(n);
+        }
+        graph = new NavigationGraph(List.of(west, east, north, south, center));
+        reservations = new ReservationTable();
+    }
+
+    @Test
+    void crossingRoutes() {
+        RoutePlan first = new RoutePlan(new Object());
+        RoutePlan second = new RoutePlan(new Object());
+        try (CooperativePlanner planner = CooperativePlanner.acquire()) {
+            assertTrue(planner.plan(graph, reservations, west, east, 0, 1, MILLIS_PER_PIXEL, first));
+            assertTrue(planner.plan(graph, reservations, north, south, 0, 1, MILLIS_PER_PIXEL, second));
+        }
+        assertEquals(2, first.size());
+        assertEquals(2, second.size());
+        assertSame(east, first.getNode(1));
+        assertSame(south, second.getNode(1));
+        //ohne den ersten Roboter waere der zweite nach acht Zeitfenstern am Ziel, er muss vorher warten
+        assertEquals(8, first.getArrival(1));
+        assertTrue(second.getArrival(1) > 8);
+
+        for (int i = 0; i < first.size(); i++) {
+            for (int j = 0; j < second.size(); j++) {
+                if (first.getNode(i) == second.getNode(j)) {
+                    assertTrue(first.getDeparture(i) < second.getArrival(j)
+                            || second.getDeparture(j) < first.getArrival(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    void beyondHorizon() {
+        RoutePlan plan = new RoutePlan(new Object());
+        //jede Verbindung dauert laenger als alle Zeitfenster zusammen
+        long slow = CooperativePlanner.HORIZON * ReservationTable.SLOT_MILLIS;
+        try (CooperativePlanner planner = CooperativePlanner.acquire()) {
+            assertFalse(planner.plan(graph, reservations, west, east, 0, 1, slow, plan));
+        }
+        assertEquals(0, plan.size());
+        assertEquals(0, reservations.size());
+    }
+}
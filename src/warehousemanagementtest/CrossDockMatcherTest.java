@@ -0,0 +1,96 @@
+package warehousemanagementtest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import warehousemanagement.Shipment;
+import warehousemanagement.navigation.CrossDockMatcher;
+import warehousemanagement.navigation.DeliveryNode;
+import warehousemanagement.navigation.NavigationGraph;
+import warehousemanagement.navigation.Node;
+import warehousemanagement.navigation.StorageNode;
+import warehousemanagement.navigation.TransportTask;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrossDockMatcherTest {
+
+    /**
+     * Materialtyp fuer den es kein Lager gibt, damit die Tore keine Auftraege an den Dispatcher geben
+     */
+    static final int MATERIAL = 2;
+
+    DeliveryNode inbound;
+
+    DeliveryNode loading;
+
+    NavigationGraph graph;
+
+    TransportTask putAway;
+
+    TransportTask pick;
+
+    @BeforeEach
+    void setUp() {
+        inbound = new DeliveryNode(0, 0, 0, 10, 10);
+        loading = new DeliveryNode(1, 100, 0, 10, 10);
+        Node aisle = new Node(0, 50, 0, 10, 10);
+        inbound.addNeighbour(aisle);
+        aisle.addNeighbour(inbound);
+        loading.addNeighbour(aisle);
+        aisle.addNeighbour(loading);
+        graph = new NavigationGraph(List.of(inbound, aisle, loading));
+
+        inbound.loadShipment(new Shipment(0, 0, 600, 30, MATERIAL, false, 0, "Test"));
+        //Nach dem Ausladen wechselt das Tor zum Einladen
+        loading.loadShipment(new Shipment(1, 0, 600, 20, 4, true, MATERIAL, "Test"));
+        loading.unloadUpTo(20);
+        assertTrue(loading.isLoading());
+
+        StorageNode store = new StorageNode(0, 200, 0, 10, 10);
+        putAway = new TransportTask(inbound, MATERIAL, inbound, store, 30);
+        pick = new TransportTask(loading, MATERIAL, store, loading, 20);
+    }
+
+    @Test
+    void match() {
+        List<TransportTask> tasks = new ArrayList<>(List.of(putAway, pick));
+        CrossDockMatcher matcher = CrossDockMatcher.getCrossDockMatcher();
+        List<TransportTask> transfers = matcher.match(tasks, List.of(inbound, loading), graph);
+
+        assertEquals(1, transfers.size());
+        TransportTask transfer = transfers.get(0);
+        assertSame(inbound, transfer.getSource());
+        assertSame(loading, transfer.getDestination());
+        assertSame(loading, transfer.getDock());
+        assertTrue(transfer.isCrossDock());
+        //min(Bedarf 20, Angebot 30)
+        assertEquals(20, transfer.getRemaining());
+        //beide Lagerauftraege sind um die gleiche Menge gekuerzt
+        assertEquals(10, putAway.getRemaining());
+        assertEquals(0, pick.getRemaining());
+
+        //die schon abgeglichenen Einheiten werden beim naechsten Auftrag nicht noch einmal vergeben
+        tasks.addAll(transfers);
+        assertTrue(matcher.match(tasks, List.of(inbound, loading), graph).isEmpty());
+        assertEquals(10, putAway.getRemaining());
+        assertEquals(20, transfer.getRemaining());
+    }
+
+    @Test
+    void disabled() {
+        CrossDockMatcher matcher = CrossDockMatcher.getCrossDockMatcher();
+        boolean enabled = matcher.isEnabled();
+        matcher.setEnabled(false);
+        try {
+            List<TransportTask> tasks = new ArrayList<>(List.of(putAway, pick));
+            assertTrue(matcher.match(tasks, List.of(inbound, loading), graph).isEmpty());
+            assertEquals(30, putAway.getRemaining());
+            assertEquals(20, pick.getRemaining());
+        } finally {
+            matcher.setEnabled(enabled);
+        }
+    }
+}
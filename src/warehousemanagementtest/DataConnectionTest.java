@@ -31,6 +31,22 @@ class DataConnectionTest {
         assertNotNull(DataConnection.getDataConnection().getShipment(10));
     }
 
+    @Test
+    void pollShipments() {
+        DataConnection d = DataConnection.getDataConnection();
+        d.addShipment(new Shipment(100, 5000, 180, 10, 1, false, 0, "Test"));
+        d.addShipment(new Shipment(101, 5000, 180, 10, 2, false, 0, "Test"));
+        d.addShipment(new Shipment(102, 5002, 180, 10, 3, false, 0, "Test"));
+        assertEquals(100, d.getNextShipment(4000).getId());
+
+        List<Shipment> arrived = d.pollShipments(4000, 5001);
+        assertEquals(2, arrived.size());
+        assertTrue(arrived.get(0).isArrived() && arrived.get(1).isArrived());
+        assertTrue(d.pollShipments(4000, 5001).isEmpty());
+        assertEquals(102, d.getNextShipment(4000).getId());
+        assertEquals(100, d.getShipment(5000).getId());
+    }
+
     @Test
     void isValidMaterialType() {
         assertTrue(DataConnection.getDataConnection().isValidMaterialType(1));
@@ -0,0 +1,79 @@
+package warehousemanagementtest;
+
+import org.junit.jupiter.api.Test;
+import warehousemanagement.DockScheduler;
+import warehousemanagement.Shipment;
+import warehousemanagement.navigation.DeliveryNode;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DockSchedulerTest {
+
+    @Test
+    void fastestDock() {
+        DeliveryNode near = new DeliveryNode(0, 0, 0, 10, 10);
+        DeliveryNode far = new DeliveryNode(1, 0, 0, 10, 10);
+        DockScheduler scheduler = new DockScheduler(List.of(far, near), (dock, s) -> dock == near ? 10 : 100);
+        scheduler.dockFree(far, 0);
+        scheduler.dockFree(near, 0);
+        scheduler.addShipment(new Shipment(0, 0, 50, 10, 1, false, 0, "Test"));
+
+        List<DockScheduler.Assignment> assignments = scheduler.schedule(0, List.of());
+        assertEquals(1, assignments.size());
+        assertSame(near, assignments.get(0).dock);
+        assertEquals(10, assignments.get(0).expectedEnd);
+    }
+
+    @Test
+    void lookAhead() {
+        DeliveryNode a = new DeliveryNode(0, 0, 0, 10, 10);
+        DeliveryNode b = new DeliveryNode(1, 0, 0, 10, 10);
+        DockScheduler scheduler = new DockScheduler(List.of(a, b), (dock, s) -> 10);
+        scheduler.dockFree(a, 0);
+        scheduler.dockFree(b, 0);
+        Shipment first = new Shipment(0, 0, 1000, 10, 1, false, 0, "Test");
+        scheduler.addShipment(first);
+        assertSame(a, scheduler.schedule(0, List.of()).get(0).dock);
+
+        //a ist bis 10 belegt, b wird fuer den dringenden LKW freigehalten statt den wartenden zu nehmen
+        Shipment relaxed = new Shipment(1, 0, 1000, 10, 1, false, 0, "Test");
+        Shipment urgent = new Shipment(2, 2, 12, 10, 1, false, 0, "Test");
+        scheduler.addShipment(relaxed);
+        assertTrue(scheduler.schedule(0, List.of(urgent)).isEmpty());
+
+        scheduler.addShipment(urgent);
+        List<DockScheduler.Assignment> assignments = scheduler.schedule(2, List.of());
+        assertEquals(1, assignments.size());
+        assertSame(urgent, assignments.get(0).shipment);
+        assertSame(b, assignments.get(0).dock);
+        assertEquals(1, scheduler.getWaiting());
+
+        scheduler.dockFree(a, 10);
+        assertSame(relaxed, scheduler.schedule(10, List.of()).get(0).shipment);
+        scheduler.dockFree(b, 15);
+        assertEquals(2, scheduler.getCompleted());
+        assertEquals(1, scheduler.getDeadlineMisses());
+        assertEquals(13, scheduler.getMaxDwellTime());
+    }
+
+    @Test
+    void forecast() {
+        DeliveryNode a = new DeliveryNode(0, 0, 0, 10, 10);
+        DeliveryNode b = new DeliveryNode(1, 0, 0, 10, 10);
+        DockScheduler scheduler = new DockScheduler(List.of(a, b), (dock, s) -> 10);
+        scheduler.dockFree(a, 0);
+        scheduler.dockFree(b, 0);
+        Shipment waiting = new Shipment(0, 0, 1000, 10, 1, false, 0, "Test");
+        Shipment urgent = new Shipment(1, 2, 10, 10, 1, true, 2, "Test");
+        scheduler.addShipment(waiting);
+
+        Map<Shipment, DeliveryNode> forecast = scheduler.forecast(0, List.of(urgent));
+        assertSame(a, forecast.get(urgent));
+        assertSame(b, forecast.get(waiting));
+        //Die Vorschau setzt nichts um
+        assertEquals(1, scheduler.getWaiting());
+    }
+}
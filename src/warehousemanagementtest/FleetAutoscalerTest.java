@@ -0,0 +1,140 @@
+package warehousemanagementtest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import warehousemanagement.Shipment;
+import warehousemanagement.navigation.DeliveryNode;
+import warehousemanagement.navigation.FleetAutoscaler;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetAutoscalerTest {
+
+    /**
+     * Puffer unter dem ein Roboter dazukommt
+     */
+    static final long TIGHT = 0;
+
+    /**
+     * Puffer ueber dem ein Roboter abgeschaltet werden darf
+     */
+    static final long LOOSE = Long.MAX_VALUE;
+
+    Dock dock;
+
+    long now;
+
+    long busy;
+
+    /**
+     * DeliveryNode die ihre Roboter nur zaehlt statt sie zu starten und einen vorgegebenen Puffer meldet
+     */
+    static class Dock extends DeliveryNode {
+
+        int robots;
+
+        long slack;
+
+        Dock(int robots) {
+            super(0, 0, 0, 10, 10);
+            this.robots = robots;
+            loadShipment(new Shipment(0, 0, 600, 10, 2, false, 0, "Test"));
+        }
+
+        @Override
+        public void addRobot() {
+            robots++;
+        }
+
+        @Override
+        public boolean removeRobot() {
+            if (robots == 0) {
+                return false;
+            }
+            robots--;
+            return true;
+        }
+
+        @Override
+        public int getRobotCount() {
+            return robots;
+        }
+
+        @Override
+        public long getSlackMillis(long now, int workers) {
+            return slack;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        now = 0;
+        busy = 0;
+    }
+
+    /**
+     * Fuehrt eine Pruefung nach {@link FleetAutoscaler#PERIOD_MILLIS} aus
+     *
+     * @param utilization Anteil der Zeit in der die Roboter seit der letzten Pruefung beschaeftigt waren
+     * @param slack       Puffer den die DeliveryNode meldet
+     */
+    private void check(FleetAutoscaler autoscaler, double utilization, long slack) {
+        now += FleetAutoscaler.PERIOD_MILLIS;
+        busy += (long) (utilization * FleetAutoscaler.PERIOD_MILLIS * dock.robots);
+        dock.slack = slack;
+        autoscaler.run(now, busy, 0, List.of(dock), List.of());
+    }
+
+    @Test
+    void scaleUp() {
+        dock = new Dock(2);
+        FleetAutoscaler autoscaler = new FleetAutoscaler(0, 8);
+        for (int i = 1; i < FleetAutoscaler.UP_TICKS; i++) {
+            check(autoscaler, 1, TIGHT);
+            assertEquals(2, dock.robots);
+        }
+        check(autoscaler, 1, TIGHT);
+        assertEquals(3, dock.robots);
+        assertEquals(1, autoscaler.getActivations());
+        //ausgelastet, aber mit genug Puffer
+        check(autoscaler, 1, LOOSE);
+        check(autoscaler, 1, LOOSE);
+        assertEquals(3, dock.robots);
+    }
+
+    @Test
+    void scaleDown() {
+        dock = new Dock(3);
+        FleetAutoscaler autoscaler = new FleetAutoscaler(1, 8);
+        for (int i = 1; i < FleetAutoscaler.DOWN_TICKS; i++) {
+            check(autoscaler, 0, LOOSE);
+            assertEquals(3, dock.robots);
+        }
+        check(autoscaler, 0, LOOSE);
+        assertEquals(2, dock.robots);
+        for (int i = 0; i < 5 * FleetAutoscaler.DOWN_TICKS; i++) {
+            check(autoscaler, 0, LOOSE);
+            assertTrue(dock.robots >= 1);
+        }
+        assertEquals(1, dock.robots);
+        assertEquals(2, autoscaler.getParkings());
+    }
+
+    @Test
+    void noFlapping() {
+        dock = new Dock(2);
+        FleetAutoscaler autoscaler = new FleetAutoscaler(0, 8);
+        for (int i = 0; i < 5 * FleetAutoscaler.DOWN_TICKS; i++) {
+            if (i % 2 == 0) {
+                check(autoscaler, 1, TIGHT);
+            } else {
+                check(autoscaler, 0, LOOSE);
+            }
+            assertEquals(2, dock.robots);
+        }
+        assertEquals(0, autoscaler.getActivations());
+        assertEquals(0, autoscaler.getParkings());
+    }
+}
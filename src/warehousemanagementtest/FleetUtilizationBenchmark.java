@@ -0,0 +1,87 @@
+package warehousemanagementtest;
+
+import warehousemanagement.Map;
+import warehousemanagement.Shipment;
+import warehousemanagement.navigation.DeliveryNode;
+import warehousemanagement.navigation.RobotExecution;
+import warehousemanagement.navigation.StorageNode;
+import warehousemanagement.navigation.TransportDispatcher;
+import warehousemanagement.simulation.Simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Misst die Auslastung der Roboterflotte im immer gleichen Szenario: Jede {@link DeliveryNode} hat gleich viele
+ * Roboter, aber nur zwei bekommen einen LKW, die dritte hat keine Arbeit. Die passenden Lager werden jede Sekunde
+ * geleert damit sie nicht volllaufen. Die Simulation laeuft ereignisgesteuert so schnell wie moeglich.<br>
+ * Der Vergleich erfolgt ueber zwei Aufrufe:
+ * {@code java -Djava.awt.headless=true -Dwarehouse.dispatch=local warehousemanagementtest.FleetUtilizationBenchmark}
+ * und das gleiche mit {@code -Dwarehouse.dispatch=central}, die Ladekapazitaet der Roboter wird mit
+ * {@code -Dwarehouse.robots.capacity} und die Anzahl der Ladeplaetze mit {@code -Dwarehouse.storage.bays} eingestellt.
+ * Zum Schluss wird fuer jede Node die mittlere Belegung der Ladeplaetze und die Warteschlange ausgegeben.
+ */
+public class FleetUtilizationBenchmark {
+
+    private static final int ROBOTS_PER_DOCK = 4;
+
+    private static final long DURATION_MILLIS = 15 * 60 * 1000;
+
+    public static void main(String[] args) {
+        System.setProperty("warehouse.simulation", "events");
+        System.setProperty("warehouse.simulation.speed", "max");
+
+        Map m = Map.getMap();
+        Simulation simulation = Simulation.getSimulation();
+        for (DeliveryNode n : m.deliveryNodes) {
+            for (int i = 0; i < ROBOTS_PER_DOCK; i++) {
+                n.addRobot();
+            }
+        }
+        simulation.run(1000);
+
+        //Die LKWs sind so gross, dass sie in der Messzeit nicht fertig werden
+        DeliveryNode first = m.deliveryNodes.get(0);
+        DeliveryNode second = m.deliveryNodes.get(1);
+        first.loadShipment(new Shipment(0, 0, 600, 100_000, 1, false, 0, "Benchmark"));
+        second.loadShipment(new Shipment(1, 0, 600, 100_000, 3, false, 0, "Benchmark"));
+        int before = first.getAmount() + second.getAmount();
+        StorageNode[] drained = {m.getStorageNode(1), m.getStorageNode(3)};
+        simulation.scheduleAtFixedRate(1000, 1000, () -> {
+            for (StorageNode n : drained) {
+                n.unloadUpTo(n.getAmount());
+            }
+        });
+
+        RobotExecution execution = RobotExecution.getRobotExecution();
+        execution.resetStatistics();
+        List<StorageNode> nodes = new ArrayList<>(m.storageNodes);
+        nodes.addAll(m.deliveryNodes);
+        for (StorageNode n : nodes) {
+            n.resetStatistics();
+        }
+        long start = System.nanoTime();
+        simulation.run(DURATION_MILLIS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int robots = ROBOTS_PER_DOCK * m.deliveryNodes.size();
+        int moved = before - first.getAmount() - second.getAmount();
+        System.out.printf("Modus: %s%n", TransportDispatcher.getTransportDispatcher().isCentral() ? "central" : "local");
+        System.out.printf("Entladene Einheiten: %d in %d s Simulationszeit (%.2f s Rechenzeit)%n", moved,
+                DURATION_MILLIS / 1000, seconds);
+        System.out.printf("Auslastung: %.1f %%%n", 100.0 * execution.getBusyMillis() / robots / DURATION_MILLIS);
+        System.out.printf("Einheiten pro Roboterstunde: %.1f%n", moved * 3_600_000.0 / robots / DURATION_MILLIS);
+
+        System.out.printf("%-16s %6s %10s %12s %12s %10s %10s %10s%n", "Node", "Plaetze", "Belegung", "Warteschl.",
+                "max", "Wartend", "p99 [ms]", "Konflikte");
+        for (StorageNode n : nodes) {
+            if (n.getAccesses() > 0 || n.getWaits() > 0) {
+                System.out.printf("%-16s %6d %10.2f %12.2f %12d %9.1f%% %10d %9.1f%%%n",
+                        n.getClass().getSimpleName() + " " + n.getId(), n.getBays(), n.getAverageOccupancy(),
+                        n.getAverageQueueLength(), n.getMaxQueueLength(),
+                        100.0 * n.getWaits() / Math.max(1, n.getAccesses()), n.getAccessQueue().getWaitQuantile(0.99),
+                        100.0 * n.getReservationConflictRate());
+            }
+        }
+    }
+}
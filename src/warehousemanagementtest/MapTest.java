@@ -6,6 +6,7 @@ import warehousemanagement.navigation.DeliveryNode;
 import warehousemanagement.navigation.Node;
 import warehousemanagement.navigation.StorageNode;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,6 +28,16 @@ class MapTest {
         assertTrue(nodes.get(3).getNeighbourNodes().contains(nodes.get(4)));
     }
 
+    @Test
+    void nodePositions() {
+        Node node = Map.getMap().wayPointNodes.get(0);
+        assertEquals(450, node.getX());
+        assertEquals(140, node.getY());
+        assertEquals(20, node.getWidth());
+        assertEquals(20, node.getHeight());
+        assertEquals(160, node.distanceTo(Map.getMap().wayPointNodes.get(1)), 1e-9);
+    }
+
     @Test
     void storageNodes() {
         List<StorageNode> storageNodes = Map.getMap().storageNodes;
@@ -44,4 +55,18 @@ class MapTest {
         assertFalse(deliveryNodes.get(0).getNeighbourNodes().contains(deliveryNodes.get(1)));
         assertFalse(deliveryNodes.get(1).getNeighbourNodes().contains(deliveryNodes.get(2)));
     }
+
+    @Test
+    void getRouter() {
+        Map map = Map.getMap();
+        List<Node> path = new ArrayList<>();
+        map.getRouter().route(map.deliveryNodes.get(2), map.storageNodes.get(0), path);
+
+        assertEquals(6, path.size());
+        assertSame(map.storageNodes.get(0), path.get(path.size() - 1));
+        assertFalse(path.contains(map.deliveryNodes.get(2)));
+
+        map.getRouter().route(map.storageNodes.get(0), map.storageNodes.get(0), path);
+        assertTrue(path.isEmpty());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+package warehousemanagementtest;
+
+import org.junit.jupiter.api.Test;
+import warehousemanagement.navigation.NodeAccessQueue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NodeAccessQueueTest {
+
+    @Test
+    void fifo() {
+        NodeAccessQueue queue = new NodeAccessQueue(1, System::currentTimeMillis);
+        List<Integer> order = new ArrayList<>();
+        NodeAccessQueue.Ticket first = queue.tryAcquire(0, () -> order.add(0));
+        assertTrue(first.isGranted());
+
+        NodeAccessQueue.Ticket[] waiting = new NodeAccessQueue.Ticket[3];
+        for (int i = 0; i < waiting.length; i++) {
+            int id = i + 1;
+            waiting[i] = queue.tryAcquire(id, () -> order.add(id));
+            assertTrue(waiting[i].isWaiting());
+        }
+        assertEquals(3, queue.getQueueLength());
+
+        queue.release(first);
+        queue.release(waiting[0]);
+        queue.release(waiting[1]);
+        assertEquals(List.of(1, 2, 3), order);
+        assertTrue(waiting[2].isGranted());
+        assertThrows(RuntimeException.class, () -> queue.release(first));
+    }
+
+    @Test
+    void cancel() {
+        NodeAccessQueue queue = new NodeAccessQueue(1, System::currentTimeMillis);
+        NodeAccessQueue.Ticket first = queue.tryAcquire(0, () -> {
+        });
+        NodeAccessQueue.Ticket second = queue.tryAcquire(1, () -> {
+        });
+        NodeAccessQueue.Ticket third = queue.tryAcquire(2, () -> {
+        });
+        assertTrue(queue.cancel(second));
+        queue.release(first);
+        assertFalse(second.isGranted());
+        assertTrue(third.isGranted());
+        assertFalse(queue.cancel(third));
+        queue.release(third);
+        assertEquals(0, queue.getOccupied());
+        assertEquals(1, queue.getCancellations());
+    }
+
+    @Test
+    void timeout() throws InterruptedException {
+        NodeAccessQueue queue = new NodeAccessQueue(1, System::currentTimeMillis);
+        NodeAccessQueue.Ticket first = queue.acquire(0, 1, TimeUnit.SECONDS);
+        assertNotNull(first);
+        assertNull(queue.acquire(1, 20, TimeUnit.MILLISECONDS));
+        assertEquals(0, queue.getQueueLength());
+
+        //Nach dem Abbruch darf kein Platz verloren gegangen sein
+        queue.release(first);
+        assertEquals(0, queue.getOccupied());
+        assertNotNull(queue.acquire(2, 1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void capacity() {
+        NodeAccessQueue queue = new NodeAccessQueue(1, System::currentTimeMillis);
+        NodeAccessQueue.Ticket first = queue.tryAcquire(0, () -> {
+        });
+        NodeAccessQueue.Ticket second = queue.tryAcquire(1, () -> {
+        });
+        queue.setCapacity(2);
+        assertTrue(second.isGranted());
+        queue.setCapacity(1);
+        queue.release(first);
+        assertEquals(1, queue.getOccupied());
+        assertTrue(queue.tryAcquire(2, () -> {
+        }).isWaiting());
+    }
+
+    /**
+     * Viele Threads konkurrieren um wenige Plaetze, einige geben nach kurzer Zeit auf. Es duerfen nie mehr Plaetze
+     * belegt sein als vorhanden und jeder Thread muss fertig werden, ein verlorenes Aufwecken wuerde ihn haengen
+     * lassen.
+     */
+    @Test
+    void stress() throws InterruptedException {
+        int robots = 2000;
+        int rounds = 20;
+        NodeAccessQueue[] queues = new NodeAccessQueue[4];
+        AtomicInteger[] holders = new AtomicInteger[queues.length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new NodeAccessQueue(i + 1, System::nanoTime);
+            holders[i] = new AtomicInteger();
+        }
+        AtomicInteger violations = new AtomicInteger();
+        AtomicLong timeouts = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(robots);
+
+        for (int r = 0; r < robots; r++) {
+            new Thread(() -> {
+                try {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < rounds; i++) {
+                        int n = random.nextInt(queues.length);
+                        NodeAccessQueue.Ticket ticket = queues[n].acquire(Thread.currentThread(),
+                                random.nextInt(1, 50), TimeUnit.MILLISECONDS);
+                        if (ticket == null) {
+                            timeouts.incrementAndGet();
+                            continue;
+                        }
+                        if (holders[n].incrementAndGet() > queues[n].getCapacity()) {
+                            violations.incrementAndGet();
+                        }
+                        Thread.onSpinWait();
+                        holders[n].decrementAndGet();
+                        queues[n].release(ticket);
+                    }
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        assertEquals(0, violations.get());
+        long grants = 0;
+        for (NodeAccessQueue queue : queues) {
+            assertEquals(0, queue.getOccupied());
+            assertEquals(0, queue.getQueueLength());
+            grants += queue.getGrants();
+            System.out.printf("Kapazitaet %d: p50 %d us, p90 %d us, p99 %d us, max %d us%n", queue.getCapacity(),
+                    queue.getWaitQuantile(0.5) / 1000, queue.getWaitQuantile(0.9) / 1000,
+                    queue.getWaitQuantile(0.99) / 1000, queue.getWaitQuantile(1) / 1000);
+        }
+        assertEquals((long) robots * rounds, grants + timeouts.get());
+    }
+}
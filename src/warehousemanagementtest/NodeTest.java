@@ -5,8 +5,11 @@ import org.junit.jupiter.api.Test;
 import warehousemanagement.Shipment;
 import warehousemanagement.navigation.DeliveryNode;
 import warehousemanagement.navigation.Node;
+import warehousemanagement.navigation.NodeKind;
 import warehousemanagement.navigation.StorageNode;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class NodeTest {
@@ -55,6 +58,13 @@ class NodeTest {
         assertEquals(1, nodeTwo.getId());
     }
 
+    @Test
+    void getKind() {
+        assertEquals(NodeKind.WAYPOINT, nodeOne.getKind());
+        assertEquals(NodeKind.STORAGE, storageNode.getKind());
+        assertEquals(NodeKind.DELIVERY, deliveryNode.getKind());
+    }
+
     /*
      * STORAGE-NODE
      */
@@ -95,6 +105,77 @@ class NodeTest {
         assertThrows(RuntimeException.class, () -> storageNode.unloadItems(10));
     }
 
+    @Test
+    void un_loadUpTo() {
+        assertEquals(storageNode.getStorageSize(), storageNode.loadUpTo(1, 150));
+        assertEquals(0, storageNode.getFreeCapacity());
+        assertEquals(0, storageNode.loadUpTo(1, 5));
+        assertEquals(30, storageNode.unloadUpTo(30));
+        assertEquals(70, storageNode.unloadUpTo(100));
+        assertEquals(0, storageNode.unloadUpTo(5));
+        assertEquals(0, storageNode.getAmount());
+    }
+
+    @Test
+    void bays() {
+        StorageNode node = new StorageNode(4, 0, 0, 0, 0);
+        node.setBays(2);
+        assertEquals(2, node.getBays());
+        assertThrows(RuntimeException.class, () -> node.setBays(0));
+        assertEquals(2, node.getBays());
+        assertEquals(0, node.getOccupiedBays());
+        assertEquals(0, node.getQueueLength());
+        assertEquals(0, node.getAverageOccupancy());
+    }
+
+    @Test
+    void reservations() {
+        StorageNode node = new StorageNode(5, 0, 0, 0, 0);
+        node.setMaterialType(1);
+        node.loadItems(1, 30);
+        assertEquals(20, node.reserveUnits(20));
+        assertEquals(10, node.reserveUnits(20));
+        assertEquals(0, node.getAvailableAmount());
+        assertEquals(0, node.unloadUpTo(5));
+        assertEquals(20, node.commitUnits(20));
+        node.cancelUnits(10);
+        assertEquals(10, node.getAvailableAmount());
+        assertThrows(RuntimeException.class, () -> node.commitUnits(1));
+
+        assertEquals(90, node.reserveSpace(100));
+        assertEquals(0, node.getFreeCapacity());
+        assertEquals(0, node.loadUpTo(1, 5));
+        assertThrows(RuntimeException.class, () -> node.loadItems(1, 5));
+        node.commitSpace(1, 50);
+        node.cancelSpace(40);
+        assertEquals(60, node.getAmount());
+        assertEquals(40, node.getFreeCapacity());
+        assertEquals(2.0 / 3, node.getReservationConflictRate(), 1e-9);
+    }
+
+    @Test
+    void concurrentReservations() throws InterruptedException {
+        StorageNode node = new StorageNode(6, 0, 0, 0, 0);
+        node.setMaterialType(1);
+        node.loadItems(1, 100);
+        AtomicInteger taken = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                int units;
+                while ((units = node.reserveUnits(3)) > 0) {
+                    taken.addAndGet(node.commitUnits(units));
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(100, taken.get());
+        assertEquals(0, node.getAmount());
+    }
+
     /*
      * DELIVERY-NODE
      */
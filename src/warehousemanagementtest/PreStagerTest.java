@@ -0,0 +1,80 @@
+package warehousemanagementtest;
+
+import org.junit.jupiter.api.Test;
+import warehousemanagement.Map;
+import warehousemanagement.Shipment;
+import warehousemanagement.navigation.DeliveryNode;
+import warehousemanagement.navigation.PreStager;
+import warehousemanagement.navigation.StorageNode;
+import warehousemanagement.navigation.TransportDispatcher;
+import warehousemanagement.navigation.TransportTask;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreStagerTest {
+
+    /**
+     * Materialtyp von Lager 0, dem einzigen Lager das ihn anfangs hat
+     */
+    static final int MATERIAL = 1;
+
+    @Test
+    void update() {
+        Map m = Map.getMap();
+        StorageNode source = m.storageNodes.get(0);
+        StorageNode nearDock2 = m.storageNodes.get(4);
+        StorageNode nearDock1 = m.storageNodes.get(3);
+        DeliveryNode dock2 = m.deliveryNodes.get(2);
+        DeliveryNode dock1 = m.deliveryNodes.get(1);
+        PreStager preStager = PreStager.getPreStager();
+        TransportDispatcher dispatcher = TransportDispatcher.getTransportDispatcher();
+        Shipment s = new Shipment(0, 600, 600, 10, 2, true, MATERIAL, "Test");
+        long completed = preStager.getCompletedStagings();
+
+        source.loadItems(MATERIAL, 20);
+        try {
+            //das naechste ungenutzte Lager zum Tor wird Puffer, die Waren kommen aus dem entfernten Lager 0
+            preStager.update(java.util.Map.of(s, dock2));
+            assertEquals(MATERIAL, nearDock2.getMaterialType());
+            TransportTask first = find(dispatcher, nearDock2);
+            assertSame(source, first.getSource());
+            assertNull(first.getDock());
+            assertEquals(10, first.getRemaining());
+            assertEquals(1, preStager.getActiveStagings());
+
+            //ein weiterer Aufruf gibt keinen zweiten Auftrag ab
+            preStager.update(java.util.Map.of(s, dock2));
+            assertEquals(List.of(first), tasksTo(dispatcher, nearDock2));
+
+            //das Shipment wechselt das Tor, der alte Auftrag wird zurueckgenommen und der leere Puffer freigegeben
+            preStager.update(java.util.Map.of(s, dock1));
+            assertTrue(tasksTo(dispatcher, nearDock2).isEmpty());
+            assertEquals(0, nearDock2.getMaterialType());
+            assertEquals(MATERIAL, nearDock1.getMaterialType());
+            assertSame(source, find(dispatcher, nearDock1).getSource());
+            assertEquals(completed + 1, preStager.getCompletedStagings());
+        } finally {
+            preStager.update(java.util.Map.of());
+            source.unloadUpTo(20);
+        }
+        assertTrue(tasksTo(dispatcher, nearDock1).isEmpty());
+        assertEquals(0, nearDock1.getMaterialType());
+        assertEquals(0, preStager.getActiveStagings());
+        assertEquals(completed + 2, preStager.getCompletedStagings());
+    }
+
+    private static List<TransportTask> tasksTo(TransportDispatcher dispatcher, StorageNode buffer) {
+        return dispatcher.getTasks().stream().filter(t -> t.getDestination() == buffer).toList();
+    }
+
+    /**
+     * Gibt den einzigen offenen Auftrag in den Puffer zurueck
+     */
+    private static TransportTask find(TransportDispatcher dispatcher, StorageNode buffer) {
+        List<TransportTask> tasks = tasksTo(dispatcher, buffer);
+        assertEquals(1, tasks.size());
+        return tasks.get(0);
+    }
+}
@@ -0,0 +1,46 @@
+package warehousemanagementtest;
+
+import org.junit.jupiter.api.Test;
+import warehousemanagement.navigation.ReservationTable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationTableTest {
+
+    @Test
+    void reserve() {
+        ReservationTable table = new ReservationTable();
+        Object first = new Object();
+        Object second = new Object();
+        assertTrue(table.reserve(0, 10, 12, first));
+        assertTrue(table.isFree(0, 11, first));
+        assertFalse(table.isFree(0, 11, second));
+        assertFalse(table.reserve(0, 12, 14, second));
+        assertEquals(1, table.getConflicts());
+        assertTrue(table.isFree(0, 13, second));
+
+        table.release(0, 10, 12, first);
+        assertEquals(0, table.size());
+        assertTrue(table.reserve(0, 12, 14, second));
+    }
+
+    @Test
+    void capacity() {
+        ReservationTable table = new ReservationTable(node -> node == 1 ? 2 : 1);
+        Object first = new Object();
+        Object second = new Object();
+        Object third = new Object();
+        assertTrue(table.reserve(1, 0, 3, first));
+        assertTrue(table.reserve(1, 2, 5, second));
+        assertFalse(table.isFree(1, 3, third));
+        assertTrue(table.isFree(1, 4, third));
+        assertFalse(table.reserve(1, 3, 4, third));
+
+        //Ein Roboter belegt nie zwei Plaetze im gleichen Zeitfenster
+        assertTrue(table.reserve(1, 0, 1, first));
+        assertEquals(8, table.size());
+
+        assertTrue(table.reserve(0, 0, 0, third));
+        assertFalse(table.reserve(0, 0, 0, first));
+    }
+}
@@ -0,0 +1,51 @@
+package warehousemanagementtest;
+
+import warehousemanagement.Map;
+import warehousemanagement.Shipment;
+import warehousemanagement.navigation.DeliveryNode;
+import warehousemanagement.navigation.RobotExecution;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Laesst eine wachsende Flotte von Robotern an einer {@link DeliveryNode} der {@link Map} arbeiten und gibt fuer jede
+ * Groesse die Anzahl der Plattform-Threads und die Startverzoegerung der Roboter aus. Zum Schluss wird eine Lieferung
+ * angenommen, dabei werden alle wartenden Roboter gleichzeitig geweckt und die Aufweckverzoegerung gemessen.<br>
+ * Aufruf: {@code java -Djava.awt.headless=true [-Dwarehouse.robots.executor=platform] warehousemanagementtest.RobotFleetBenchmark [Roboter...]}
+ */
+public class RobotFleetBenchmark {
+
+    private static final long SETTLE_MILLIS = 1000;
+
+    private static final long RUN_MILLIS = 5000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] sizes = args.length == 0 ? new int[]{100, 1_000, 5_000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+
+        RobotExecution execution = RobotExecution.getRobotExecution();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        DeliveryNode home = Map.getMap().deliveryNodes.get(0);
+        System.out.println("Modus: " + execution.getMode());
+
+        System.out.printf("%10s %10s %12s %16s %16s%n", "Roboter", "Laufend", "Threads", "Start [ms]", "Start max [ms]");
+        for (int size : sizes) {
+            execution.resetStatistics();
+            while (home.getRobotCount() < size) {
+                home.addRobot();
+            }
+            Thread.sleep(SETTLE_MILLIS);
+            System.out.printf("%10d %10d %12d %16.3f %16.3f%n", home.getRobotCount(), execution.getActiveRobots(),
+                    threads.getThreadCount(), execution.getAverageStartLatency(), execution.getMaxStartLatency());
+        }
+
+        execution.resetStatistics();
+        home.loadShipment(new Shipment(0, 0, 0, 1_000_000, 1, false, 0, "Benchmark"));
+        Thread.sleep(RUN_MILLIS);
+        System.out.printf("Aufwecken: %.3f ms im Mittel, %.3f ms maximal, %d Threads%n",
+                execution.getAverageWakeUpLatency(), execution.getMaxWakeUpLatency(), threads.getPeakThreadCount());
+    }
+}
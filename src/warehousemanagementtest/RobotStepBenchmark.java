@@ -0,0 +1,72 @@
+package warehousemanagementtest;
+
+import warehousemanagement.Map;
+import warehousemanagement.Shipment;
+import warehousemanagement.navigation.DeliveryNode;
+import warehousemanagement.navigation.StorageIndex;
+import warehousemanagement.navigation.StorageNode;
+import warehousemanagement.navigation.TransportDispatcher;
+import warehousemanagement.simulation.Simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Misst wie viele Schritte eine grosse Roboterflotte pro Sekunde Rechenzeit schafft. Die Simulation laeuft
+ * ereignisgesteuert so schnell wie moeglich, jedes Ereignis ist bis auf das Leeren der Lager ein Schritt eines Roboters.
+ * Zwei {@link DeliveryNode}s laden LKWs aus die in der Messzeit nicht fertig werden, alle Lager der beiden
+ * Materialtypen werden jede Sekunde geleert. Ohne Angabe wird die Arbeit lokal vergeben, dann trifft jeder Roboter
+ * seine Entscheidungen selbst. Nach einer Aufwaermphase wird mehrmals gemessen und der beste Durchlauf ausgegeben.<br>
+ * Aufruf: {@code java -Djava.awt.headless=true [-Dwarehouse.dispatch=central] warehousemanagementtest.RobotStepBenchmark [Roboter pro DeliveryNode]}
+ */
+public class RobotStepBenchmark {
+
+    private static final long WARMUP_MILLIS = 60 * 1000;
+
+    private static final long RUN_MILLIS = 10 * 60 * 1000;
+
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        System.setProperty("warehouse.simulation", "events");
+        System.setProperty("warehouse.simulation.speed", "max");
+        if (System.getProperty("warehouse.dispatch") == null) {
+            System.setProperty("warehouse.dispatch", "local");
+        }
+        int robotsPerDock = args.length == 0 ? 1000 : Integer.parseInt(args[0]);
+
+        Map m = Map.getMap();
+        Simulation simulation = Simulation.getSimulation();
+        for (DeliveryNode n : m.deliveryNodes) {
+            for (int i = 0; i < robotsPerDock; i++) {
+                n.addRobot();
+            }
+        }
+        m.deliveryNodes.get(0).loadShipment(new Shipment(0, 0, 600, 1_000_000, 1, false, 0, "Benchmark"));
+        m.deliveryNodes.get(1).loadShipment(new Shipment(1, 0, 600, 1_000_000, 3, false, 0, "Benchmark"));
+        List<StorageNode> drained = new ArrayList<>(StorageIndex.getStorageIndex().getStorageNodes(1));
+        drained.addAll(StorageIndex.getStorageIndex().getStorageNodes(3));
+        simulation.scheduleAtFixedRate(1000, 1000, () -> {
+            for (StorageNode n : drained) {
+                n.unloadUpTo(n.getAmount());
+            }
+        });
+        simulation.run(WARMUP_MILLIS);
+
+        int robots = robotsPerDock * m.deliveryNodes.size();
+        System.out.printf("Modus: %s, %d Roboter%n",
+                TransportDispatcher.getTransportDispatcher().isCentral() ? "central" : "local", robots);
+        double best = 0;
+        for (int run = 1; run <= RUNS; run++) {
+            long events = simulation.getProcessedEvents();
+            long start = System.nanoTime();
+            simulation.run(RUN_MILLIS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double rate = (simulation.getProcessedEvents() - events) / seconds;
+            best = Math.max(best, rate);
+            System.out.printf("Durchlauf %d: %d Schritte in %.2f s, %.0f Schritte/s%n", run,
+                    simulation.getProcessedEvents() - events, seconds, rate);
+        }
+        System.out.printf("Schritte pro Sekunde: %.0f%n", best);
+    }
+}
@@ -0,0 +1,111 @@
+package warehousemanagementtest;
+
+import warehousemanagement.navigation.CompactGraph;
+import warehousemanagement.navigation.ContractionHierarchy;
+import warehousemanagement.navigation.PathFinder;
+
+import java.util.Random;
+
+/**
+ * Vergleicht die Antwortzeit und den Speicherbedarf der Routenberechnung auf grossen, kuenstlichen Lagern: A*-Suche mit
+ * dem {@link PathFinder}, {@link ContractionHierarchy} und (rechnerisch) die vollstaendige Routingtabelle.<br>
+ * Aufruf: {@code java warehousemanagementtest.RoutingBenchmark [Nodes...]}
+ */
+public class RoutingBenchmark {
+
+    private static final int QUERIES = 2000;
+
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[]{2_500, 10_000, 50_000, 100_000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+
+        System.out.printf("%10s %12s %12s %12s %14s %14s %14s%n", "Nodes", "A* [us]", "CH [us]", "CH Aufbau [s]",
+                "Graph [MB]", "CH [MB]", "Tabelle [MB]");
+        for (int size : sizes) {
+            int columns = (int) Math.sqrt(size);
+            CompactGraph graph = createWarehouse(size / columns, columns);
+
+            long start = System.nanoTime();
+            ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+            double buildSeconds = (System.nanoTime() - start) / 1e9;
+
+            int[][] queries = createQueries(graph.size());
+            double aStar = measure(queries, (source, target) -> {
+                try (PathFinder pathFinder = PathFinder.acquire()) {
+                    return pathFinder.search(graph, source, target);
+                }
+            });
+            double contraction = measure(queries, (source, target) -> hierarchy.findPath(source, target, null));
+
+            System.out.printf("%10d %12.1f %12.1f %12.2f %14.2f %14.2f %14.2f%n", graph.size(), aStar, contraction,
+                    buildSeconds, graph.getMemoryFootprint() / 1e6, hierarchy.getMemoryFootprint() / 1e6,
+                    4.0 * graph.size() * graph.size() / 1e6);
+        }
+    }
+
+    /**
+     * Erzeugt ein Lager aus parallelen Gaengen mit {@code columns} Nodes, die Gaenge sind an jeder achten Position und an
+     * den Enden durch Quergaenge verbunden
+     *
+     * @param rows    Anzahl der Gaenge
+     * @param columns Nodes pro Gang
+     * @return das Wegenetz
+     */
+    private static CompactGraph createWarehouse(int rows, int columns) {
+        CompactGraph.Builder builder = new CompactGraph.Builder();
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                builder.addNode(20 * column, 40 * row);
+            }
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int node = row * columns + column;
+                if (column + 1 < columns) {
+                    builder.connect(node, node + 1);
+                }
+                if (row + 1 < rows && (column % 8 == 0 || column == columns - 1)) {
+                    builder.connect(node, node + columns);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static int[][] createQueries(int size) {
+        Random random = new Random(42);
+        int[][] queries = new int[QUERIES][2];
+        for (int[] query : queries) {
+            query[0] = random.nextInt(size);
+            query[1] = random.nextInt(size);
+        }
+        return queries;
+    }
+
+    /**
+     * Fuehrt alle Anfragen zweimal aus (Aufwaermen und Messen) und gibt die mittlere Dauer einer Anfrage zurueck
+     *
+     * @return Mikrosekunden pro Anfrage
+     */
+    private static double measure(int[][] queries, Query query) {
+        long checksum = 0;
+        long start = 0;
+        for (int round = 0; round < 2; round++) {
+            start = System.nanoTime();
+            for (int[] q : queries) {
+                checksum += query.run(q[0], q[1]);
+            }
+        }
+        double micros = (System.nanoTime() - start) / 1e3 / queries.length;
+        if (checksum == Long.MIN_VALUE) {
+            System.out.println(checksum);
+        }
+        return micros;
+    }
+
+    private interface Query {
+        int run(int source, int target);
+    }
+}
@@ -0,0 +1,151 @@
+package warehousemanagementtest;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import warehousemanagement.Map;
+import warehousemanagement.navigation.CompactGraph;
+import warehousemanagement.navigation.NavigationGraph;
+import warehousemanagement.navigation.Node;
+import warehousemanagement.navigation.PathFinder;
+import warehousemanagement.navigation.Router;
+import warehousemanagement.navigation.RoutingTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutingTableTest {
+
+    static final int ROWS = 6;
+
+    static final int COLUMNS = 20;
+
+    static List<Node> nodes;
+
+    static NavigationGraph graph;
+
+    static RoutingTable table;
+
+    @BeforeAll
+    static void setUp() {
+        nodes = createWarehouse();
+        graph = new NavigationGraph(nodes);
+        table = new RoutingTable(graph);
+    }
+
+    @Test
+    void route() {
+        Random random = new Random(1);
+        List<Node> path = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Node source = nodes.get(random.nextInt(nodes.size()));
+            Node target = nodes.get(random.nextInt(nodes.size()));
+            table.route(source, target, path);
+
+            int length = 0;
+            Node previous = source;
+            for (Node n : path) {
+                length += weight(graph, previous, n);
+                previous = n;
+            }
+            assertSame(target, previous);
+            try (PathFinder pathFinder = PathFinder.acquire()) {
+                assertEquals(pathFinder.search(graph.getGraph(), graph.indexOf(source), graph.indexOf(target)), length);
+            }
+        }
+    }
+
+    @Test
+    void unreachable() {
+        Node island = new Node(ROWS * COLUMNS, -100, -100, 10, 10);
+        List<Node> all = new ArrayList<>(nodes);
+        all.add(island);
+        RoutingTable withIsland = new RoutingTable(new NavigationGraph(all));
+        assertThrows(RuntimeException.class, () -> withIsland.route(nodes.get(0), island, new ArrayList<>()));
+    }
+
+    @Test
+    void shortcut() {
+        List<Node> shortcutNodes = createWarehouse();
+        Node source = shortcutNodes.get(4);
+        Node target = shortcutNodes.get(COLUMNS + 4);
+        List<Node> path = new ArrayList<>();
+        new RoutingTable(new NavigationGraph(shortcutNodes)).route(source, target, path);
+        //ohne Quergang an Spalte 4 geht der Weg ueber Spalte 0
+        assertEquals(9, path.size());
+
+        source.addNeighbour(target);
+        target.addNeighbour(source);
+        new RoutingTable(new NavigationGraph(shortcutNodes)).route(source, target, path);
+        assertEquals(List.of(target), path);
+    }
+
+    @Test
+    void mapRebuildsRouter() {
+        Map map = Map.getMap();
+        Node source = map.storageNodes.get(0);
+        Node target = map.storageNodes.get(4);
+        List<Node> path = new ArrayList<>();
+        Router router = map.getRouter();
+        router.route(source, target, path);
+        assertEquals(6, path.size());
+
+        map.connectNodes(source, target);
+        try {
+            assertNotSame(router, map.getRouter());
+            map.getRouter().route(source, target, path);
+            assertEquals(List.of(target), path);
+        } finally {
+            map.disconnectNodes(source, target);
+        }
+        map.getRouter().route(source, target, path);
+        assertEquals(6, path.size());
+    }
+
+    /**
+     * Erzeugt ein Lager aus {@link RoutingTableTest#ROWS} Gaengen mit {@link RoutingTableTest#COLUMNS} Nodes, die Gaenge
+     * sind an jeder achten Position und an den Enden durch Quergaenge verbunden
+     */
+    private static List<Node> createWarehouse() {
+        List<Node> nodes = new ArrayList<>();
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                nodes.add(new Node(row * COLUMNS + column, 20 * column, 40 * row, 10, 10));
+            }
+        }
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                Node node = nodes.get(row * COLUMNS + column);
+                if (column + 1 < COLUMNS) {
+                    connect(node, nodes.get(row * COLUMNS + column + 1));
+                }
+                if (row + 1 < ROWS && (column % 8 == 0 || column == COLUMNS - 1)) {
+                    connect(node, nodes.get((row + 1) * COLUMNS + column));
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private static void connect(Node n1, Node n2) {
+        n1.addNeighbour(n2);
+        n2.addNeighbour(n1);
+    }
+
+    /**
+     * Sucht die Laenge der direkten Verbindung zwischen zwei Nodes, schlaegt fehl wenn es keine gibt
+     */
+    private static int weight(NavigationGraph graph, Node from, Node to) {
+        CompactGraph compact = graph.getGraph();
+        int index = graph.indexOf(from);
+        for (int edge = compact.getEdgeStart(index); edge < compact.getEdgeEnd(index); edge++) {
+            if (compact.getEdgeTarget(edge) == graph.indexOf(to)) {
+                return compact.getEdgeWeight(edge);
+            }
+        }
+        fail("Keine Verbindung zwischen " + from.getId() + " und " + to.getId());
+        return 0;
+    }
+}
@@ -0,0 +1,75 @@
+package warehousemanagementtest;
+
+import org.junit.jupiter.api.Test;
+import warehousemanagement.simulation.Simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationTest {
+
+    @Test
+    void run() {
+        Simulation simulation = new Simulation(true, 0);
+        List<Long> executed = new ArrayList<>();
+        simulation.schedule(300, () -> executed.add(simulation.currentTimeMillis()));
+        simulation.schedule(100, () -> executed.add(simulation.currentTimeMillis()));
+        simulation.schedule(5000, () -> executed.add(simulation.currentTimeMillis()));
+
+        simulation.run(1000);
+        assertEquals(List.of(100L, 300L), executed);
+        assertEquals(1000, simulation.currentTimeMillis());
+        assertEquals(1, simulation.getPendingEvents());
+    }
+
+    @Test
+    void sameTime() {
+        Simulation simulation = new Simulation(true, 0);
+        StringBuilder order = new StringBuilder();
+        simulation.schedule(10, () -> order.append('a'));
+        simulation.schedule(10, () -> order.append('b'));
+        simulation.schedule(0, () -> simulation.schedule(10, () -> order.append('c')));
+
+        simulation.run(10);
+        assertEquals("abc", order.toString());
+    }
+
+    @Test
+    void scheduleAtFixedRate() {
+        Simulation simulation = new Simulation(true, 0);
+        int[] ticks = new int[1];
+        simulation.scheduleAtFixedRate(0, 1000, () -> ticks[0]++);
+
+        //eine Schicht von acht Stunden muss deutlich schneller als in Echtzeit durchlaufen
+        long start = System.currentTimeMillis();
+        simulation.run(8 * 60 * 60 * 1000);
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertEquals(8 * 60 * 60 + 1, ticks[0]);
+    }
+
+    @Test
+    void setSpeed() {
+        long[] wallClock = {1000};
+        Simulation simulation = new Simulation(true, 100, () -> wallClock[0]);
+        //2000 ms Simulationszeit dauern bei hundertfacher Geschwindigkeit 20 ms
+        assertEquals(20, simulation.wallDelay(2000));
+        wallClock[0] += 15;
+        assertEquals(5, simulation.wallDelay(2000));
+        wallClock[0] += 10;
+        assertTrue(simulation.wallDelay(2000) <= 0);
+
+        //nach einem Wechsel wird ab der aktuellen Zeit mit der neuen Geschwindigkeit gerechnet
+        simulation.setSpeed(2);
+        assertEquals(1000, simulation.wallDelay(2000));
+        simulation.setSpeed(0);
+        assertEquals(0, simulation.wallDelay(2000));
+
+        Simulation realTime = new Simulation(false, 1, () -> wallClock[0]);
+        wallClock[0] += 500;
+        assertEquals(500, realTime.currentTimeMillis());
+
+        assertThrows(RuntimeException.class, () -> new Simulation(false, 2));
+    }
+}
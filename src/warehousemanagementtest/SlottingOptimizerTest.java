@@ -0,0 +1,40 @@
+package warehousemanagementtest;
+
+import org.junit.jupiter.api.Test;
+import warehousemanagement.navigation.SlottingOptimizer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlottingOptimizerTest {
+
+    @Test
+    void classify() {
+        Map<Integer, Double> velocity = new HashMap<>();
+        velocity.put(1, 50.0);
+        velocity.put(2, 30.0);
+        velocity.put(3, 12.0);
+        velocity.put(4, 5.0);
+        velocity.put(5, 3.0);
+        velocity.put(6, 0.0);
+        Map<Integer, Character> classes = SlottingOptimizer.classify(velocity);
+        assertEquals('A', classes.get(1));
+        assertEquals('A', classes.get(2));
+        assertEquals('B', classes.get(3));
+        assertEquals('B', classes.get(4));
+        assertEquals('C', classes.get(5));
+        assertEquals('C', classes.get(6));
+    }
+
+    @Test
+    void classifyWithoutMovement() {
+        Map<Integer, Double> velocity = new HashMap<>();
+        velocity.put(1, 0.0);
+        velocity.put(2, 0.0);
+        Map<Integer, Character> classes = SlottingOptimizer.classify(velocity);
+        assertEquals('C', classes.get(1));
+        assertEquals('C', classes.get(2));
+    }
+}
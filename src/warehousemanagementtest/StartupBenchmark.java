@@ -0,0 +1,37 @@
+package warehousemanagementtest;
+
+import warehousemanagement.Controller;
+import warehousemanagement.gui.Panel;
+
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Misst Startzeit, Heap und geladene Klassen bis der {@link Controller} laeuft, ohne Oberflaeche und mit. Jeder Modus
+ * braucht eine eigene JVM, deshalb wird er als Argument uebergeben. Im Modus {@code gui} wird zusaetzlich das
+ * {@link Panel} mit der Karte erzeugt und einmal in ein Bild gezeichnet, das Fenster selbst braucht eine Anzeige und
+ * fehlt deshalb in der Messung.<br>
+ * Aufruf: {@code java -Djava.awt.headless=true warehousemanagementtest.StartupBenchmark headless|gui}
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] args) {
+        boolean gui = args.length > 0 && args[0].equals("gui");
+        long start = System.nanoTime();
+        Controller.getController();
+        if (gui) {
+            Panel panel = new Panel();
+            panel.setSize(1600, 1000);
+            panel.doLayout();
+            BufferedImage image = new BufferedImage(panel.getWidth(), panel.getHeight(), BufferedImage.TYPE_INT_RGB);
+            panel.printAll(image.createGraphics());
+        }
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heap = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("%s: Start %.1f ms, Heap %.1f MB, %d Klassen%n", gui ? "gui" : "headless", millis,
+                heap / 1e6, ManagementFactory.getClassLoadingMXBean().getLoadedClassCount());
+    }
+}
@@ -0,0 +1,45 @@
+package warehousemanagementtest;
+
+import org.junit.jupiter.api.Test;
+import warehousemanagement.Map;
+import warehousemanagement.navigation.DeliveryNode;
+import warehousemanagement.navigation.StorageIndex;
+import warehousemanagement.navigation.StorageNode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageIndexTest {
+
+    @Test
+    void selection() {
+        Map m = Map.getMap();
+        StorageIndex index = StorageIndex.getStorageIndex();
+        DeliveryNode dock = m.deliveryNodes.get(2);
+        StorageNode near = m.storageNodes.get(4);
+        StorageNode far = m.storageNodes.get(1);
+        near.setMaterialType(4);
+        far.setMaterialType(4);
+        try {
+            assertEquals(2, index.getStorageNodes(4).size());
+            //Ohne Bestand gewinnt die Wegstrecke
+            assertSame(near, index.findPick(dock, 4, 10));
+            assertSame(near, index.findPutAway(dock, 4, 10));
+
+            far.loadItems(4, 20);
+            assertSame(far, index.findPick(dock, 4, 10));
+            near.loadItems(4, 5);
+            assertSame(far, index.findPick(dock, 4, 10));
+            assertSame(near, index.findPick(dock, 4, 5));
+
+            near.loadItems(4, 95);
+            assertSame(far, index.findPutAway(dock, 4, 10));
+        } finally {
+            near.unloadUpTo(near.getStorageSize());
+            far.unloadUpTo(far.getStorageSize());
+            near.resetMaterialType();
+            far.resetMaterialType();
+        }
+        assertTrue(index.getStorageNodes(4).isEmpty());
+        assertNull(index.findPick(dock, 4, 1));
+    }
+}
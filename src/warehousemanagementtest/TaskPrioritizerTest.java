@@ -0,0 +1,89 @@
+package warehousemanagementtest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import warehousemanagement.Shipment;
+import warehousemanagement.navigation.DeliveryNode;
+import warehousemanagement.navigation.NavigationGraph;
+import warehousemanagement.navigation.Node;
+import warehousemanagement.navigation.TaskPrioritizer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskPrioritizerTest {
+
+    Node position;
+
+    /**
+     * Frist nach 1000 s
+     */
+    DeliveryNode urgent;
+
+    /**
+     * Frist zwei Sekunden spaeter als {@link TaskPrioritizerTest#urgent}, also innerhalb der Wechselschwelle
+     */
+    DeliveryNode close;
+
+    /**
+     * Frist nach 1100 s
+     */
+    DeliveryNode relaxed;
+
+    /**
+     * Am dringendsten, aber nicht mit dem Roboter verbunden
+     */
+    DeliveryNode unreachable;
+
+    NavigationGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        position = new Node(0, 0, 0, 10, 10);
+        urgent = dock(0, 1000);
+        close = dock(1, 1002);
+        relaxed = dock(2, 1100);
+        unreachable = dock(3, 10);
+        for (DeliveryNode n : List.of(urgent, close, relaxed)) {
+            position.addNeighbour(n);
+            n.addNeighbour(position);
+        }
+        graph = new NavigationGraph(List.of(position, urgent, close, relaxed, unreachable));
+    }
+
+    /**
+     * Erstellt eine DeliveryNode die ein Shipment mit einem Materialtyp ohne Lager auslaedt
+     */
+    private static DeliveryNode dock(int id, int loadingTime) {
+        DeliveryNode n = new DeliveryNode(id, 100 * (id + 1), 0, 10, 10);
+        n.loadShipment(new Shipment(id, 0, loadingTime, 10, 2, false, 0, "Test"));
+        return n;
+    }
+
+    @Test
+    void earliestDeadlineFirst() {
+        TaskPrioritizer prioritizer = TaskPrioritizer.getTaskPrioritizer();
+        assertSame(urgent, prioritizer.select(List.of(relaxed, urgent, unreachable), graph, position, null, relaxed));
+        assertTrue(prioritizer.getSlack(urgent.getCurrentShipment())
+                < prioritizer.getSlack(relaxed.getCurrentShipment()));
+        //der Unterschied ist groesser als die Wechselschwelle
+        assertSame(urgent, prioritizer.select(List.of(relaxed, urgent), graph, position, relaxed, relaxed));
+    }
+
+    @Test
+    void switchMargin() {
+        TaskPrioritizer prioritizer = TaskPrioritizer.getTaskPrioritizer();
+        assertTrue(TaskPrioritizer.SWITCH_MARGIN_MILLIS > 2000);
+        assertSame(close, prioritizer.select(List.of(urgent, close), graph, position, close, close));
+        assertSame(urgent, prioritizer.select(List.of(urgent, close), graph, position, null, close));
+    }
+
+    @Test
+    void nothingToDo() {
+        DeliveryNode idle = new DeliveryNode(4, 0, 100, 10, 10);
+        TaskPrioritizer prioritizer = TaskPrioritizer.getTaskPrioritizer();
+        assertSame(relaxed, prioritizer.select(List.of(idle), graph, position, null, relaxed));
+        assertSame(relaxed, prioritizer.select(List.of(unreachable), graph, position, urgent, relaxed));
+    }
+}
@@ -0,0 +1,45 @@
+package warehousemanagementtest;
+
+import org.junit.jupiter.api.Test;
+import warehousemanagement.navigation.TourPlanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TourPlannerTest {
+
+    /**
+     * Abstaende zwischen den Punkten auf ganze Pixel gerundet, der erste Punkt ist der Start, der letzte das Ende
+     */
+    private static long[][] distances(int[][] points) {
+        long[][] distance = new long[points.length][points.length];
+        for (int i = 0; i < points.length; i++) {
+            for (int j = 0; j < points.length; j++) {
+                distance[i][j] = Math.round(Math.hypot(points[i][0] - points[j][0], points[i][1] - points[j][1]));
+            }
+        }
+        return distance;
+    }
+
+    @Test
+    void line() {
+        long[][] distance = distances(new int[][]{{0, 0}, {30, 0}, {10, 0}, {20, 0}, {40, 0}});
+        assertArrayEquals(new int[]{2, 3, 1}, TourPlanner.order(distance));
+        assertEquals(40, TourPlanner.length(distance, TourPlanner.order(distance)));
+    }
+
+    @Test
+    void twoOpt() {
+        //Nearest Neighbour allein ergibt hier eine Tour der Laenge 17
+        long[][] distance = distances(new int[][]{{8, 4}, {2, 7}, {5, 5}, {3, 6}, {6, 3}, {8, 5}, {2, 4}});
+        int[] stops = TourPlanner.order(distance);
+        assertArrayEquals(new int[]{5, 4, 2, 3, 1}, stops);
+        assertEquals(12, TourPlanner.length(distance, stops));
+    }
+
+    @Test
+    void singleStop() {
+        long[][] distance = distances(new int[][]{{0, 0}, {5, 5}, {10, 0}});
+        assertArrayEquals(new int[]{1}, TourPlanner.order(distance));
+        assertEquals(0, TourPlanner.order(distances(new int[][]{{0, 0}, {10, 0}})).length);
+    }
+}